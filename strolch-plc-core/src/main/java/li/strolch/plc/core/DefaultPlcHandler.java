@@ -11,24 +11,31 @@ import li.strolch.model.visitor.SetParameterValueVisitor;
 import li.strolch.persistence.api.StrolchTransaction;
 import li.strolch.plc.core.hw.*;
 import li.strolch.plc.core.hw.gpio.PlcGpioController;
+import li.strolch.plc.core.jfr.PlcAddressUpdateEvent;
+import li.strolch.plc.core.jfr.PlcEvents;
 import li.strolch.plc.model.ConnectionState;
 import li.strolch.plc.model.PlcAddress;
+import li.strolch.plc.model.PlcAddressKey;
 import li.strolch.plc.model.PlcAddressType;
+import li.strolch.plc.model.PlcPersistence;
 import li.strolch.plc.model.PlcState;
 import li.strolch.privilege.model.Certificate;
 import li.strolch.privilege.model.PrivilegeContext;
 import li.strolch.runtime.configuration.ComponentConfiguration;
+import li.strolch.search.ResourceSearch;
 import li.strolch.utils.collections.MapOfMaps;
 import li.strolch.utils.dbc.DBC;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
-import java.util.function.Consumer;
+import java.util.concurrent.atomic.LongAdder;
 
 import static java.lang.System.nanoTime;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static li.strolch.model.StrolchModelConstants.BAG_PARAMETERS;
 import static li.strolch.plc.model.PlcConstants.*;
 import static li.strolch.utils.helper.ExceptionHelper.getCallerMethod;
@@ -39,29 +46,57 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 
 	public static final int SILENT_THRESHOLD = 100;
 	private static final int MAX_MESSAGE_QUEUE = 200;
+	private static final int MAX_MESSAGE_BATCH = 50;
+	private static final long MESSAGE_RETRY_DELAY_MS = 1000L;
 
 	private PrivilegeContext ctx;
 	private String plcId;
 	private Plc plc;
 	private PlcState plcState;
 	private String plcStateMsg;
-	private MapOfMaps<String, String, PlcAddress> plcAddresses;
-	private MapOfMaps<String, String, PlcAddress> plcTelegrams;
-	private Map<PlcAddress, String> addressesToResourceId;
-
-	private GlobalPlcListener globalListener;
+	private volatile MapOfMaps<String, String, PlcAddress> plcAddresses;
+	private volatile MapOfMaps<String, String, PlcAddress> plcTelegrams;
+	private volatile Map<PlcAddress, String> addressesToResourceId;
+	private Map<String, String> connectionFingerprints;
+	private volatile PlcAddressValues addressValues;
+	private volatile PlcAddress[] addressesById;
+	private volatile int[] valueIds;
+	private volatile SampledPersistence[] sampledPersistences;
+	private PlcHistorian historian;
+	private PlcDebouncer debouncer;
+	private final LongAdder suppressedUpdates;
+	private final PlcListener updateStateListener;
+
+	private volatile GlobalPlcListener globalListener;
 
 	private LinkedBlockingDeque<Runnable> updateStateQueue;
-	private LinkedBlockingDeque<Consumer<GlobalPlcListener>> messageQueue;
+	private PlcMessageQueue messageQueue;
 
 	private boolean run;
 	private Future<?> messageSenderTask;
 	private Future<?> updateStateTask;
+	private Future<?> debouncerTask;
 
 	private boolean verbose;
+	private int notificationLanes;
+	private int notificationBufferSize;
+	private NotificationOverflowPolicy notificationOverflowPolicy;
+	private NotificationWaitStrategy notificationWaitStrategy;
+	private int flightRecorderSize;
+	private long connectTimeoutMs;
+	private long scanCycleTimeMs;
+	private long updateStateWindowNanos;
+	private int updateStateBatchSize;
+	private LatencyHistogram updateStateCommitLatency;
+	private boolean historianEnabled;
+	private int historianSegmentSize;
+	private int historianMaxSegments;
+	private boolean configureParallel;
 
 	public DefaultPlcHandler(ComponentContainer container, String componentName) {
 		super(container, componentName);
+		this.suppressedUpdates = new LongAdder();
+		this.updateStateListener = this::queueUpdateState;
 	}
 
 	@Override
@@ -79,6 +114,51 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 		return this.plc;
 	}
 
+	@Override
+	public PlcAddressValues getAddressValues() {
+		return this.addressValues;
+	}
+
+	@Override
+	public <T> T getAddressValue(String resource, String action) {
+		PlcAddress plcAddress = getPlcAddress(resource, action);
+		@SuppressWarnings("unchecked") T value = (T) this.addressValues.get(getValueId(plcAddress));
+		return value;
+	}
+
+	@Override
+	public long getSuppressedUpdates() {
+		return this.suppressedUpdates.sum();
+	}
+
+	@Override
+	public LatencyHistogram getUpdateStateCommitLatency() {
+		return this.updateStateCommitLatency;
+	}
+
+	@Override
+	public PlcHistorian getHistorian() {
+		return this.historian;
+	}
+
+	@Override
+	public PlcDebouncer getDebouncer() {
+		return this.debouncer;
+	}
+
+	@Override
+	public File dumpFlightRecorder() throws IOException {
+		PlcFlightRecorder flightRecorder = this.plc == null ? null : this.plc.getFlightRecorder();
+		if (flightRecorder == null)
+			throw new IllegalStateException("The flight recorder is not enabled!");
+
+		File tempPath = getConfiguration().getRuntimeConfiguration().getTempPath();
+		File dumpFile = new File(tempPath, "plc_flight_recorder_" + System.currentTimeMillis() + ".bin");
+		flightRecorder.dump(dumpFile);
+		logger.info("Dumped flight recorder to {}", dumpFile.getAbsolutePath());
+		return dumpFile;
+	}
+
 	@Override
 	public PlcState getPlcState() {
 		return this.plcState;
@@ -89,6 +169,11 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 		return this.plcStateMsg;
 	}
 
+	@Override
+	public boolean hasPlcAddress(String resource, String action) {
+		return this.plcAddresses.containsElement(resource, action);
+	}
+
 	@Override
 	public PlcAddress getPlcAddress(String resource, String action) {
 		DBC.PRE.assertNotNull("resource must not be null", resource);
@@ -126,8 +211,26 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 		this.plcTelegrams = new MapOfMaps<>();
 		this.addressesToResourceId = new HashMap<>();
 		this.verbose = configuration.getBoolean("verbose", false);
-
-		this.messageQueue = new LinkedBlockingDeque<>();
+		this.notificationLanes = configuration.getInt("notificationLanes", 1);
+		this.notificationBufferSize = configuration.getInt("notificationBufferSize", 4096);
+		this.notificationOverflowPolicy = NotificationOverflowPolicy.valueOf(
+				configuration.getString("notificationOverflowPolicy", NotificationOverflowPolicy.Block.name()));
+		this.notificationWaitStrategy = NotificationWaitStrategy.valueOf(
+				configuration.getString("notificationWaitStrategy", NotificationWaitStrategy.Blocking.name()));
+		this.flightRecorderSize = configuration.getInt("flightRecorderSize", 16384);
+		this.connectTimeoutMs = configuration.getInt("connectTimeout", 30000);
+		this.scanCycleTimeMs = configuration.getInt("scanCycleTime", 0);
+		this.updateStateWindowNanos = MILLISECONDS.toNanos(configuration.getInt("updateStateWindow", 0));
+		this.updateStateBatchSize = configuration.getInt("updateStateBatchSize", 100);
+		this.updateStateCommitLatency = new LatencyHistogram();
+		this.historianEnabled = configuration.getBoolean("historianEnabled", false);
+		this.historianSegmentSize = configuration.getInt("historianSegmentSize", 16 * 1024 * 1024);
+		this.historianMaxSegments = configuration.getInt("historianMaxSegments", 8);
+		this.configureParallel = configuration.getBoolean("configureParallel", false);
+		this.debouncer = new PlcDebouncer(configuration.getInt("debounceTickResolution", 10),
+				configuration.getInt("debounceWheelSize", 512));
+
+		this.messageQueue = new PlcMessageQueue(MAX_MESSAGE_QUEUE);
 		this.updateStateQueue = new LinkedBlockingDeque<>();
 
 		super.initialize(configuration);
@@ -140,6 +243,14 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 		this.run = true;
 		this.messageSenderTask = getSingleThreadExecutor("LogSender").submit(this::sendMessages);
 		this.updateStateTask = getSingleThreadExecutor("UpdateState").submit(this::updateStates);
+		long tickMillis = this.debouncer.getTickMillis();
+		this.debouncerTask = getScheduledExecutor("PlcDebouncer").scheduleAtFixedRate(this.debouncer::tick,
+				tickMillis, tickMillis, MILLISECONDS);
+
+		if (this.historianEnabled) {
+			File historianPath = new File(getConfiguration().getRuntimeConfiguration().getDataPath(), "plc_historian");
+			this.historian = new PlcHistorian(historianPath, this.historianSegmentSize, this.historianMaxSegments);
+		}
 
 		if (reconfigurePlc())
 			startPlc();
@@ -155,6 +266,10 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 			this.messageSenderTask.cancel(true);
 		if (this.updateStateTask != null)
 			this.updateStateTask.cancel(true);
+		if (this.debouncerTask != null)
+			this.debouncerTask.cancel(true);
+		if (this.historian != null)
+			this.historian.close();
 
 		if (this.ctx != null)
 			getContainer().getPrivilegeHandler().invalidate(this.ctx.getCertificate());
@@ -194,7 +309,7 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 	@Override
 	public boolean reconfigurePlc() {
 		if (this.plcState == PlcState.Started)
-			throw new IllegalStateException("Can not reconfigure if started!");
+			return reconfigureStartedPlc();
 
 		try {
 			MapOfMaps<String, String, PlcAddress> plcAddresses = new MapOfMaps<>();
@@ -202,6 +317,12 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 			Map<PlcAddress, String> addressesToResourceId = new HashMap<>();
 			this.plc = configure(validateCtx(), plcAddresses, plcTelegrams, addressesToResourceId);
 			this.plc.setVerbose(this.verbose);
+			this.plc.setNotificationLanes(this.notificationLanes);
+			this.plc.setNotificationBuffer(this.notificationBufferSize, this.notificationOverflowPolicy,
+					this.notificationWaitStrategy);
+			this.plc.setFlightRecorderSize(this.flightRecorderSize);
+			this.plc.setConnectTimeout(this.connectTimeoutMs);
+			this.plc.setScanCycleTime(this.scanCycleTimeMs);
 			this.plcAddresses = plcAddresses;
 			this.plcTelegrams = plcTelegrams;
 			this.addressesToResourceId = addressesToResourceId;
@@ -233,9 +354,18 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 
 			String plcClassName = getConfiguration().getString("plcClass", DefaultPlc.class.getName());
 
-			plc = PlcConfigurator.configurePlc(tx, plcClassName, plcAddresses, plcTelegrams, addressesToResourceId);
+			plc = PlcConfigurator.configurePlc(tx, plcClassName, this.configureParallel, plcAddresses, plcTelegrams,
+					addressesToResourceId);
 			plc.setConnectionStateChangeListener(this);
-			plcAddresses.values().forEach(plcAddress -> plc.register(plcAddress, this::queueUpdateState));
+			plcAddresses.values().forEach(plcAddress -> plc.register(plcAddress, this.updateStateListener));
+			PlcAddress[] addressesById = getAddressesById(plc, plcAddresses);
+			this.addressValues = seedAddressValues(tx, addressesById, addressesToResourceId);
+			this.sampledPersistences = createSampledPersistences(addressesById);
+			this.addressesById = addressesById;
+			this.valueIds = getValueIds(plc, plcAddresses, addressesById, addressesToResourceId);
+			if (this.historian != null)
+				this.historian.setAddresses(addressesById);
+			this.connectionFingerprints = getConnectionFingerprints(getConnectionResources(tx));
 
 			if (tx.getConfiguration().hasParameter(PARAM_VERBOSE)) {
 				boolean verboseOverride = tx.getConfiguration().getBoolean(PARAM_VERBOSE);
@@ -250,6 +380,212 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 		return plc;
 	}
 
+	/**
+	 * Applies the changes of the configuration in the model to the started PLC. The new configuration is built in full
+	 * to validate it, then only the added, removed and changed connections and addresses are applied to the running
+	 * PLC, so that all other connections keep running
+	 */
+	private boolean reconfigureStartedPlc() {
+		try (StrolchTransaction tx = openTx(validateCtx().getCertificate(), getCallerMethod(), true)) {
+
+			String plcClassName = getConfiguration().getString("plcClass", DefaultPlc.class.getName());
+			MapOfMaps<String, String, PlcAddress> plcAddresses = new MapOfMaps<>();
+			MapOfMaps<String, String, PlcAddress> plcTelegrams = new MapOfMaps<>();
+			Map<PlcAddress, String> addressesToResourceId = new HashMap<>();
+			PlcConfigurator.configurePlc(tx, plcClassName, this.configureParallel, plcAddresses, plcTelegrams,
+					addressesToResourceId);
+
+			// changed connections are removed and added with a new instance
+			Map<String, Resource> connectionResources = getConnectionResources(tx);
+			Map<String, String> connectionFingerprints = getConnectionFingerprints(connectionResources);
+			Set<String> removedConnections = new HashSet<>();
+			this.connectionFingerprints.forEach((id, fingerprint) -> {
+				if (!fingerprint.equals(connectionFingerprints.get(id)))
+					removedConnections.add(id);
+			});
+			List<PlcConnection> addedConnections = new ArrayList<>();
+			for (Map.Entry<String, String> entry : connectionFingerprints.entrySet()) {
+				if (!entry.getValue().equals(this.connectionFingerprints.get(entry.getKey())))
+					addedConnections.add(
+							PlcConfigurator.createConnection(this.plc, connectionResources.get(entry.getKey())));
+			}
+
+			// changed notification addresses are removed and added with the new instance
+			MapOfMaps<String, String, PlcAddress> currentAddresses = this.plcAddresses;
+			List<PlcAddress> removedAddresses = new ArrayList<>();
+			List<PlcAddress> addedAddresses = new ArrayList<>();
+			for (PlcAddress current : currentAddresses.values()) {
+				PlcAddress plcAddress = plcAddresses.getElement(current.resource, current.action);
+				if (plcAddress == null) {
+					this.plc.unregister(current, this.updateStateListener);
+					if (current.type == PlcAddressType.Notification)
+						removedAddresses.add(current);
+				} else if (current.type == PlcAddressType.Notification && !isSameConfiguration(current,
+						plcAddress)) {
+					removedAddresses.add(current);
+				}
+			}
+			for (PlcAddress plcAddress : plcAddresses.values()) {
+				PlcAddress current = currentAddresses.getElement(plcAddress.resource, plcAddress.action);
+				if (current == null)
+					this.plc.register(plcAddress, this.updateStateListener);
+				if (plcAddress.type == PlcAddressType.Notification && (current == null
+						|| current.type != PlcAddressType.Notification
+						|| !isSameConfiguration(current, plcAddress)))
+					addedAddresses.add(plcAddress);
+			}
+
+			// the new addresses are known to the handler before their notifications start
+			this.plcAddresses = plcAddresses;
+			this.plcTelegrams = plcTelegrams;
+			this.addressesToResourceId = addressesToResourceId;
+			PlcAddress[] addressesById = getAddressesById(this.plc, plcAddresses);
+			this.addressValues = copyAddressValues(seedAddressValues(tx, addressesById, addressesToResourceId),
+					addressesById);
+			this.sampledPersistences = copySampledPersistences(createSampledPersistences(addressesById));
+			this.addressesById = addressesById;
+			this.valueIds = getValueIds(this.plc, plcAddresses, addressesById, addressesToResourceId);
+			if (this.historian != null)
+				this.historian.setAddresses(addressesById);
+			this.connectionFingerprints = connectionFingerprints;
+
+			this.plc.reconfigure(removedConnections, addedConnections, removedAddresses, addedAddresses);
+
+			this.plcStateMsg = PlcState.Started.name();
+			logger.info("Reconfigured started PLC with {} addresses", plcAddresses.size());
+			return true;
+
+		} catch (Exception e) {
+			logger.error("Failed to reconfigure started Plc, keeping current configuration", e);
+			this.plcStateMsg = "Reconfigure failed: " + getExceptionMessageWithCauses(e);
+			return false;
+		}
+	}
+
+	private static boolean isSameConfiguration(PlcAddress current, PlcAddress plcAddress) {
+		return current.address.equals(plcAddress.address)
+				&& current.valueType == plcAddress.valueType
+				&& current.inverted == plcAddress.inverted
+				&& current.remote == plcAddress.remote
+				&& current.conflate == plcAddress.conflate
+				&& current.persistence == plcAddress.persistence
+				&& current.persistInterval == plcAddress.persistInterval;
+	}
+
+	/**
+	 * Copies the current values of the unchanged addresses to the given new store, as they might not yet be persisted
+	 */
+	private PlcAddressValues copyAddressValues(PlcAddressValues addressValues, PlcAddress[] addresses) {
+		PlcAddressValues current = this.addressValues;
+		PlcAddress[] currentAddresses = this.addressesById;
+		for (int id = 0; id < Math.min(addresses.length, currentAddresses.length); id++) {
+			if (addresses[id] != null
+					&& currentAddresses[id] != null
+					&& addresses[id].valueType == currentAddresses[id].valueType)
+				addressValues.set(id, current.get(id));
+		}
+		return addressValues;
+	}
+
+	/**
+	 * Keeps the current sampled persistences of unchanged addresses, so that their pending values are not lost
+	 */
+	private SampledPersistence[] copySampledPersistences(SampledPersistence[] sampledPersistences) {
+		SampledPersistence[] current = this.sampledPersistences;
+		for (int id = 0; id < Math.min(sampledPersistences.length, current.length); id++) {
+			if (sampledPersistences[id] != null
+					&& current[id] != null
+					&& sampledPersistences[id].intervalNanos == current[id].intervalNanos)
+				sampledPersistences[id] = current[id];
+		}
+		return sampledPersistences;
+	}
+
+	private static Map<String, Resource> getConnectionResources(StrolchTransaction tx) {
+		Map<String, Resource> connections = new HashMap<>();
+		new ResourceSearch().types(TYPE_PLC_CONNECTION).search(tx).toList().forEach(c -> connections.put(c.getId(), c));
+		return connections;
+	}
+
+	private static Map<String, String> getConnectionFingerprints(Map<String, Resource> connections) {
+		Map<String, String> fingerprints = new HashMap<>();
+		connections.forEach((id, connection) -> fingerprints.put(id, PlcConfigurator.fingerprint(connection)));
+		return fingerprints;
+	}
+
+	/**
+	 * Returns the notification addresses indexed by their id. The ids of telegrams with their own resource and action
+	 * are null, as their values are kept on their notification address, see {@link #getValueIds}
+	 */
+	private static PlcAddress[] getAddressesById(Plc plc, MapOfMaps<String, String, PlcAddress> plcAddresses) {
+		int maxId = plcAddresses.values().stream().mapToInt(plc::getAddressId).max().orElse(-1);
+		PlcAddress[] addresses = new PlcAddress[maxId + 1];
+		plcAddresses.values()
+				.stream()
+				.filter(plcAddress -> plcAddress.type == PlcAddressType.Notification)
+				.forEach(plcAddress -> addresses[plc.getAddressId(plcAddress)] = plcAddress);
+		return addresses;
+	}
+
+	/**
+	 * Maps the id of each address to the id of the notification address of the same address resource, as a telegram
+	 * with its own resource and action is notified with its own id, but changes the value of its address
+	 */
+	private static int[] getValueIds(Plc plc, MapOfMaps<String, String, PlcAddress> plcAddresses,
+			PlcAddress[] addressesById, Map<PlcAddress, String> addressesToResourceId) {
+		Map<String, Integer> idsByResourceId = new HashMap<>();
+		for (int id = 0; id < addressesById.length; id++) {
+			if (addressesById[id] != null)
+				idsByResourceId.put(addressesToResourceId.get(addressesById[id]), id);
+		}
+
+		int[] valueIds = new int[addressesById.length];
+		Arrays.fill(valueIds, -1);
+		for (PlcAddress plcAddress : plcAddresses.values()) {
+			Integer valueId = idsByResourceId.get(addressesToResourceId.get(plcAddress));
+			if (valueId != null)
+				valueIds[plc.getAddressId(plcAddress)] = valueId;
+		}
+		return valueIds;
+	}
+
+	/**
+	 * @return the id of the notification address whose value is changed by the given address, or -1 if unknown
+	 */
+	private int getValueId(PlcAddress plcAddress) {
+		int id = this.plc.getAddressId(plcAddress);
+		int[] valueIds = this.valueIds;
+		return id < 0 || id >= valueIds.length ? -1 : valueIds[id];
+	}
+
+	private SampledPersistence[] createSampledPersistences(PlcAddress[] addresses) {
+		SampledPersistence[] sampledPersistences = new SampledPersistence[addresses.length];
+		for (int id = 0; id < addresses.length; id++) {
+			PlcAddress plcAddress = addresses[id];
+			if (plcAddress != null && plcAddress.persistence == PlcPersistence.Sampled)
+				sampledPersistences[id] = new SampledPersistence(plcAddress);
+		}
+		return sampledPersistences;
+	}
+
+	private static PlcAddressValues seedAddressValues(StrolchTransaction tx, PlcAddress[] addresses,
+			Map<PlcAddress, String> addressesToResourceId) {
+
+		PlcAddressValues addressValues = new PlcAddressValues(addresses);
+		for (int id = 0; id < addresses.length; id++) {
+			PlcAddress plcAddress = addresses[id];
+			if (plcAddress == null)
+				continue;
+			String addressId = addressesToResourceId.get(plcAddress);
+			if (addressId == null)
+				continue;
+			Resource addressRes = tx.getResourceBy(TYPE_PLC_ADDRESS, addressId, true);
+			addressValues.set(id, addressRes.getParameter(PARAM_VALUE, true).getValue());
+		}
+
+		return addressValues;
+	}
+
 	private PrivilegeContext validateCtx() {
 		if (this.ctx == null) {
 			this.ctx = getContainer().getPrivilegeHandler().openAgentSystemUserContext();
@@ -267,7 +603,10 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 
 	@Override
 	public void setGlobalListener(GlobalPlcListener listener) {
-		this.globalListener = listener;
+		synchronized (this) {
+			this.globalListener = listener;
+			notifyAll();
+		}
 		if (this.plc != null)
 			this.plc.setGlobalListener(listener);
 	}
@@ -291,7 +630,38 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 	}
 
 	private void queueUpdateState(PlcAddress plcAddress, Object o) {
-		this.updateStateQueue.add(() -> updatePlcAddress(plcAddress, o));
+
+		// the last values are always the latest queued values, so unchanged values need not be persisted
+		int valueId = getValueId(plcAddress);
+		if (!this.addressValues.update(valueId, o)) {
+			this.suppressedUpdates.increment();
+			if (this.verbose)
+				logger.info("Ignoring PlcAddress {} unchanged value {}", plcAddress.toKey(), o);
+			return;
+		}
+
+		long ingestTime = this.plc.getIngestTime();
+		if (this.historian != null)
+			this.historian.record(valueId, o, ingestTime);
+
+		// telegrams are notified with their own instance, thus use the persistence of the notification address
+		PlcAddress[] addressesById = this.addressesById;
+		SampledPersistence[] sampledPersistences = this.sampledPersistences;
+		PlcAddress notificationAddress = valueId >= 0 && valueId < addressesById.length ? addressesById[valueId] : null;
+		PlcPersistence persistence = notificationAddress == null ?
+				PlcPersistence.Always :
+				notificationAddress.persistence;
+		if (persistence == PlcPersistence.Sampled
+				&& (valueId >= sampledPersistences.length || sampledPersistences[valueId] == null))
+			persistence = PlcPersistence.Always;
+
+		switch (persistence) {
+			case Volatile -> {
+				// only kept in memory
+			}
+			case Sampled -> sampledPersistences[valueId].offer(o, ingestTime);
+			default -> this.updateStateQueue.add(new AddressUpdate(plcAddress, o, ingestTime));
+		}
 	}
 
 	private void queueUpdateState(PlcConnection connection) {
@@ -301,33 +671,36 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 
 	@Override
 	public void sendMsg(LogMessage message) {
-		addMsg(listener -> listener.sendMsg(message));
+		this.messageQueue.add(message);
 	}
 
 	@Override
 	public void disableMsg(Locator locator) {
-		addMsg(listener -> listener.disableMsg(locator));
+		this.messageQueue.disable(locator);
 	}
 
-	private synchronized void addMsg(Consumer<GlobalPlcListener> consumer) {
-		if (this.messageQueue.size() > MAX_MESSAGE_QUEUE)
-			this.messageQueue.removeFirst();
-		this.messageQueue.addLast(consumer);
+	private synchronized GlobalPlcListener awaitGlobalListener() throws InterruptedException {
+		while (this.globalListener == null) {
+			wait();
+		}
+		return this.globalListener;
 	}
 
 	private void sendMessages() {
 		while (this.run) {
 			try {
-
-				while (this.globalListener == null) {
-					Thread.sleep(100L);
-				}
-
-				this.messageQueue.takeFirst().accept(this.globalListener);
+				this.messageQueue.deliver(awaitGlobalListener(), MAX_MESSAGE_BATCH);
 			} catch (InterruptedException e) {
 				logger.warn("Interrupted");
 			} catch (Exception e) {
-				logger.error("Failed to send message", e);
+
+				// the messages were queued again, so wait before retrying them
+				logger.error("Failed to send messages, retrying in {}ms", MESSAGE_RETRY_DELAY_MS, e);
+				try {
+					Thread.sleep(MESSAGE_RETRY_DELAY_MS);
+				} catch (InterruptedException ex) {
+					logger.warn("Interrupted");
+				}
 			}
 		}
 	}
@@ -336,7 +709,11 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 		logger.info("Update State Handler running...");
 		while (this.run) {
 			try {
-				this.updateStateQueue.take().run();
+				Runnable task = this.updateStateQueue.take();
+				if (task instanceof AddressUpdate update)
+					updatePlcAddresses(update);
+				else
+					task.run();
 			} catch (InterruptedException e) {
 				logger.error("Interrupted!");
 			} catch (Exception e) {
@@ -346,42 +723,136 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 		logger.info("Update State Handler stopped.");
 	}
 
-	private void updatePlcAddress(PlcAddress address, Object value) {
-		long s = 0L;
-		if (this.verbose)
-			s = nanoTime();
+	/**
+	 * Collects the address updates which arrive within the configured window, or up to the configured batch size, and
+	 * persists them in one transaction, keeping only the last value per address. A queued connection state update ends
+	 * the batch, so that updates are persisted in order
+	 */
+	private void updatePlcAddresses(AddressUpdate first) throws InterruptedException {
+		Map<String, AddressUpdate> batch = new LinkedHashMap<>();
+		putLatest(batch, first);
+		int updates = 1;
+
+		Runnable next = null;
+		long deadline = nanoTime() + this.updateStateWindowNanos;
+		try {
+			while (updates < this.updateStateBatchSize) {
+				long remaining = deadline - nanoTime();
+				Runnable task = remaining > 0L ?
+						this.updateStateQueue.poll(remaining, NANOSECONDS) :
+						this.updateStateQueue.poll();
+				if (task == null)
+					break;
+				if (!(task instanceof AddressUpdate update)) {
+					next = task;
+					break;
+				}
 
-		String addressId = this.addressesToResourceId.get(address);
-		if (addressId == null) {
-			logger.error("No PlcAddress mapping for {}", address);
-			return;
+				putLatest(batch, update);
+				updates++;
+			}
+		} finally {
+			// also persist the collected updates if interrupted while waiting
+			persistPlcAddresses(batch.values(), updates);
 		}
 
-		Certificate cert = validateCtx().getCertificate();
-		try (StrolchTransaction tx = openTx(cert, getCallerMethod(), false).silentThreshold(SILENT_THRESHOLD,
-				MILLISECONDS)) {
-			tx.lock(Resource.locatorFor(TYPE_PLC_ADDRESS, addressId));
+		if (next != null)
+			next.run();
+	}
 
-			Resource addressRes = tx.getResourceBy(TYPE_PLC_ADDRESS, addressId, true);
-			Parameter<?> valueP = addressRes.getParameter(PARAM_VALUE, true);
-			if (valueP.getValue().equals(value)) {
-				if (this.verbose)
-					logger.info("Ignoring PlcAddress {} unchanged value {}", address.toKey(), value);
-				return;
-			}
+	/**
+	 * Keeps only the latest update per address resource, as telegrams with their own resource and action update the
+	 * same address resource, moving it to the end so that the batch stays in the order of the latest updates
+	 */
+	private void putLatest(Map<String, AddressUpdate> batch, AddressUpdate update) {
+		String addressId = this.addressesToResourceId.get(update.address);
+		String key = addressId == null ? update.address.toKey() : addressId;
+		batch.remove(key);
+		batch.put(key, update);
+	}
 
-			if (this.verbose)
-				logger.info("PlcAddress {} has changed from {} to {}", address.toKey(), valueP.getValue(), value);
+	private void persistPlcAddresses(Collection<AddressUpdate> updates, int nrOfUpdates) {
+		long s = nanoTime();
 
-			valueP.accept(new SetParameterValueVisitor(value));
-			tx.update(addressRes);
-			tx.commitOnClose();
+		PlcAddressUpdateEvent event = PlcEvents.beginAddressUpdate();
+		int changed;
+		try {
+			changed = persistPlcAddresses(updates);
 		} catch (Exception e) {
-			logger.error("Failed to update PlcAddress {} with new value {}", addressId, value, e);
+
+			// don't lose the updates of all other addresses, due to a single failing update
+			logger.error("Failed to update {} PlcAddresses with new values, retrying one at a time", updates.size(),
+					e);
+			changed = 0;
+			for (AddressUpdate update : updates) {
+				try {
+					changed += persistPlcAddresses(List.of(update));
+				} catch (Exception ex) {
+					logger.error("Failed to update PlcAddress {} with new value {}", update.address.toKey(),
+							update.value, ex);
+
+					// so that the next notification of the same value is persisted again
+					this.addressValues.invalidate(getValueId(update.address));
+				}
+			}
+		}
+
+		if (event != null)
+			event.end(nrOfUpdates, updates.size(), changed);
+
+		this.updateStateCommitLatency.record(nanoTime() - s);
+		for (AddressUpdate update : updates) {
+			this.plc.getLatencies().record(PlcLatencyStage.Persist, this.plc.getAddressId(update.address),
+					update.ingestTime);
 		}
 
 		if (this.verbose && (nanoTime() - s > MILLISECONDS.toNanos(SILENT_THRESHOLD)))
-			logger.info("async update {} took {}", address.toKey(), formatNanoDuration(nanoTime() - s));
+			logger.info("async update of {} addresses took {}", updates.size(), formatNanoDuration(nanoTime() - s));
+	}
+
+	/**
+	 * Persists the given updates in one transaction
+	 *
+	 * @return the number of changed addresses
+	 */
+	private int persistPlcAddresses(Collection<AddressUpdate> updates) {
+		int changed = 0;
+		Certificate cert = validateCtx().getCertificate();
+		try (StrolchTransaction tx = openTx(cert, getCallerMethod(), false).silentThreshold(SILENT_THRESHOLD,
+				MILLISECONDS)) {
+
+			for (AddressUpdate update : updates) {
+				PlcAddress address = update.address;
+				Object value = update.value;
+
+				String addressId = this.addressesToResourceId.get(address);
+				if (addressId == null) {
+					logger.error("No PlcAddress mapping for {}", address);
+					continue;
+				}
+
+				tx.lock(Resource.locatorFor(TYPE_PLC_ADDRESS, addressId));
+
+				Resource addressRes = tx.getResourceBy(TYPE_PLC_ADDRESS, addressId, true);
+				Parameter<?> valueP = addressRes.getParameter(PARAM_VALUE, true);
+				if (valueP.getValue().equals(value)) {
+					if (this.verbose)
+						logger.info("Ignoring PlcAddress {} unchanged value {}", address.toKey(), value);
+				} else {
+					if (this.verbose)
+						logger.info("PlcAddress {} has changed from {} to {}", address.toKey(), valueP.getValue(),
+								value);
+
+					valueP.accept(new SetParameterValueVisitor(value));
+					tx.update(addressRes);
+					changed++;
+				}
+			}
+
+			if (changed > 0)
+				tx.commitOnClose();
+		}
+		return changed;
 	}
 
 	private void updateConnectionState(String id, ConnectionState state, String stateMsg) {
@@ -412,6 +883,71 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 			logger.info("updateConnectionState took {}", formatNanoDuration(nanoTime() - s));
 	}
 
+	/**
+	 * A queued update of the value of a PlcAddress resource, which is persisted in a batch with other updates
+	 */
+	private class AddressUpdate implements Runnable {
+		private final PlcAddress address;
+		private final Object value;
+		private final long ingestTime;
+
+		private AddressUpdate(PlcAddress address, Object value, long ingestTime) {
+			this.address = address;
+			this.value = value;
+			this.ingestTime = ingestTime;
+		}
+
+		@Override
+		public void run() {
+			persistPlcAddresses(List.of(this), 1);
+		}
+	}
+
+	/**
+	 * Queues the value of a {@link PlcPersistence#Sampled} address at most once per persist interval, always queueing
+	 * the last value at the end of an interval
+	 */
+	private class SampledPersistence {
+		private final PlcAddress address;
+		private final long intervalNanos;
+
+		private long lastQueued;
+		private boolean scheduled;
+		private Object value;
+		private long ingestTime;
+
+		private SampledPersistence(PlcAddress address) {
+			this.address = address;
+			this.intervalNanos = MILLISECONDS.toNanos(address.persistInterval);
+			this.lastQueued = nanoTime() - this.intervalNanos;
+		}
+
+		private synchronized void offer(Object value, long ingestTime) {
+			this.value = value;
+			this.ingestTime = ingestTime;
+			if (this.scheduled)
+				return;
+
+			long delay = this.lastQueued + this.intervalNanos - nanoTime();
+			if (delay <= 0L) {
+				queue();
+			} else {
+				this.scheduled = true;
+				getScheduledExecutor("PlcSampledPersistence").schedule(this::flush, delay, NANOSECONDS);
+			}
+		}
+
+		private synchronized void flush() {
+			this.scheduled = false;
+			queue();
+		}
+
+		private void queue() {
+			this.lastQueued = nanoTime();
+			updateStateQueue.add(new AddressUpdate(this.address, this.value, this.ingestTime));
+		}
+	}
+
 	@Override
 	public void send(String resource, String action) {
 		send(resource, action, true, true);
@@ -444,6 +980,34 @@ public class DefaultPlcHandler extends StrolchComponent implements PlcHandler, P
 		this.plc.send(plcAddress, value, catchExceptions, notifyGlobalListener);
 	}
 
+	@Override
+	public void send(Map<PlcAddressKey, Object> values) {
+		send(values, true, true);
+	}
+
+	@Override
+	public void send(Map<PlcAddressKey, Object> values, boolean catchExceptions, boolean notifyGlobalListener) {
+		Map<PlcAddress, Object> telegrams = new LinkedHashMap<>();
+		for (Map.Entry<PlcAddressKey, Object> entry : values.entrySet()) {
+			PlcAddressKey key = entry.getKey();
+			PlcAddress plcAddress = this.plcTelegrams.getElement(key.resource, key.action);
+			if (plcAddress == null)
+				throw new IllegalStateException("No PlcTelegram exists for " + key);
+
+			Object value = entry.getValue();
+			if (value == null) {
+				if (plcAddress.defaultValue == null)
+					throw new IllegalStateException(
+							"Can not send PlcAddress as no default value set for " + plcAddress);
+				value = plcAddress.defaultValue;
+			}
+
+			telegrams.put(plcAddress, value);
+		}
+
+		this.plc.send(telegrams, catchExceptions, notifyGlobalListener);
+	}
+
 	@Override
 	public void notify(String resource, String action, Object value) {
 		PlcAddress plcAddress = this.plcAddresses.getElement(resource, action);
@@ -4,9 +4,23 @@ import li.strolch.model.Locator;
 import li.strolch.model.log.LogMessage;
 import li.strolch.plc.core.hw.PlcListener;
 
+import java.util.Collection;
+
 public interface GlobalPlcListener extends PlcListener {
 
 	void sendMsg(LogMessage message);
 
 	void disableMsg(Locator locator);
+
+	/**
+	 * Delivers a batch of disables and messages, where the disables are to be applied before the messages. The
+	 * default implementation delivers each on its own
+	 *
+	 * @param disabled the locators of the messages to disable
+	 * @param messages the messages to send
+	 */
+	default void sendMessages(Collection<Locator> disabled, Collection<LogMessage> messages) {
+		disabled.forEach(this::disableMsg);
+		messages.forEach(this::sendMsg);
+	}
 }
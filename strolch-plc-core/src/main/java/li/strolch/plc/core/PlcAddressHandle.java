@@ -0,0 +1,54 @@
+package li.strolch.plc.core;
+
+import li.strolch.plc.model.PlcAddress;
+
+/**
+ * <p>The handle of a {@link PlcAddress} which a {@link PlcService} registered for, as returned by
+ * {@link PlcService#registerHandle(String, String)}.</p>
+ *
+ * <p>The index is dense per service, starting at 0 in the order of registration, thus a service can keep its state in
+ * arrays indexed by the handle, and dispatch notifications by comparing handles, instead of comparing the resource
+ * and action strings of the address. A handle stays the same instance when the PLC is reconfigured, but its address
+ * is replaced with the reconfigured address on the next notification</p>
+ */
+public final class PlcAddressHandle {
+
+	private final int index;
+	private volatile PlcAddress address;
+
+	PlcAddressHandle(int index, PlcAddress address) {
+		this.index = index;
+		this.address = address;
+	}
+
+	/**
+	 * @return the index of the handle in its service
+	 */
+	public int index() {
+		return this.index;
+	}
+
+	/**
+	 * @return the registered address
+	 */
+	public PlcAddress address() {
+		return this.address;
+	}
+
+	void setAddress(PlcAddress address) {
+		this.address = address;
+	}
+
+	public String resource() {
+		return this.address.resource;
+	}
+
+	public String action() {
+		return this.address.action;
+	}
+
+	@Override
+	public String toString() {
+		return this.index + ": " + this.address.toKey();
+	}
+}
@@ -0,0 +1,183 @@
+package li.strolch.plc.core;
+
+import li.strolch.model.StrolchValueType;
+import li.strolch.plc.model.PlcAddress;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>Keeps the last value of each {@link PlcAddress}, indexed by the id of the address in the
+ * {@link li.strolch.plc.core.hw.Plc}. Boolean, integer and long values are kept as primitives, all other values as
+ * references. Reads and writes are lock-free and do not need a transaction.</p>
+ *
+ * <p>The addresses and their types are fixed at creation, values for unknown ids are ignored on writes and returned
+ * as null on reads</p>
+ */
+public class PlcAddressValues {
+
+	private static final byte KIND_NONE = 0;
+	private static final byte KIND_BOOLEAN = 1;
+	private static final byte KIND_INTEGER = 2;
+	private static final byte KIND_LONG = 3;
+	private static final byte KIND_OBJECT = 4;
+
+	private final byte[] kinds;
+	private final AtomicLongArray payloads;
+	private final AtomicReferenceArray<Object> references;
+	private final AtomicLongArray stale;
+
+	/**
+	 * Creates a new store for the given addresses
+	 *
+	 * @param addresses the addresses indexed by their id, may contain null for unused ids
+	 */
+	public PlcAddressValues(PlcAddress[] addresses) {
+		this.kinds = new byte[addresses.length];
+		this.payloads = new AtomicLongArray(addresses.length);
+		this.references = new AtomicReferenceArray<>(addresses.length);
+		this.stale = new AtomicLongArray((addresses.length + 63) >>> 6);
+		for (int i = 0; i < addresses.length; i++) {
+			if (addresses[i] != null)
+				this.kinds[i] = kindOf(addresses[i].valueType);
+		}
+	}
+
+	private static byte kindOf(StrolchValueType valueType) {
+		return switch (valueType) {
+			case BOOLEAN -> KIND_BOOLEAN;
+			case INTEGER -> KIND_INTEGER;
+			case LONG -> KIND_LONG;
+			default -> KIND_OBJECT;
+		};
+	}
+
+	private byte kind(int id) {
+		return id < 0 || id >= this.kinds.length ? KIND_NONE : this.kinds[id];
+	}
+
+	public boolean getBoolean(int id) {
+		if (kind(id) != KIND_BOOLEAN)
+			throw new IllegalArgumentException("Address with id " + id + " is not a boolean address!");
+		return this.payloads.get(id) != 0L;
+	}
+
+	public long getLong(int id) {
+		byte kind = kind(id);
+		if (kind != KIND_INTEGER && kind != KIND_LONG)
+			throw new IllegalArgumentException("Address with id " + id + " is not an integer or long address!");
+		return this.payloads.get(id);
+	}
+
+	/**
+	 * Returns the last value of the address with the given id, boxed for primitive values
+	 *
+	 * @param id the id of the address
+	 *
+	 * @return the value, or null if the id is unknown or no value was set yet for a non-primitive address
+	 */
+	public Object get(int id) {
+		return switch (kind(id)) {
+			case KIND_BOOLEAN -> this.payloads.get(id) != 0L;
+			case KIND_INTEGER -> (int) this.payloads.get(id);
+			case KIND_LONG -> this.payloads.get(id);
+			case KIND_OBJECT -> this.references.get(id);
+			default -> null;
+		};
+	}
+
+	public void setBoolean(int id, boolean value) {
+		if (kind(id) == KIND_BOOLEAN)
+			this.payloads.set(id, value ? 1L : 0L);
+	}
+
+	public void setLong(int id, long value) {
+		byte kind = kind(id);
+		if (kind == KIND_INTEGER || kind == KIND_LONG)
+			this.payloads.set(id, value);
+	}
+
+	/**
+	 * Sets the value of the address with the given id, and returns if the value changed. Unknown addresses and values
+	 * not matching the type of the address are always reported as changed, without being kept
+	 *
+	 * @param id    the id of the address
+	 * @param value the new value
+	 *
+	 * @return false if the address already had the given value, true otherwise
+	 */
+	public boolean update(int id, Object value) {
+		boolean changed = switch (kind(id)) {
+			case KIND_BOOLEAN -> {
+				if (!(value instanceof Boolean b))
+					yield true;
+				long payload = b ? 1L : 0L;
+				yield this.payloads.getAndSet(id, payload) != payload;
+			}
+			case KIND_INTEGER, KIND_LONG -> {
+				if (!(value instanceof Number n))
+					yield true;
+				long payload = n.longValue();
+				yield this.payloads.getAndSet(id, payload) != payload;
+			}
+			case KIND_OBJECT -> !Objects.equals(this.references.getAndSet(id, value), value);
+			default -> true;
+		};
+		return clearStale(id) || changed;
+	}
+
+	/**
+	 * Marks the value of the address with the given id as stale, e.g. because it could not be persisted, so that the
+	 * next {@link #update(int, Object)} reports it as changed, even if the value is the same
+	 *
+	 * @param id the id of the address
+	 */
+	public void invalidate(int id) {
+		if (kind(id) == KIND_NONE)
+			return;
+		long bit = 1L << id;
+		int word = id >>> 6;
+		long current;
+		do {
+			current = this.stale.get(word);
+		} while (!this.stale.compareAndSet(word, current, current | bit));
+	}
+
+	private boolean clearStale(int id) {
+		if (kind(id) == KIND_NONE)
+			return false;
+		long bit = 1L << id;
+		int word = id >>> 6;
+		long current;
+		do {
+			current = this.stale.get(word);
+			if ((current & bit) == 0L)
+				return false;
+		} while (!this.stale.compareAndSet(word, current, current & ~bit));
+		return true;
+	}
+
+	/**
+	 * Sets the value of the address with the given id, unboxing primitive values
+	 *
+	 * @param id    the id of the address
+	 * @param value the new value
+	 */
+	public void set(int id, Object value) {
+		switch (kind(id)) {
+			case KIND_BOOLEAN -> {
+				if (value instanceof Boolean b)
+					this.payloads.set(id, b ? 1L : 0L);
+			}
+			case KIND_INTEGER, KIND_LONG -> {
+				if (value instanceof Number n)
+					this.payloads.set(id, n.longValue());
+			}
+			case KIND_OBJECT -> this.references.set(id, value);
+			default -> {
+				// unknown address
+			}
+		}
+	}
+}
@@ -1,30 +1,40 @@
 package li.strolch.plc.core;
 
+import li.strolch.model.ParameterBag;
 import li.strolch.model.Resource;
 import li.strolch.model.parameter.Parameter;
+import li.strolch.model.parameter.StringListParameter;
 import li.strolch.persistence.api.StrolchTransaction;
 import li.strolch.plc.core.hw.Plc;
 import li.strolch.plc.core.hw.PlcConnection;
 import li.strolch.plc.model.PlcAddress;
 import li.strolch.plc.model.PlcAddressType;
+import li.strolch.plc.model.PlcPersistence;
 import li.strolch.search.ResourceSearch;
 import li.strolch.utils.collections.MapOfMaps;
 import li.strolch.utils.helper.ClassHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
 
 import static li.strolch.model.StrolchModelConstants.BAG_PARAMETERS;
+import static li.strolch.model.StrolchModelConstants.BAG_RELATIONS;
 import static li.strolch.plc.model.PlcConstants.*;
 
 class PlcConfigurator {
 
 	private static final Logger logger = LoggerFactory.getLogger(PlcConfigurator.class);
 
-	static Plc configurePlc(StrolchTransaction tx, String plcClassName,
+	/**
+	 * Configures the Plc from the model. All addresses and telegrams are loaded once by type and the relations of the
+	 * logical devices are resolved in memory. If parallel is true, then the addresses are built in parallel, but they
+	 * are always registered in the order of the logical devices and their relations
+	 */
+	static Plc configurePlc(StrolchTransaction tx, String plcClassName, boolean parallel,
 			MapOfMaps<String, String, PlcAddress> plcAddresses, MapOfMaps<String, String, PlcAddress> plcTelegrams,
 			Map<PlcAddress, String> addressesToResourceId) throws Exception {
 
@@ -38,63 +48,118 @@ class PlcConfigurator {
 			configureConnection(plc, c);
 		}
 
-		Map<String, PlcAddress> plcAddressesByHwAddress = new HashMap<>();
-
-		// query PlcLogicalDevices
+		// load all addresses and telegrams at once, and resolve the relations of the logical devices in memory
+		Map<String, Resource> addressesById = getResourcesById(tx, TYPE_PLC_ADDRESS);
+		Map<String, Resource> telegramsById = getResourcesById(tx, TYPE_PLC_TELEGRAM);
 		List<Resource> logicalDevices = new ResourceSearch().types(TYPE_PLC_LOGICAL_DEVICE).search(tx).toList();
+		List<Resource> addressResources = new ArrayList<>(addressesById.size());
+		List<Resource> telegramResources = new ArrayList<>(telegramsById.size());
+		for (Resource logicalDevice : logicalDevices) {
+			List<Resource> addresses = resolveRelations(logicalDevice, PARAM_ADDRESSES, addressesById);
+			if (addresses.isEmpty())
+				logger.warn("\tNo PlcAddresses for {}", logicalDevice.getId());
+			addressResources.addAll(addresses);
+
+			List<Resource> telegrams = resolveRelations(logicalDevice, PARAM_TELEGRAMS, telegramsById);
+			if (telegrams.isEmpty())
+				logger.warn("\tNo PlcTelegrams for {}", logicalDevice.getId());
+			telegramResources.addAll(telegrams);
+		}
+		logger.info("Configuring {} PlcAddresses and {} PlcTelegrams of {} PlcLogicalDevices...",
+				addressResources.size(), telegramResources.size(), logicalDevices.size());
 
 		// first all addresses
-		for (Resource resource : logicalDevices) {
-			logger.info("Configuring PlcAddresses for PlcLogicalDevice {}...", resource.getId());
-			List<Resource> addresses = tx.getResourcesByRelation(resource, PARAM_ADDRESSES, true);
-			if (addresses.isEmpty()) {
-				logger.warn("\tNo PlcAddresses for {}", resource.getId());
-			} else {
-				for (Resource addressRes : addresses) {
-					buildPlcAddress(plc, plcAddresses, addressesToResourceId, plcAddressesByHwAddress, addressRes);
-				}
-			}
+		List<PlcAddress> addresses = (parallel ? addressResources.parallelStream() : addressResources.stream())
+				.map(PlcConfigurator::createPlcAddress)
+				.toList();
+		Map<String, PlcAddress> plcAddressesByHwAddress = new HashMap<>();
+		for (int i = 0; i < addresses.size(); i++) {
+			addPlcAddress(plc, plcAddresses, addressesToResourceId, plcAddressesByHwAddress,
+					addresses.get(i), addressResources.get(i).getId());
 		}
 
 		// now telegrams
-		for (Resource logicalDevice : logicalDevices) {
-			logger.info("Configuring PlcTelegrams for PlcLogicalDevice {}...", logicalDevice.getId());
-			List<Resource> telegrams = tx.getResourcesByRelation(logicalDevice, PARAM_TELEGRAMS, true);
-			if (telegrams.isEmpty()) {
-				logger.warn("\tNo PlcTelegrams for {}", logicalDevice.getId());
-			} else {
-				for (Resource telegramRes : telegrams) {
-					buildTelegramPlcAddress(plcAddresses, plcTelegrams, addressesToResourceId, plcAddressesByHwAddress,
-							telegramRes);
-				}
-			}
+		List<PlcAddress> telegrams = (parallel ? telegramResources.parallelStream() : telegramResources.stream())
+				.map(PlcConfigurator::createTelegramAddress)
+				.toList();
+		for (int i = 0; i < telegrams.size(); i++) {
+			addTelegramAddress(plcAddresses, plcTelegrams, addressesToResourceId, plcAddressesByHwAddress,
+					telegrams.get(i), telegramResources.get(i));
 		}
 
 		return plc;
 	}
 
+	private static Map<String, Resource> getResourcesById(StrolchTransaction tx, String type) {
+		Map<String, Resource> resourcesById = new HashMap<>();
+		new ResourceSearch().types(type).search(tx).toList().forEach(r -> resourcesById.put(r.getId(), r));
+		return resourcesById;
+	}
+
+	private static List<Resource> resolveRelations(Resource logicalDevice, String relation,
+			Map<String, Resource> resourcesById) {
+		StringListParameter relationsP = logicalDevice.getParameter(BAG_RELATIONS, relation);
+		if (relationsP == null)
+			return List.of();
+
+		List<Resource> resources = new ArrayList<>(relationsP.getValue().size());
+		for (String id : relationsP.getValue()) {
+			if (id.isEmpty())
+				continue;
+			Resource resource = resourcesById.get(id);
+			if (resource == null)
+				throw new IllegalStateException(
+						logicalDevice.getLocator() + " references non-existing " + relation + " " + id);
+			resources.add(resource);
+		}
+		return resources;
+	}
+
 	private static void configureConnection(Plc plc, Resource connection) throws Exception {
+		plc.addConnection(createConnection(plc, connection));
+	}
+
+	/**
+	 * Instantiates and initializes the {@link PlcConnection} for the given connection resource, without adding it to
+	 * the given Plc
+	 */
+	static PlcConnection createConnection(Plc plc, Resource connection) throws Exception {
 		String className = connection.getParameter(BAG_PARAMETERS, PARAM_CLASS_NAME, true).getValue();
 		logger.info("Configuring PLC Connection {}...", className);
 		PlcConnection plcConnection = ClassHelper.instantiateClass(className, new Class<?>[]{Plc.class, String.class},
 				new Object[]{plc, connection.getId()});
 		plcConnection.initialize(connection.getParameterBag(BAG_PARAMETERS, true).toObjectMap());
-		plc.addConnection(plcConnection);
+		return plcConnection;
 	}
 
-	private static void buildPlcAddress(Plc plc, MapOfMaps<String, String, PlcAddress> plcAddresses,
-			Map<PlcAddress, String> addressesToResourceId, Map<String, PlcAddress> plcAddressesByHwAddress,
-			Resource addressRes) {
-
+	private static PlcAddress createPlcAddress(Resource addressRes) {
 		String address = addressRes.getString(PARAM_ADDRESS);
 		String resource = addressRes.getString(PARAM_RESOURCE);
 		String action = addressRes.getString(PARAM_ACTION);
 		Parameter<?> valueP = addressRes.getParameter(PARAM_VALUE, true);
 		boolean inverted = addressRes.getBoolean(PARAM_INVERTED);
 		boolean remote = addressRes.getBoolean(PARAM_REMOTE);
+		boolean conflate = addressRes.getBoolean(PARAM_CONFLATE);
+		PlcPersistence persistence = PlcPersistence.parse(
+				addressRes.hasParameter(BAG_PARAMETERS, PARAM_PERSISTENCE) ? addressRes.getString(PARAM_PERSISTENCE) :
+						null);
+		long persistInterval = addressRes.hasParameter(BAG_PARAMETERS, PARAM_PERSIST_INTERVAL) ?
+				addressRes.getInteger(PARAM_PERSIST_INTERVAL) :
+				0L;
+		if (persistence == PlcPersistence.Sampled && persistInterval <= 0L)
+			throw new IllegalStateException(
+					"PlcAddress " + addressRes.getId() + " is persisted Sampled, but has no persistInterval!");
 
-		PlcAddress plcAddress = new PlcAddress(PlcAddressType.Notification, resource, action, address,
-				valueP.getValueType(), valueP.getValue(), inverted, remote);
+		return new PlcAddress(PlcAddressType.Notification, resource, action, address, valueP.getValueType(),
+				valueP.getValue(), inverted, remote, conflate, persistence, persistInterval);
+	}
+
+	private static void addPlcAddress(Plc plc, MapOfMaps<String, String, PlcAddress> plcAddresses,
+			Map<PlcAddress, String> addressesToResourceId, Map<String, PlcAddress> plcAddressesByHwAddress,
+			PlcAddress plcAddress, String addressId) {
+
+		String resource = plcAddress.resource;
+		String action = plcAddress.action;
 		plc.registerNotificationMapping(plcAddress);
 
 		PlcAddress replaced = plcAddresses.addElement(resource, action, plcAddress);
@@ -102,38 +167,44 @@ class PlcConfigurator {
 			throw new IllegalStateException(
 					"Duplicate " + resource + "-" + action + ". Replaced: " + replaced + " with " + plcAddress);
 
-		addressesToResourceId.put(plcAddress, addressRes.getId());
+		addressesToResourceId.put(plcAddress, addressId);
 		plcAddressesByHwAddress.put(plcAddress.address, plcAddress);
 	}
 
-	private static void buildTelegramPlcAddress(MapOfMaps<String, String, PlcAddress> plcAddresses,
-			MapOfMaps<String, String, PlcAddress> plcTelegrams, Map<PlcAddress, String> addressesToResourceId,
-			Map<String, PlcAddress> plcAddressesByHwAddress, Resource telegramRes) {
-
+	private static PlcAddress createTelegramAddress(Resource telegramRes) {
 		String address = telegramRes.getString(PARAM_ADDRESS);
 		String resource = telegramRes.getString(PARAM_RESOURCE);
 		String action = telegramRes.getString(PARAM_ACTION);
 		Parameter<?> valueP = telegramRes.getParameter(PARAM_VALUE, true);
 		boolean remote = telegramRes.getBoolean(PARAM_REMOTE);
+		return new PlcAddress(PlcAddressType.Telegram, resource, action, address, valueP.getValueType(),
+				valueP.getValue(), false, remote);
+	}
+
+	private static void addTelegramAddress(MapOfMaps<String, String, PlcAddress> plcAddresses,
+			MapOfMaps<String, String, PlcAddress> plcTelegrams, Map<PlcAddress, String> addressesToResourceId,
+			Map<String, PlcAddress> plcAddressesByHwAddress, PlcAddress telegramAddress, Resource telegramRes) {
+
+		String address = telegramAddress.address;
+		String resource = telegramAddress.resource;
+		String action = telegramAddress.action;
 
 		PlcAddress existingAddress = plcAddressesByHwAddress.get(address);
 		if (existingAddress == null)
 			throw new IllegalStateException(
 					telegramRes.getLocator() + " is referencing non-existing address " + address);
 
-		if (valueP.getValueType() != existingAddress.valueType) {
+		if (telegramAddress.valueType != existingAddress.valueType) {
 			throw new IllegalStateException(telegramRes.getLocator()
 					+ " has valueType "
-					+ valueP.getValueType()
+					+ telegramAddress.valueType
 					+ " but address "
 					+ existingAddress.address
 					+ " has type "
 					+ existingAddress.valueType);
 		}
 
-		PlcAddress telegramAddress = new PlcAddress(PlcAddressType.Telegram, resource, action, address,
-				valueP.getValueType(), valueP.getValue(), false, remote);
-		logger.info("Adding {}...", telegramAddress);
+		logger.debug("Adding {}...", telegramAddress);
 
 		PlcAddress replaced = plcTelegrams.addElement(resource, action, telegramAddress);
 		if (replaced != null)
@@ -156,4 +227,50 @@ class PlcConfigurator {
 					"PlcAddress mapping ID for " + resource + "-" + action + " does not exist!");
 		addressesToResourceId.put(telegramAddress, addressId);
 	}
+
+	/**
+	 * Calculates the fingerprint of the configuration of the given resource, i.e. of its parameters and relations,
+	 * excluding the runtime values and states
+	 *
+	 * @param resource the connection, logical device, address or telegram
+	 *
+	 * @return the fingerprint as hex string
+	 */
+	static String fingerprint(Resource resource) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not supported!", e);
+		}
+		update(digest, resource.getType());
+		update(digest, resource.getId());
+		update(digest, resource.getParameterBag(BAG_PARAMETERS), resource.getType());
+		update(digest, resource.getParameterBag(BAG_RELATIONS), resource.getType());
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static void update(MessageDigest digest, ParameterBag bag, String type) {
+		if (bag == null)
+			return;
+		List<Parameter<?>> parameters = new ArrayList<>(bag.getParameters());
+		parameters.sort(Comparator.comparing(Parameter::getId));
+		for (Parameter<?> parameter : parameters) {
+			String id = parameter.getId();
+
+			// runtime values and states are not part of the configuration
+			if (type.equals(TYPE_PLC_CONNECTION) && (id.equals(PARAM_STATE) || id.equals(PARAM_STATE_MSG)))
+				continue;
+
+			update(digest, bag.getId() + "." + id);
+			update(digest, parameter.getValueType().getType());
+			if (!(type.equals(TYPE_PLC_ADDRESS) && id.equals(PARAM_VALUE)))
+				update(digest, parameter.getValueAsString());
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
 }
@@ -0,0 +1,258 @@
+package li.strolch.plc.core;
+
+import com.google.gson.JsonObject;
+import li.strolch.plc.core.hw.LatencyHistogram;
+
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static li.strolch.plc.model.PlcConstants.*;
+
+/**
+ * <p>A hashed timing wheel for debouncing, shared by all {@link PlcService PlcServices}. Each debounced
+ * {@link li.strolch.plc.model.PlcAddress} of a service has one {@link Timer}, which is re-armed on every event: the
+ * timer is unlinked from its current bucket and linked into the bucket of its new deadline, in constant time and
+ * without allocating any objects.</p>
+ *
+ * <p>The wheel is advanced by calling {@link #tick()} periodically with the tick resolution. The wheel only decides
+ * when a timer is due: the task of an expired timer is handed to the executor of the timer, e.g. the
+ * {@link PlcServiceExecutor} of its service, so that a slow task does not delay the timers of other services. Before
+ * the task is run, it is checked that the timer was not re-armed or cancelled in the meantime</p>
+ */
+public class PlcDebouncer {
+
+	private final long tickNanos;
+	private final long startNanos;
+	private final int mask;
+	private final Timer[] wheel;
+	private final LatencyHistogram fireLateness;
+
+	private long currentTick;
+	private int pending;
+	private long fired;
+
+	/**
+	 * A timer of the {@link PlcDebouncer}, which is linked into one bucket of the wheel while it is armed
+	 */
+	public static final class Timer {
+		private final Executor executor;
+		private final Consumer<Exception> errorHandler;
+		private Runnable task;
+		private long generation;
+		private long deadlineTick;
+		private long deadlineNanos;
+		private int bucket = -1;
+		private Timer prev;
+		private Timer next;
+		private Timer nextExpired;
+		private Runnable expiredTask;
+		private long expiredGeneration;
+
+		private Timer(Executor executor, Consumer<Exception> errorHandler) {
+			this.executor = executor;
+			this.errorHandler = errorHandler;
+		}
+	}
+
+	/**
+	 * @param tickMillis the resolution of the wheel in milliseconds
+	 * @param wheelSize  the number of buckets of the wheel, rounded up to the next power of two
+	 */
+	public PlcDebouncer(long tickMillis, int wheelSize) {
+		if (tickMillis <= 0L)
+			throw new IllegalArgumentException("tickMillis must be > 0: " + tickMillis);
+		if (wheelSize <= 0)
+			throw new IllegalArgumentException("wheelSize must be > 0: " + wheelSize);
+		int size = Integer.highestOneBit(wheelSize);
+		if (size < wheelSize)
+			size <<= 1;
+
+		this.tickNanos = MILLISECONDS.toNanos(tickMillis);
+		this.startNanos = System.nanoTime();
+		this.mask = size - 1;
+		this.wheel = new Timer[size];
+		this.fireLateness = new LatencyHistogram();
+	}
+
+	public long getTickMillis() {
+		return this.tickNanos / 1_000_000L;
+	}
+
+	public synchronized int getPendingTimers() {
+		return this.pending;
+	}
+
+	public synchronized long getFiredTimers() {
+		return this.fired;
+	}
+
+	/**
+	 * @return the histogram of the delays between the deadline of a timer and it actually being run
+	 */
+	public LatencyHistogram getFireLateness() {
+		return this.fireLateness;
+	}
+
+	/**
+	 * Creates a new timer, which is not armed. A timer should be created once and then re-armed for every event
+	 *
+	 * @param executor     the executor to run the task of the timer on, once it expired
+	 * @param errorHandler the handler to notify if the task of the timer fails
+	 *
+	 * @return the new timer
+	 */
+	public Timer newTimer(Executor executor, Consumer<Exception> errorHandler) {
+		return new Timer(executor, errorHandler);
+	}
+
+	/**
+	 * Arms the given timer to run the given task after the given delay. If the timer is already armed, then its
+	 * previous task is discarded and the delay starts again
+	 *
+	 * @param timer       the timer to arm
+	 * @param task        the task to run when the timer expires
+	 * @param delayMillis the delay in milliseconds
+	 */
+	public void arm(Timer timer, Runnable task, long delayMillis) {
+		arm(timer, task, MILLISECONDS.toNanos(delayMillis), System.nanoTime());
+	}
+
+	synchronized void arm(Timer timer, Runnable task, long delayNanos, long nowNanos) {
+		if (timer.bucket != -1)
+			unlink(timer);
+
+		long deadlineNanos = nowNanos + Math.max(delayNanos, 0L);
+		long deadlineTick = (deadlineNanos - this.startNanos + this.tickNanos - 1L) / this.tickNanos;
+		timer.generation++;
+		timer.task = task;
+		timer.deadlineNanos = deadlineNanos;
+		timer.deadlineTick = Math.max(deadlineTick, this.currentTick + 1L);
+		link(timer);
+	}
+
+	public synchronized boolean isArmed(Timer timer) {
+		return timer.bucket != -1;
+	}
+
+	/**
+	 * Cancels the given timer, if it is armed, or its task if it expired, but was not yet run by its executor
+	 *
+	 * @param timer the timer to cancel
+	 */
+	public synchronized void cancel(Timer timer) {
+		if (timer.bucket != -1)
+			unlink(timer);
+		timer.generation++;
+		timer.task = null;
+	}
+
+	private synchronized boolean isCurrent(Timer timer, long generation) {
+		return timer.generation == generation;
+	}
+
+	/**
+	 * Advances the wheel to the current time and hands the tasks of all expired timers to their executors
+	 */
+	public void tick() {
+		tick(System.nanoTime());
+	}
+
+	void tick(long nowNanos) {
+		Timer expired = null;
+		Timer last = null;
+
+		synchronized (this) {
+			long targetTick = (nowNanos - this.startNanos) / this.tickNanos;
+			while (this.currentTick < targetTick) {
+				this.currentTick++;
+				Timer timer = this.wheel[(int) (this.currentTick & this.mask)];
+				while (timer != null) {
+					Timer next = timer.next;
+					if (timer.deadlineTick <= this.currentTick) {
+						unlink(timer);
+						timer.expiredTask = timer.task;
+						timer.expiredGeneration = timer.generation;
+						timer.task = null;
+						timer.nextExpired = null;
+						if (last == null)
+							expired = timer;
+						else
+							last.nextExpired = timer;
+						last = timer;
+						this.fired++;
+					}
+					timer = next;
+				}
+			}
+		}
+
+		// hand over outside of the lock, so that the tasks may re-arm their timers
+		while (expired != null) {
+			Timer timer = expired;
+			expired = timer.nextExpired;
+			Runnable task = timer.expiredTask;
+			long generation = timer.expiredGeneration;
+			long deadlineNanos = timer.deadlineNanos;
+			timer.expiredTask = null;
+			timer.nextExpired = null;
+
+			try {
+				timer.executor.execute(() -> runExpired(timer, task, generation, deadlineNanos));
+			} catch (Exception e) {
+				timer.errorHandler.accept(e);
+			}
+		}
+	}
+
+	private void runExpired(Timer timer, Runnable task, long generation, long deadlineNanos) {
+
+		// the timer might have been re-armed or cancelled while the task was queued
+		if (!isCurrent(timer, generation))
+			return;
+
+		this.fireLateness.record(Math.max(0L, System.nanoTime() - deadlineNanos));
+		try {
+			task.run();
+		} catch (Exception e) {
+			timer.errorHandler.accept(e);
+		}
+	}
+
+	private void link(Timer timer) {
+		int bucket = (int) (timer.deadlineTick & this.mask);
+		Timer head = this.wheel[bucket];
+		timer.prev = null;
+		timer.next = head;
+		if (head != null)
+			head.prev = timer;
+		this.wheel[bucket] = timer;
+		timer.bucket = bucket;
+		this.pending++;
+	}
+
+	private void unlink(Timer timer) {
+		if (timer.prev == null)
+			this.wheel[timer.bucket] = timer.next;
+		else
+			timer.prev.next = timer.next;
+		if (timer.next != null)
+			timer.next.prev = timer.prev;
+		timer.prev = null;
+		timer.next = null;
+		timer.bucket = -1;
+		this.pending--;
+	}
+
+	/**
+	 * @return the tick resolution, the pending and fired timers, and the fire lateness
+	 */
+	public JsonObject toJson() {
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty(PARAM_TICK_MILLIS, getTickMillis());
+		jsonObject.addProperty(PARAM_PENDING_TIMERS, getPendingTimers());
+		jsonObject.addProperty(PARAM_FIRED_TIMERS, getFiredTimers());
+		jsonObject.add(PARAM_FIRE_LATENESS, this.fireLateness.toJson());
+		return jsonObject;
+	}
+}
@@ -4,12 +4,18 @@ import li.strolch.agent.api.ComponentContainer;
 import li.strolch.model.Locator;
 import li.strolch.model.log.LogMessage;
 import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.plc.core.hw.LatencyHistogram;
 import li.strolch.plc.core.hw.Plc;
 import li.strolch.plc.core.hw.PlcListener;
 import li.strolch.plc.model.PlcAddress;
+import li.strolch.plc.model.PlcAddressKey;
 import li.strolch.plc.model.PlcState;
 import li.strolch.privilege.model.Certificate;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
 public interface PlcHandler {
 
 	ComponentContainer getContainer();
@@ -20,6 +26,12 @@ public interface PlcHandler {
 
 	String getPlcStateMsg();
 
+	/**
+	 * Configures the PLC from the model. If the PLC is started, then only the changed connections and addresses are
+	 * applied to the running PLC, and only the changed connections are restarted
+	 *
+	 * @return true if the configuration was applied, false if it failed
+	 */
 	boolean reconfigurePlc();
 
 	void startPlc();
@@ -28,6 +40,54 @@ public interface PlcHandler {
 
 	Plc getPlc();
 
+	/**
+	 * @return the last values of all addresses, seeded from the model when configuring the {@link Plc}
+	 */
+	PlcAddressValues getAddressValues();
+
+	/**
+	 * Returns the last value of the address with the given resource and action from the {@link PlcAddressValues},
+	 * thus without a transaction
+	 *
+	 * @param resource the resource
+	 * @param action   the action
+	 * @param <T>      the type of value to return
+	 *
+	 * @return the value of the given address
+	 */
+	<T> T getAddressValue(String resource, String action);
+
+	/**
+	 * @return the number of notifications which were not persisted, as the value of the address was unchanged
+	 */
+	long getSuppressedUpdates();
+
+	/**
+	 * @return the histogram of the durations of the transactions which persist the batches of new PlcAddress values
+	 */
+	LatencyHistogram getUpdateStateCommitLatency();
+
+	/**
+	 * @return the historian of the values of the PlcAddresses, or null if it is not enabled
+	 */
+	PlcHistorian getHistorian();
+
+	/**
+	 * @return the timing wheel on which the {@link PlcService PlcServices} debounce their events
+	 */
+	PlcDebouncer getDebouncer();
+
+	/**
+	 * Writes the records of the flight recorder of the {@link Plc} to a new file in the temp path of the agent
+	 *
+	 * @return the file to which the records were written
+	 *
+	 * @throws IOException if the file can not be written
+	 */
+	File dumpFlightRecorder() throws IOException;
+
+	boolean hasPlcAddress(String resource, String action);
+
 	PlcAddress getPlcAddress(String resource, String action);
 
 	String getPlcAddressId(String resource, String action);
@@ -46,6 +106,16 @@ public interface PlcHandler {
 
 	void send(String resource, String action, Object value, boolean catchExceptions, boolean notifyGlobalListener);
 
+	/**
+	 * Sends the given values to the telegrams with the given keys as one batch, see {@link Plc#send(Map)}. A null
+	 * value sends the default value of the telegram
+	 *
+	 * @param values the values to send by the key of their telegram
+	 */
+	void send(Map<PlcAddressKey, Object> values);
+
+	void send(Map<PlcAddressKey, Object> values, boolean catchExceptions, boolean notifyGlobalListener);
+
 	void notify(String resource, String action, Object value);
 
 	void sendMsg(LogMessage message);
@@ -0,0 +1,381 @@
+package li.strolch.plc.core;
+
+import li.strolch.model.StrolchValueType;
+import li.strolch.plc.model.PlcAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * <p>An append-only time series store of the values of the {@link PlcAddress PlcAddresses}. The values are written as
+ * fixed size records into memory-mapped segment files of a fixed size. When a segment is full, a new segment is
+ * started, and the oldest segments are deleted, so that at most the configured number of segments is kept.</p>
+ *
+ * <p>A segment starts with a header of {@link #HEADER_SIZE} bytes: {@link #MAGIC}, {@link #VERSION},
+ * {@link #RECORD_SIZE} and the creation time in milliseconds. A record is {@link #RECORD_SIZE} bytes long:</p>
+ * <ul>
+ *     <li>8 bytes: timestamp in milliseconds, 0 marks the end of the written records</li>
+ *     <li>4 bytes: id of the address in the historian</li>
+ *     <li>1 byte: kind of the value</li>
+ *     <li>3 bytes: unused</li>
+ *     <li>8 bytes: value as payload</li>
+ * </ul>
+ *
+ * <p>The ids of the addresses are stable across restarts: the keys of the addresses are kept in the file
+ * {@link #ADDRESSES_FILE}, where the id of an address is its line number. Only boolean, integer and long values are
+ * recorded</p>
+ */
+public class PlcHistorian {
+
+	private static final Logger logger = LoggerFactory.getLogger(PlcHistorian.class);
+
+	public static final int MAGIC = 0x504C4853;
+	public static final short VERSION = 1;
+	public static final int HEADER_SIZE = 32;
+	public static final int RECORD_SIZE = 24;
+	public static final String ADDRESSES_FILE = "addresses";
+
+	public static final byte KIND_BOOLEAN = 1;
+	public static final byte KIND_INTEGER = 2;
+	public static final byte KIND_LONG = 3;
+
+	private static final String SEGMENT_PREFIX = "segment_";
+	private static final String SEGMENT_SUFFIX = ".hist";
+
+	private static final int OFFSET_TIMESTAMP = 0;
+	private static final int OFFSET_ID = 8;
+	private static final int OFFSET_KIND = 12;
+	private static final int OFFSET_PAYLOAD = 16;
+
+	private final File path;
+	private final int segmentSize;
+	private final int maxSegments;
+
+	private final Map<String, Integer> ids;
+	private final List<Segment> segments;
+	private Segment current;
+	private long lastTimestamp;
+	private volatile int[] historianIds;
+
+	/**
+	 * Opens the historian in the given path, continuing to write to the latest existing segment
+	 *
+	 * @param path        the directory containing the segments
+	 * @param segmentSize the size of a segment in bytes
+	 * @param maxSegments the maximum number of segments to keep
+	 *
+	 * @throws IOException if the existing segments can not be opened
+	 */
+	public PlcHistorian(File path, int segmentSize, int maxSegments) throws IOException {
+		if (segmentSize < HEADER_SIZE + RECORD_SIZE)
+			throw new IllegalArgumentException("The segment size must be at least " + (HEADER_SIZE + RECORD_SIZE));
+		if (maxSegments < 1)
+			throw new IllegalArgumentException("At least one segment must be kept, not " + maxSegments);
+		if (!path.isDirectory() && !path.mkdirs())
+			throw new IOException("Failed to create historian path " + path.getAbsolutePath());
+
+		this.path = path;
+		this.segmentSize = segmentSize - (segmentSize - HEADER_SIZE) % RECORD_SIZE;
+		this.maxSegments = maxSegments;
+		this.ids = new HashMap<>();
+		this.segments = new CopyOnWriteArrayList<>();
+		this.historianIds = new int[0];
+
+		File addressesFile = new File(path, ADDRESSES_FILE);
+		if (addressesFile.exists()) {
+			List<String> keys = Files.readAllLines(addressesFile.toPath(), StandardCharsets.UTF_8);
+			for (int i = 0; i < keys.size(); i++) {
+				this.ids.put(keys.get(i), i);
+			}
+		}
+
+		File[] segmentFiles = path.listFiles(
+				(dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+		if (segmentFiles != null) {
+			Arrays.sort(segmentFiles, Comparator.comparingLong(PlcHistorian::getSegmentIndex));
+			for (File segmentFile : segmentFiles) {
+				this.segments.add(Segment.open(segmentFile, getSegmentIndex(segmentFile)));
+			}
+		}
+
+		if (this.segments.isEmpty())
+			this.current = newSegment(0L);
+		else
+			this.current = this.segments.get(this.segments.size() - 1);
+		this.lastTimestamp = this.current.lastTimestamp;
+
+		logger.info("Opened historian at {} with {} segments", path.getAbsolutePath(), this.segments.size());
+	}
+
+	private static long getSegmentIndex(File file) {
+		String name = file.getName();
+		return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	private Segment newSegment(long index) throws IOException {
+		File file = new File(this.path, SEGMENT_PREFIX + String.format("%010d", index) + SEGMENT_SUFFIX);
+		Segment segment = Segment.create(file, index, this.segmentSize);
+		this.segments.add(segment);
+
+		while (this.segments.size() > this.maxSegments) {
+			Segment oldest = this.segments.removeFirst();
+			if (!oldest.file.delete())
+				logger.error("Failed to delete old historian segment {}", oldest.file.getAbsolutePath());
+		}
+
+		return segment;
+	}
+
+	/**
+	 * Maps the ids of the given addresses in the {@link li.strolch.plc.core.hw.Plc} to their ids in the historian,
+	 * assigning and persisting new ids for unknown addresses
+	 *
+	 * @param addresses the addresses indexed by their id in the Plc
+	 */
+	public synchronized void setAddresses(PlcAddress[] addresses) throws IOException {
+		File addressesFile = new File(this.path, ADDRESSES_FILE);
+		int[] historianIds = new int[addresses.length];
+		for (int i = 0; i < addresses.length; i++) {
+			PlcAddress address = addresses[i];
+			if (address == null || !isRecorded(address.valueType)) {
+				historianIds[i] = -1;
+				continue;
+			}
+
+			Integer id = this.ids.get(address.toKey());
+			if (id == null) {
+				id = this.ids.size();
+				this.ids.put(address.toKey(), id);
+				Files.writeString(addressesFile.toPath(), address.toKey() + "\n", StandardCharsets.UTF_8,
+						StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			}
+			historianIds[i] = id;
+		}
+		this.historianIds = historianIds;
+	}
+
+	private static boolean isRecorded(StrolchValueType valueType) {
+		return valueType == StrolchValueType.BOOLEAN
+				|| valueType == StrolchValueType.INTEGER
+				|| valueType == StrolchValueType.LONG;
+	}
+
+	/**
+	 * Records the given value of the address with the given id in the {@link li.strolch.plc.core.hw.Plc}, at the
+	 * current time. Values of unknown addresses and of other types than boolean, integer and long are ignored
+	 *
+	 * @param addressId the id of the address in the Plc
+	 * @param value     the new value
+	 */
+	public void record(int addressId, Object value) {
+		record(addressId, value, System.nanoTime());
+	}
+
+	/**
+	 * Records the given value of the address with the given id in the {@link li.strolch.plc.core.hw.Plc}, at the time
+	 * the value was ingested. Values of unknown addresses and of other types than boolean, integer and long are
+	 * ignored
+	 *
+	 * @param addressId  the id of the address in the Plc
+	 * @param value      the new value
+	 * @param ingestTime the {@link System#nanoTime()} at which the value was ingested
+	 */
+	public void record(int addressId, Object value, long ingestTime) {
+		int[] historianIds = this.historianIds;
+		if (addressId < 0 || addressId >= historianIds.length || historianIds[addressId] == -1)
+			return;
+
+		if (value instanceof Boolean b)
+			append(historianIds[addressId], KIND_BOOLEAN, b ? 1L : 0L, ingestTime);
+		else if (value instanceof Integer i)
+			append(historianIds[addressId], KIND_INTEGER, i, ingestTime);
+		else if (value instanceof Long l)
+			append(historianIds[addressId], KIND_LONG, l, ingestTime);
+	}
+
+	private synchronized void append(int id, byte kind, long payload, long ingestTime) {
+
+		// the records must be ordered by their timestamp, but values of different lanes may be recorded out of order
+		long timestamp = System.currentTimeMillis() - NANOSECONDS.toMillis(System.nanoTime() - ingestTime);
+		timestamp = Math.max(timestamp, this.lastTimestamp);
+		this.lastTimestamp = timestamp;
+		try {
+			if (this.current.isFull())
+				this.current = newSegment(this.current.index + 1);
+			this.current.append(timestamp, id, kind, payload);
+		} catch (IOException e) {
+			logger.error("Failed to roll historian segment", e);
+		}
+	}
+
+	/**
+	 * @param key the key of the address
+	 *
+	 * @return true if the address with the given key is known to the historian
+	 */
+	public synchronized boolean isKnown(String key) {
+		return this.ids.containsKey(key);
+	}
+
+	/**
+	 * Passes the recorded values of the address with the given key in the given time range to the given consumer,
+	 * oldest first. If a bucket size is given, then only the last value of each bucket is passed, with the start of the
+	 * bucket as timestamp
+	 *
+	 * @param key      the key of the address
+	 * @param from     the start of the time range in milliseconds, inclusive
+	 * @param to       the end of the time range in milliseconds, exclusive
+	 * @param bucket   the size of the buckets in milliseconds, or 0 to pass all values
+	 * @param consumer the consumer of the values
+	 *
+	 * @return false if the address is not known to the historian
+	 */
+	public boolean query(String key, long from, long to, long bucket, HistoryConsumer consumer) throws IOException {
+		Integer id;
+		synchronized (this) {
+			id = this.ids.get(key);
+		}
+		if (id == null)
+			return false;
+
+		Bucket current = bucket > 0L ? new Bucket() : null;
+		for (Segment segment : this.segments) {
+			if (segment.lastTimestamp < from || segment.firstTimestamp >= to)
+				continue;
+
+			int end = segment.position;
+			for (int offset = HEADER_SIZE; offset < end; offset += RECORD_SIZE) {
+				long timestamp = segment.buffer.getLong(offset + OFFSET_TIMESTAMP);
+				if (timestamp < from)
+					continue;
+				if (timestamp >= to)
+					break;
+				if (segment.buffer.getInt(offset + OFFSET_ID) != id)
+					continue;
+
+				byte kind = segment.buffer.get(offset + OFFSET_KIND);
+				long payload = segment.buffer.getLong(offset + OFFSET_PAYLOAD);
+				if (current == null) {
+					consumer.accept(timestamp, kind, payload);
+				} else {
+					long start = timestamp - Math.floorMod(timestamp, bucket);
+					if (current.set && current.start != start)
+						consumer.accept(current.start, current.kind, current.payload);
+					current.start = start;
+					current.kind = kind;
+					current.payload = payload;
+					current.set = true;
+				}
+			}
+		}
+
+		if (current != null && current.set)
+			consumer.accept(current.start, current.kind, current.payload);
+		return true;
+	}
+
+	/**
+	 * Writes the segments to disk
+	 */
+	public synchronized void close() {
+		for (Segment segment : this.segments) {
+			segment.buffer.force();
+		}
+		logger.info("Closed historian at {}", this.path.getAbsolutePath());
+	}
+
+	public interface HistoryConsumer {
+		void accept(long timestamp, byte kind, long payload) throws IOException;
+	}
+
+	private static class Bucket {
+		private boolean set;
+		private long start;
+		private byte kind;
+		private long payload;
+	}
+
+	private static class Segment {
+		private final File file;
+		private final long index;
+		private final MappedByteBuffer buffer;
+		private volatile int position;
+		private volatile long firstTimestamp;
+		private volatile long lastTimestamp;
+
+		private Segment(File file, long index, MappedByteBuffer buffer) {
+			this.file = file;
+			this.index = index;
+			this.buffer = buffer;
+			this.firstTimestamp = Long.MAX_VALUE;
+			this.lastTimestamp = Long.MIN_VALUE;
+		}
+
+		private static MappedByteBuffer map(File file, int size) throws IOException {
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				buffer.order(ByteOrder.BIG_ENDIAN);
+				return buffer;
+			}
+		}
+
+		private static Segment create(File file, long index, int size) throws IOException {
+			Segment segment = new Segment(file, index, map(file, size));
+			segment.buffer.putInt(0, MAGIC);
+			segment.buffer.putShort(4, VERSION);
+			segment.buffer.putShort(6, (short) RECORD_SIZE);
+			segment.buffer.putLong(8, System.currentTimeMillis());
+			segment.position = HEADER_SIZE;
+			return segment;
+		}
+
+		private static Segment open(File file, long index) throws IOException {
+			Segment segment = new Segment(file, index, map(file, (int) file.length()));
+			MappedByteBuffer buffer = segment.buffer;
+			if (buffer.getInt(0) != MAGIC || buffer.getShort(6) != RECORD_SIZE)
+				throw new IOException("File " + file.getAbsolutePath() + " is not a historian segment!");
+
+			int position = HEADER_SIZE;
+			while (position + RECORD_SIZE <= buffer.capacity() && buffer.getLong(position + OFFSET_TIMESTAMP) != 0L) {
+				long timestamp = buffer.getLong(position + OFFSET_TIMESTAMP);
+				if (segment.firstTimestamp == Long.MAX_VALUE)
+					segment.firstTimestamp = timestamp;
+				segment.lastTimestamp = timestamp;
+				position += RECORD_SIZE;
+			}
+			segment.position = position;
+			return segment;
+		}
+
+		private boolean isFull() {
+			return this.position + RECORD_SIZE > this.buffer.capacity();
+		}
+
+		private void append(long timestamp, int id, byte kind, long payload) {
+			int offset = this.position;
+			this.buffer.putInt(offset + OFFSET_ID, id);
+			this.buffer.put(offset + OFFSET_KIND, kind);
+			this.buffer.putLong(offset + OFFSET_PAYLOAD, payload);
+			this.buffer.putLong(offset + OFFSET_TIMESTAMP, timestamp);
+			if (this.firstTimestamp == Long.MAX_VALUE)
+				this.firstTimestamp = timestamp;
+			this.lastTimestamp = timestamp;
+
+			// publish the record to readers
+			this.position = offset + RECORD_SIZE;
+		}
+	}
+}
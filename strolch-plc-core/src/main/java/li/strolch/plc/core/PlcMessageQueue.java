@@ -0,0 +1,125 @@
+package li.strolch.plc.core;
+
+import li.strolch.model.Locator;
+import li.strolch.model.log.LogMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * <p>Queues the operations messages for the {@link GlobalPlcListener}, keyed by their {@link Locator}. Only the
+ * latest pending message of a locator is kept, and a disable removes a pending message of its locator, so that a
+ * toggling fault does not flood the listener. A disable is always delivered before a later message of the same
+ * locator.</p>
+ *
+ * <p>If more than the capacity of locators are pending, then the oldest are dropped with a warning</p>
+ */
+class PlcMessageQueue {
+
+	private static final Logger logger = LoggerFactory.getLogger(PlcMessageQueue.class);
+
+	private final int capacity;
+	private final LinkedHashMap<Locator, Pending> pending;
+
+	/**
+	 * The pending operations for one locator: an optional disable, followed by an optional message
+	 */
+	private static class Pending {
+		private boolean disable;
+		private LogMessage message;
+	}
+
+	PlcMessageQueue(int capacity) {
+		this.capacity = capacity;
+		this.pending = new LinkedHashMap<>();
+	}
+
+	synchronized void add(LogMessage message) {
+		getPending(message.getLocator()).message = message;
+	}
+
+	synchronized void disable(Locator locator) {
+		Pending pending = getPending(locator);
+		pending.message = null;
+		pending.disable = true;
+	}
+
+	private Pending getPending(Locator locator) {
+		Pending pending = this.pending.get(locator);
+		if (pending == null) {
+			if (this.pending.size() >= this.capacity) {
+				Iterator<Map.Entry<Locator, Pending>> iter = this.pending.entrySet().iterator();
+				logger.warn("Message queue is full, dropping messages for {}", iter.next().getKey());
+				iter.remove();
+			}
+			pending = new Pending();
+			this.pending.put(locator, pending);
+			notifyAll();
+		}
+		return pending;
+	}
+
+	/**
+	 * Waits until messages are pending and removes up to the given number of locators, delivering their disables and
+	 * messages to the given listener in one batch. If the listener fails, then the removed locators are queued again
+	 * before any locators added in the meantime, keeping any disable or message which was queued for them since
+	 *
+	 * @param listener the listener to deliver the messages to
+	 * @param maxSize  the maximum number of locators to deliver
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	void deliver(GlobalPlcListener listener, int maxSize) throws InterruptedException {
+		LinkedHashMap<Locator, Pending> batch = new LinkedHashMap<>();
+		List<Locator> disabled = new ArrayList<>();
+		List<LogMessage> messages = new ArrayList<>();
+		synchronized (this) {
+			while (this.pending.isEmpty()) {
+				wait();
+			}
+
+			Iterator<Map.Entry<Locator, Pending>> iter = this.pending.entrySet().iterator();
+			for (int i = 0; i < maxSize && iter.hasNext(); i++) {
+				Map.Entry<Locator, Pending> entry = iter.next();
+				if (entry.getValue().disable)
+					disabled.add(entry.getKey());
+				if (entry.getValue().message != null)
+					messages.add(entry.getValue().message);
+				batch.put(entry.getKey(), entry.getValue());
+				iter.remove();
+			}
+		}
+
+		try {
+			listener.sendMessages(disabled, messages);
+		} catch (RuntimeException e) {
+			restore(batch);
+			throw e;
+		}
+	}
+
+	private synchronized void restore(LinkedHashMap<Locator, Pending> batch) {
+		for (Map.Entry<Locator, Pending> entry : this.pending.entrySet()) {
+			Pending failed = batch.get(entry.getKey());
+			Pending newer = entry.getValue();
+			if (failed == null) {
+				batch.put(entry.getKey(), newer);
+				continue;
+			}
+
+			// a newer disable drops the failed message, a newer message replaces it
+			failed.disable |= newer.disable;
+			if (newer.disable || newer.message != null)
+				failed.message = newer.message;
+		}
+
+		this.pending.clear();
+		this.pending.putAll(batch);
+		Iterator<Map.Entry<Locator, Pending>> iter = this.pending.entrySet().iterator();
+		while (this.pending.size() > this.capacity) {
+			logger.warn("Message queue is full, dropping messages for {}", iter.next().getKey());
+			iter.remove();
+		}
+	}
+}
@@ -3,12 +3,15 @@ package li.strolch.plc.core;
 import li.strolch.agent.api.ComponentContainer;
 import li.strolch.model.Locator;
 import li.strolch.model.Resource;
+import li.strolch.model.StrolchValueType;
 import li.strolch.model.Tags;
 import li.strolch.model.log.LogMessage;
 import li.strolch.model.log.LogMessageState;
 import li.strolch.model.log.LogSeverity;
 import li.strolch.model.parameter.Parameter;
 import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.plc.core.hw.BooleanPlcListener;
+import li.strolch.plc.core.hw.LongPlcListener;
 import li.strolch.plc.core.hw.PlcListener;
 import li.strolch.plc.model.PlcAddress;
 import li.strolch.plc.model.PlcAddressKey;
@@ -25,7 +28,6 @@ import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.concurrent.*;
 
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static li.strolch.plc.model.PlcConstants.PARAM_VALUE;
 import static li.strolch.plc.model.PlcConstants.TYPE_PLC_ADDRESS;
 import static li.strolch.runtime.StrolchConstants.DEFAULT_REALM;
@@ -39,6 +41,11 @@ import static li.strolch.utils.helper.ExceptionHelper.getCallerMethod;
  * <p>The service registers for changes on the hardware, e.g. button presses, light barriers, etc. and then performs a
  * given action, e.g. turning a motor on or off.</p>
  *
+ * <p>Each registration has a {@link PlcAddressHandle}, and the notifications of the address are routed directly
+ * to {@link #onBoolean(PlcAddressHandle, boolean)}, {@link #onLong(PlcAddressHandle, long)} or
+ * {@link #onValue(PlcAddressHandle, Object)} with that handle. By default these delegate to
+ * {@link #handleNotification(PlcAddress, Object)}.</p>
+ *
  * <p>The PlcService has the following life cycle:</p>
  * <ul>
  *     <li>{@link #register()}</li>
@@ -53,10 +60,12 @@ public abstract class PlcService implements PlcListener {
 	protected final ComponentContainer container;
 	protected final PlcHandler plcHandler;
 
-	protected final Map<PlcAddress, Future<?>> debounceMap;
+	protected final Map<PlcAddress, PlcDebouncer.Timer> debounceMap;
 	protected final List<PlcAddressKey> registeredKeys;
+	private final List<HandleListener> handleListeners;
 
-	private PlcServiceState state;
+	private volatile PlcServiceState state;
+	private PlcServiceExecutor executor;
 
 	public PlcService(PlcHandler plcHandler) {
 		this.container = plcHandler.getContainer();
@@ -64,6 +73,7 @@ public abstract class PlcService implements PlcListener {
 		this.state = PlcServiceState.Unregistered;
 		this.debounceMap = new ConcurrentHashMap<>();
 		this.registeredKeys = new ArrayList<>();
+		this.handleListeners = new ArrayList<>();
 	}
 
 	public PlcServiceState getState() {
@@ -76,8 +86,12 @@ public abstract class PlcService implements PlcListener {
 	}
 
 	/**
-	 * Called to initialize this service, here one would read the model state of a given address using
-	 * {@link #getAddressState(StrolchTransaction, String, String)}
+	 * <p>Called to initialize this service, here one would read the model state of a given address using
+	 * {@link #getAddressState(StrolchTransaction, String, String)}, which returns the last value kept by the
+	 * {@link PlcHandler}, and only reads the model if no value is kept.</p>
+	 *
+	 * <p>The {@link PlcServiceInitializer} starts the services in parallel, each with its own read only transaction,
+	 * thus a service must not depend on the start of another service</p>
 	 *
 	 * @param tx the transaction giving access to the model
 	 */
@@ -86,9 +100,14 @@ public abstract class PlcService implements PlcListener {
 	}
 
 	/**
-	 * Called to stop the plc service. Here you would cancel any scheduled tasks.
+	 * Called to stop the plc service. Cancels all pending debounces and the scheduled tasks of this service, here you
+	 * would cancel anything else this service started.
 	 */
 	public void stop() {
+		cancelDebounces();
+		PlcServiceExecutor executor = this.executor;
+		if (executor != null)
+			executor.cancelScheduledTasks();
 		this.state = PlcServiceState.Stopped;
 	}
 
@@ -108,14 +127,35 @@ public abstract class PlcService implements PlcListener {
 	}
 
 	/**
-	 * Register this service with the given resource and action
+	 * <p>Register this service with the given resource and action.</p>
+	 *
+	 * <p>Note that the service itself is not the registered listener, but the listener of the handle of the address,
+	 * see {@link #registerHandle(String, String)}. Thus calling {@link PlcHandler#unregister(String, String,
+	 * PlcListener)} with this service does nothing, use {@link #unregister(String, String)} instead</p>
 	 *
 	 * @param resource the resource ID
 	 * @param action   the action
 	 */
 	public void register(String resource, String action) {
-		this.plcHandler.register(resource, action, this);
+		registerHandle(resource, action);
+	}
+
+	/**
+	 * Register this service with the given resource and action, returning the handle of the address
+	 *
+	 * @param resource the resource ID
+	 * @param action   the action
+	 *
+	 * @return the handle of the registered address, with which the notifications of the address are passed to this
+	 * service
+	 */
+	public PlcAddressHandle registerHandle(String resource, String action) {
+		PlcAddress address = this.plcHandler.getPlcAddress(resource, action);
+		HandleListener listener = new HandleListener(new PlcAddressHandle(this.handleListeners.size(), address));
+		this.plcHandler.register(resource, action, listener);
+		this.handleListeners.add(listener);
 		this.registeredKeys.add(PlcAddressKey.keyFor(resource, action));
+		return listener.handle;
 	}
 
 	/**
@@ -125,14 +165,64 @@ public abstract class PlcService implements PlcListener {
 	 * @param action   the action
 	 */
 	public void unregister(String resource, String action) {
-		this.plcHandler.unregister(resource, action, this);
+		for (int i = 0; i < this.handleListeners.size(); i++) {
+			HandleListener listener = this.handleListeners.get(i);
+			if (listener == null || !listener.matches(resource, action))
+				continue;
+
+			// keep the index of the other handles
+			this.handleListeners.set(i, null);
+			this.plcHandler.unregister(resource, action, listener);
+		}
+		this.registeredKeys.remove(PlcAddressKey.keyFor(resource, action));
 	}
 
 	/**
 	 * Unregisters this {@link PlcService} from all previously registered addresses
 	 */
 	protected void unregisterAll() {
-		this.registeredKeys.forEach(key -> this.plcHandler.unregister(key.resource, key.action, this));
+		for (HandleListener listener : this.handleListeners) {
+			if (listener != null)
+				this.plcHandler.unregister(listener.handle.resource(), listener.handle.action(), listener);
+		}
+		this.handleListeners.clear();
+		this.registeredKeys.clear();
+	}
+
+	/**
+	 * Called when the boolean value of the address with the given handle changed. By default delegates to
+	 * {@link #handleNotification(PlcAddress, Object)}
+	 *
+	 * @param handle the handle of the address, as returned by {@link #registerHandle(String, String)}
+	 * @param value  the new value
+	 */
+	protected void onBoolean(PlcAddressHandle handle, boolean value) {
+		handleNotification(handle.address(), value);
+	}
+
+	/**
+	 * Called when the integer or long value of the address with the given handle changed. By default delegates to
+	 * {@link #handleNotification(PlcAddress, Object)}, boxing the value to the value type of the address
+	 *
+	 * @param handle the handle of the address, as returned by {@link #registerHandle(String, String)}
+	 * @param value  the new value
+	 */
+	protected void onLong(PlcAddressHandle handle, long value) {
+		if (handle.address().valueType == StrolchValueType.INTEGER)
+			handleNotification(handle.address(), (int) value);
+		else
+			handleNotification(handle.address(), value);
+	}
+
+	/**
+	 * Called when any other value of the address with the given handle changed. By default delegates to
+	 * {@link #handleNotification(PlcAddress, Object)}
+	 *
+	 * @param handle the handle of the address, as returned by {@link #registerHandle(String, String)}
+	 * @param value  the new value
+	 */
+	protected void onValue(PlcAddressHandle handle, Object value) {
+		handleNotification(handle.address(), value);
 	}
 
 	/**
@@ -150,8 +240,8 @@ public abstract class PlcService implements PlcListener {
 	}
 
 	/**
-	 * Returns the value of a plc address by calling {@link #getPlcAddress(StrolchTransaction, String, String)} for the
-	 * given resource and action
+	 * Returns the value of a plc address from the last values kept by the {@link PlcHandler}, falling back to calling
+	 * {@link #getPlcAddress(StrolchTransaction, String, String)} for the given resource and action if no value is kept
 	 *
 	 * @param tx       the current TX
 	 * @param resource the resource
@@ -161,10 +251,28 @@ public abstract class PlcService implements PlcListener {
 	 * @return the value of the given address
 	 */
 	protected <T> T getAddressState(StrolchTransaction tx, String resource, String action) {
+		T value = getAddressState(resource, action);
+		if (value != null)
+			return value;
 		Parameter<T> addressParam = getPlcAddress(tx, resource, action).getParameter(PARAM_VALUE, true);
 		return addressParam.getValue();
 	}
 
+	/**
+	 * Returns the last value of a plc address, without a transaction
+	 *
+	 * @param resource the resource
+	 * @param action   the action
+	 * @param <T>      the type of value to return
+	 *
+	 * @return the value of the given address
+	 *
+	 * @see PlcHandler#getAddressValue(String, String)
+	 */
+	protected <T> T getAddressState(String resource, String action) {
+		return this.plcHandler.getAddressValue(resource, action);
+	}
+
 	/**
 	 * Enables an operations log message to be seen by a user
 	 *
@@ -367,21 +475,27 @@ public abstract class PlcService implements PlcListener {
 	}
 
 	/**
-	 * Returns the {@link ExecutorService} for this class
+	 * Sets the bounded executor of this service, on which all async and scheduled tasks are executed
 	 *
-	 * @return the executor
+	 * @param executor the executor
 	 */
-	private ExecutorService getExecutor() {
-		return this.container.getAgent().getExecutor(getClass().getSimpleName());
+	void setExecutor(PlcServiceExecutor executor) {
+		this.executor = executor;
 	}
 
 	/**
-	 * Returns the {@link ScheduledExecutorService} for this class
+	 * Returns the {@link PlcServiceExecutor} of this service. If none was set by the {@link PlcServiceInitializer},
+	 * then an unbounded one is created on the executors of the agent, which are shut down with the agent
 	 *
-	 * @return the scheduled executor
+	 * @return the executor
 	 */
-	private ScheduledExecutorService getScheduledExecutor() {
-		return this.container.getAgent().getScheduledExecutor(getClass().getSimpleName());
+	public synchronized PlcServiceExecutor getExecutor() {
+		if (this.executor == null) {
+			String name = getClass().getSimpleName();
+			this.executor = new PlcServiceExecutor(name, this.container.getAgent().getExecutor(name),
+					this.container.getAgent().getScheduledExecutor(name));
+		}
+		return this.executor;
 	}
 
 	/**
@@ -392,14 +506,27 @@ public abstract class PlcService implements PlcListener {
 	 * <p>This methods is used to handle hardware where the bits change often, before resting at a new state. E.g. a
 	 * light barrier where it might toggle between true and false a few times, before staying true when the light
 	 * barrier detects an object.</p>
+	 *
+	 * <p>The delay is handled by the {@link PlcDebouncer} of the {@link PlcHandler}, thus it is rounded up to its tick
+	 * resolution, and the runnable is run on the {@link PlcServiceExecutor} of this service, unless it was debounced
+	 * again or cancelled in the meantime</p>
 	 */
 	protected void debounce(PlcAddress address, Runnable runnable, int delay) {
-		Future<?> previousTask = this.debounceMap.put(address, schedule(() -> {
-			this.debounceMap.remove(address);
-			runnable.run();
-		}, delay, MILLISECONDS));
-		if (previousTask != null)
-			previousTask.cancel(true);
+		PlcDebouncer debouncer = this.plcHandler.getDebouncer();
+		PlcDebouncer.Timer timer = this.debounceMap.get(address);
+		if (timer == null)
+			timer = this.debounceMap.computeIfAbsent(address,
+					a -> debouncer.newTimer(task -> getExecutor().execute(task, this::handleFailedAsync),
+							this::handleFailedAsync));
+		debouncer.arm(timer, runnable, delay);
+	}
+
+	/**
+	 * Cancels all pending debounced runnables of this service
+	 */
+	protected void cancelDebounces() {
+		PlcDebouncer debouncer = this.plcHandler.getDebouncer();
+		this.debounceMap.values().forEach(debouncer::cancel);
 	}
 
 	/**
@@ -408,13 +535,7 @@ public abstract class PlcService implements PlcListener {
 	 * @param runnable the runnable to execute asynchronously
 	 */
 	protected void async(Runnable runnable) {
-		getExecutor().submit(() -> {
-			try {
-				runnable.run();
-			} catch (Exception e) {
-				handleFailedAsync(e);
-			}
-		});
+		getExecutor().execute(runnable, this::handleFailedAsync);
 	}
 
 	/**
@@ -427,13 +548,7 @@ public abstract class PlcService implements PlcListener {
 	 * @return a future to cancel the executor before execution
 	 */
 	protected ScheduledFuture<?> schedule(Runnable runnable, long delay, TimeUnit delayUnit) {
-		return getScheduledExecutor().schedule(() -> {
-			try {
-				runnable.run();
-			} catch (Exception e) {
-				handleFailedAsync(e);
-			}
-		}, delay, delayUnit);
+		return getExecutor().schedule(runnable, this::handleFailedAsync, delay, delayUnit);
 	}
 
 	/**
@@ -446,13 +561,7 @@ public abstract class PlcService implements PlcListener {
 	 * @return a future to cancel the executor before execution
 	 */
 	protected ScheduledFuture<?> schedule(PrivilegedRunnable runnable, long delay, TimeUnit delayUnit) {
-		return getScheduledExecutor().schedule(() -> {
-			try {
-				this.container.getPrivilegeHandler().runAsAgent(runnable);
-			} catch (Exception e) {
-				handleFailedAsync(e);
-			}
-		}, delay, delayUnit);
+		return getExecutor().schedule(() -> runAsAgent(runnable), this::handleFailedAsync, delay, delayUnit);
 	}
 
 	/**
@@ -467,13 +576,7 @@ public abstract class PlcService implements PlcListener {
 	 */
 	protected ScheduledFuture<?> scheduleAtFixedRate(Runnable runnable, long initialDelay, long period,
 			TimeUnit delayUnit) {
-		return getScheduledExecutor().scheduleAtFixedRate(() -> {
-			try {
-				runnable.run();
-			} catch (Exception e) {
-				handleFailedAsync(e);
-			}
-		}, initialDelay, period, delayUnit);
+		return getExecutor().scheduleAtFixedRate(runnable, this::handleFailedAsync, initialDelay, period, delayUnit);
 	}
 
 	/**
@@ -488,13 +591,8 @@ public abstract class PlcService implements PlcListener {
 	 */
 	protected ScheduledFuture<?> scheduleAtFixedRate(PrivilegedRunnable runnable, long initialDelay, long period,
 			TimeUnit delayUnit) {
-		return getScheduledExecutor().scheduleAtFixedRate(() -> {
-			try {
-				this.container.getPrivilegeHandler().runAsAgent(runnable);
-			} catch (Exception e) {
-				handleFailedAsync(e);
-			}
-		}, initialDelay, period, delayUnit);
+		return getExecutor().scheduleAtFixedRate(() -> runAsAgent(runnable), this::handleFailedAsync, initialDelay,
+				period, delayUnit);
 	}
 
 	/**
@@ -509,13 +607,8 @@ public abstract class PlcService implements PlcListener {
 	 */
 	protected ScheduledFuture<?> scheduleWithFixedDelay(Runnable runnable, long initialDelay, long period,
 			TimeUnit delayUnit) {
-		return getScheduledExecutor().scheduleWithFixedDelay(() -> {
-			try {
-				runnable.run();
-			} catch (Exception e) {
-				handleFailedAsync(e);
-			}
-		}, initialDelay, period, delayUnit);
+		return getExecutor().scheduleWithFixedDelay(runnable, this::handleFailedAsync, initialDelay, period,
+				delayUnit);
 	}
 
 	/**
@@ -530,13 +623,18 @@ public abstract class PlcService implements PlcListener {
 	 */
 	protected ScheduledFuture<?> scheduleWithFixedDelay(PrivilegedRunnable runnable, long initialDelay, long period,
 			TimeUnit delayUnit) {
-		return getScheduledExecutor().scheduleWithFixedDelay(() -> {
-			try {
-				this.container.getPrivilegeHandler().runAsAgent(runnable);
-			} catch (Exception e) {
-				handleFailedAsync(e);
-			}
-		}, initialDelay, period, delayUnit);
+		return getExecutor().scheduleWithFixedDelay(() -> runAsAgent(runnable), this::handleFailedAsync, initialDelay,
+				period, delayUnit);
+	}
+
+	private void runAsAgent(PrivilegedRunnable runnable) {
+		try {
+			this.container.getPrivilegeHandler().runAsAgent(runnable);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException("Failed to run as agent", e);
+		}
 	}
 
 	/**
@@ -547,4 +645,57 @@ public abstract class PlcService implements PlcListener {
 	protected void handleFailedAsync(Exception e) {
 		logger.error("Failed to execute {}", getClass().getSimpleName(), e);
 	}
+
+	/**
+	 * The listener registered for a single {@link PlcAddressHandle}, routing the notifications of its address to the
+	 * handle callbacks of the service, without looking up the address
+	 */
+	private final class HandleListener implements BooleanPlcListener, LongPlcListener {
+
+		private final PlcAddressHandle handle;
+
+		private HandleListener(PlcAddressHandle handle) {
+			this.handle = handle;
+		}
+
+		private boolean matches(String resource, String action) {
+			return this.handle.resource().equals(resource) && this.handle.action().equals(action);
+		}
+
+		/**
+		 * The PLC notifies with its current address, which is replaced when the PLC is reconfigured
+		 */
+		private void resolve(PlcAddress address) {
+			if (address != this.handle.address())
+				this.handle.setAddress(address);
+		}
+
+		@Override
+		public void handleBooleanNotification(PlcAddress address, boolean value) {
+			resolve(address);
+			onBoolean(this.handle, value);
+		}
+
+		@Override
+		public void handleLongNotification(PlcAddress address, long value) {
+			resolve(address);
+			onLong(this.handle, value);
+		}
+
+		@Override
+		public void handleNotification(PlcAddress address, Object value) {
+			resolve(address);
+			switch (value) {
+				case Boolean b -> onBoolean(this.handle, b);
+				case Integer i -> onLong(this.handle, i);
+				case Long l -> onLong(this.handle, l);
+				case null, default -> onValue(this.handle, value);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return PlcService.this.getClass().getSimpleName() + " " + this.handle;
+		}
+	}
 }
@@ -0,0 +1,413 @@
+package li.strolch.plc.core;
+
+import com.google.gson.JsonObject;
+import li.strolch.plc.core.hw.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static li.strolch.plc.model.PlcConstants.*;
+
+/**
+ * <p>The bounded executor of a {@link PlcService}. At most the given number of tasks are executed concurrently, on
+ * platform or virtual threads, and at most the given number of tasks are queued. Further tasks are rejected, counted
+ * and logged, so that a misbehaving service can not swamp the agent. With {@link #UNBOUNDED} threads, tasks are
+ * never queued nor rejected, but each is executed at once.</p>
+ *
+ * <p>Scheduled tasks are only triggered by the given scheduler, and then executed on this executor. A periodic task
+ * which is triggered while its previous execution is still queued or running, is skipped and counted as an
+ * overrun. Cancelling a scheduled task also cancels its queued or running execution, and {@link #shutdown()} cancels
+ * all scheduled tasks.</p>
+ *
+ * <p>The queue depth, the lag between the due time of a task and its start, and the execution time are tracked</p>
+ */
+public class PlcServiceExecutor {
+
+	private static final Logger logger = LoggerFactory.getLogger(PlcServiceExecutor.class);
+
+	/**
+	 * The number of threads for an executor which executes each task at once, as the executors of the agent do
+	 */
+	public static final int UNBOUNDED = 0;
+
+	private final String name;
+	private final int threads;
+	private final int queueSize;
+	private final boolean virtualThreads;
+	private final ExecutorService executor;
+	private final boolean sharedExecutor;
+	private final ScheduledExecutorService scheduler;
+	private final Semaphore permits;
+	private final Semaphore concurrency;
+	private final Set<ScheduledTask> scheduledTasks = ConcurrentHashMap.newKeySet();
+
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+	private final AtomicLong overruns = new AtomicLong();
+	private final LatencyHistogram startLag = new LatencyHistogram();
+	private final LatencyHistogram executionTime = new LatencyHistogram();
+
+	/**
+	 * @param name           the name of the executor, used for the threads
+	 * @param threads        the maximum number of concurrently executing tasks, or {@link #UNBOUNDED}
+	 * @param queueSize      the maximum number of queued tasks, ignored if unbounded
+	 * @param virtualThreads true to execute the tasks on virtual threads
+	 * @param scheduler      the scheduler which triggers the scheduled tasks
+	 */
+	public PlcServiceExecutor(String name, int threads, int queueSize, boolean virtualThreads,
+			ScheduledExecutorService scheduler) {
+		if (threads < 0)
+			throw new IllegalArgumentException("The number of threads must not be negative, not " + threads);
+		if (queueSize < 0)
+			throw new IllegalArgumentException("The queue size must not be negative, not " + queueSize);
+
+		this.name = name;
+		this.threads = threads;
+		this.queueSize = queueSize;
+		this.virtualThreads = virtualThreads;
+		this.sharedExecutor = false;
+		this.scheduler = scheduler;
+
+		// virtual threads are not pooled, thus the permits bound the executing and queued tasks, and the concurrency
+		// bounds the executing tasks
+		if (threads == UNBOUNDED) {
+			this.executor = virtualThreads ?
+					Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory()) :
+					Executors.newCachedThreadPool(Thread.ofPlatform().name(name + "-", 0).daemon().factory());
+			this.permits = null;
+			this.concurrency = null;
+		} else if (virtualThreads) {
+			this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+			this.permits = new Semaphore(threads + queueSize);
+			this.concurrency = new Semaphore(threads);
+		} else {
+			ThreadFactory threadFactory = Thread.ofPlatform().name(name + "-", 0).daemon().factory();
+			BlockingQueue<Runnable> queue = queueSize == 0 ? new SynchronousQueue<>() :
+					new ArrayBlockingQueue<>(queueSize);
+			this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, queue, threadFactory,
+					new ThreadPoolExecutor.AbortPolicy());
+			this.permits = null;
+			this.concurrency = null;
+		}
+	}
+
+	/**
+	 * Creates an unbounded executor, which executes its tasks on the given shared executor. The shared executor is
+	 * not shut down by {@link #shutdown()}, as it is owned by the caller
+	 *
+	 * @param name      the name of the executor
+	 * @param executor  the shared executor on which the tasks are executed
+	 * @param scheduler the scheduler which triggers the scheduled tasks
+	 */
+	public PlcServiceExecutor(String name, ExecutorService executor, ScheduledExecutorService scheduler) {
+		this.name = name;
+		this.threads = UNBOUNDED;
+		this.queueSize = 0;
+		this.virtualThreads = false;
+		this.executor = executor;
+		this.sharedExecutor = true;
+		this.scheduler = scheduler;
+		this.permits = null;
+		this.concurrency = null;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public int getQueueDepth() {
+		return this.queued.get();
+	}
+
+	public int getRunning() {
+		return this.running.get();
+	}
+
+	public long getCompleted() {
+		return this.completed.get();
+	}
+
+	public long getFailed() {
+		return this.failed.get();
+	}
+
+	public long getRejected() {
+		return this.rejected.get();
+	}
+
+	public long getOverruns() {
+		return this.overruns.get();
+	}
+
+	public LatencyHistogram getStartLag() {
+		return this.startLag;
+	}
+
+	public LatencyHistogram getExecutionTime() {
+		return this.executionTime;
+	}
+
+	/**
+	 * Executes the given task, passing any exception to the given error handler
+	 *
+	 * @param task         the task to execute
+	 * @param errorHandler the handler for exceptions of the task
+	 *
+	 * @return true if the task was accepted, false if it was rejected
+	 */
+	public boolean execute(Runnable task, Consumer<Exception> errorHandler) {
+		return submit(task, errorHandler, System.nanoTime(), null, null);
+	}
+
+	public ScheduledFuture<?> schedule(Runnable task, Consumer<Exception> errorHandler, long delay, TimeUnit unit) {
+		long dueNanos = System.nanoTime() + unit.toNanos(delay);
+		ScheduledTask scheduled = new ScheduledTask();
+		this.scheduledTasks.add(scheduled);
+		scheduled.trigger = this.scheduler.schedule(() -> {
+			this.scheduledTasks.remove(scheduled);
+			submit(task, errorHandler, dueNanos, null, scheduled);
+		}, delay, unit);
+		return scheduled;
+	}
+
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Consumer<Exception> errorHandler, long initialDelay,
+			long period, TimeUnit unit) {
+		AtomicBoolean pending = new AtomicBoolean();
+		AtomicLong dueNanos = new AtomicLong(System.nanoTime() + unit.toNanos(initialDelay));
+		long periodNanos = unit.toNanos(period);
+		ScheduledTask scheduled = new ScheduledTask();
+		this.scheduledTasks.add(scheduled);
+		scheduled.trigger = this.scheduler.scheduleAtFixedRate(() -> {
+			// the n-th execution is due at the initial delay plus n periods, regardless of when it is triggered
+			long due = dueNanos.getAndAdd(periodNanos);
+			submitPeriodic(task, errorHandler, due, pending, scheduled);
+		}, initialDelay, period, unit);
+		return scheduled;
+	}
+
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Consumer<Exception> errorHandler,
+			long initialDelay, long delay, TimeUnit unit) {
+		AtomicBoolean pending = new AtomicBoolean();
+		AtomicLong dueNanos = new AtomicLong(System.nanoTime() + unit.toNanos(initialDelay));
+		long delayNanos = unit.toNanos(delay);
+		ScheduledTask scheduled = new ScheduledTask();
+		this.scheduledTasks.add(scheduled);
+		scheduled.trigger = this.scheduler.scheduleWithFixedDelay(() -> {
+			// the next execution is due the delay after this trigger, which returns as soon as the task is submitted
+			long due = dueNanos.getAndSet(System.nanoTime() + delayNanos);
+			submitPeriodic(task, errorHandler, due, pending, scheduled);
+		}, initialDelay, delay, unit);
+		return scheduled;
+	}
+
+	private void submitPeriodic(Runnable task, Consumer<Exception> errorHandler, long dueNanos, AtomicBoolean pending,
+			ScheduledTask scheduled) {
+		if (!pending.compareAndSet(false, true)) {
+			this.overruns.incrementAndGet();
+			logger.warn("{}: Skipping periodic task, as its previous execution is still pending", this.name);
+			return;
+		}
+		submit(task, errorHandler, dueNanos, pending, scheduled);
+	}
+
+	private boolean submit(Runnable task, Consumer<Exception> errorHandler, long dueNanos, AtomicBoolean pending,
+			ScheduledTask scheduled) {
+		if (this.permits != null && !this.permits.tryAcquire()) {
+			reject(pending);
+			return false;
+		}
+
+		this.queued.incrementAndGet();
+		AtomicBoolean claimed = new AtomicBoolean();
+		Execution execution = new Execution(() -> {
+			if (claimed.compareAndSet(false, true))
+				run(task, errorHandler, dueNanos, pending);
+		}, claimed, pending);
+		try {
+			this.executor.execute(execution);
+			if (scheduled != null)
+				scheduled.execution = execution;
+			return true;
+		} catch (RejectedExecutionException e) {
+			discard(pending);
+			reject(pending);
+			return false;
+		}
+	}
+
+	/**
+	 * Releases the bookkeeping of a task which was queued, but will never run
+	 */
+	private void discard(AtomicBoolean pending) {
+		this.queued.decrementAndGet();
+		if (this.permits != null)
+			this.permits.release();
+		if (pending != null)
+			pending.set(false);
+	}
+
+	private void reject(AtomicBoolean pending) {
+		if (pending != null)
+			pending.set(false);
+		long rejected = this.rejected.incrementAndGet();
+		logger.error("{}: Rejected task, as {} tasks are executing and {} are queued. Rejected {} tasks so far.",
+				this.name, this.running.get(), this.queued.get(), rejected);
+	}
+
+	private void run(Runnable task, Consumer<Exception> errorHandler, long dueNanos, AtomicBoolean pending) {
+		if (this.concurrency != null)
+			this.concurrency.acquireUninterruptibly();
+		this.queued.decrementAndGet();
+		this.running.incrementAndGet();
+		long start = System.nanoTime();
+		this.startLag.record(Math.max(0L, start - dueNanos));
+		try {
+			task.run();
+			this.completed.incrementAndGet();
+		} catch (Exception e) {
+			this.failed.incrementAndGet();
+			errorHandler.accept(e);
+		} finally {
+			this.executionTime.record(System.nanoTime() - start);
+			this.running.decrementAndGet();
+			if (pending != null)
+				pending.set(false);
+			if (this.concurrency != null)
+				this.concurrency.release();
+			if (this.permits != null)
+				this.permits.release();
+		}
+	}
+
+	public void resetMetrics() {
+		this.startLag.reset();
+		this.executionTime.reset();
+	}
+
+	/**
+	 * Cancels all scheduled tasks, so that they are not triggered anymore. Executing tasks are not interrupted
+	 */
+	public void cancelScheduledTasks() {
+		for (ScheduledTask scheduledTask : this.scheduledTasks) {
+			scheduledTask.cancel(false);
+		}
+	}
+
+	/**
+	 * Cancels all scheduled tasks, and interrupts all executing tasks, unless they are executed on a shared executor
+	 */
+	public void shutdown() {
+		cancelScheduledTasks();
+		if (!this.sharedExecutor)
+			this.executor.shutdownNow();
+	}
+
+	public JsonObject toJson() {
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty(PARAM_NAME, this.name);
+		jsonObject.addProperty(PARAM_THREADS, this.threads);
+		jsonObject.addProperty(PARAM_QUEUE_SIZE, this.queueSize);
+		jsonObject.addProperty(PARAM_VIRTUAL_THREADS, this.virtualThreads);
+		jsonObject.addProperty(PARAM_QUEUE_DEPTH, getQueueDepth());
+		jsonObject.addProperty(PARAM_RUNNING, getRunning());
+		jsonObject.addProperty(PARAM_COMPLETED, getCompleted());
+		jsonObject.addProperty(PARAM_FAILED, getFailed());
+		jsonObject.addProperty(PARAM_REJECTED, getRejected());
+		jsonObject.addProperty(PARAM_OVERRUNS, getOverruns());
+		jsonObject.add(PARAM_START_LAG, this.startLag.toJson());
+		jsonObject.add(PARAM_EXECUTION, this.executionTime.toJson());
+		return jsonObject;
+	}
+
+	/**
+	 * The execution of a task, which releases its bookkeeping if it is cancelled before it started
+	 */
+	private class Execution extends FutureTask<Object> {
+
+		private final AtomicBoolean claimed;
+		private final AtomicBoolean pending;
+
+		private Execution(Runnable runnable, AtomicBoolean claimed, AtomicBoolean pending) {
+			super(runnable, null);
+			this.claimed = claimed;
+			this.pending = pending;
+		}
+
+		@Override
+		protected void done() {
+			if (isCancelled() && this.claimed.compareAndSet(false, true))
+				discard(this.pending);
+		}
+	}
+
+	/**
+	 * A task triggered by the scheduler and executed on this executor. Cancelling it cancels the trigger, and the
+	 * current execution of the task, interrupting it if requested
+	 */
+	private class ScheduledTask implements ScheduledFuture<Object> {
+
+		private volatile ScheduledFuture<?> trigger;
+		private volatile Future<?> execution;
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			scheduledTasks.remove(this);
+			ScheduledFuture<?> trigger = this.trigger;
+			boolean cancelled = trigger != null && trigger.cancel(mayInterruptIfRunning);
+			Future<?> execution = this.execution;
+			if (execution != null)
+				cancelled |= execution.cancel(mayInterruptIfRunning);
+			return cancelled;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return this.trigger.isCancelled();
+		}
+
+		@Override
+		public boolean isDone() {
+			Future<?> execution = this.execution;
+			return this.trigger.isDone() && (execution == null || execution.isDone());
+		}
+
+		@Override
+		public Object get() throws InterruptedException, ExecutionException {
+			this.trigger.get();
+			Future<?> execution = this.execution;
+			if (execution != null)
+				execution.get();
+			return null;
+		}
+
+		@Override
+		public Object get(long timeout, TimeUnit unit)
+				throws InterruptedException, ExecutionException, TimeoutException {
+			long deadline = System.nanoTime() + unit.toNanos(timeout);
+			this.trigger.get(timeout, unit);
+			Future<?> execution = this.execution;
+			if (execution != null)
+				execution.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			return null;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return this.trigger.getDelay(unit);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+		}
+	}
+}
@@ -1,21 +1,52 @@
 package li.strolch.plc.core;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import li.strolch.agent.api.ComponentContainer;
 import li.strolch.agent.api.StrolchComponent;
 import li.strolch.persistence.api.StrolchTransaction;
 import li.strolch.plc.model.PlcServiceState;
 import li.strolch.plc.model.PlcState;
+import li.strolch.runtime.configuration.ComponentConfiguration;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static li.strolch.plc.model.PlcConstants.*;
 
 public abstract class PlcServiceInitializer extends StrolchComponent {
 
+	public static final int DEFAULT_QUEUE_SIZE = 1000;
+
 	private List<PlcService> plcServices;
+	private volatile List<PlcServiceStartup> startupTimeline;
+
+	private int serviceThreads;
+	private int serviceQueueSize;
+	private boolean serviceVirtualThreads;
+	private int serviceStartThreads;
+	private long serviceStartTimeoutMs;
 
 	public PlcServiceInitializer(ComponentContainer container, String componentName) {
 		super(container, componentName);
 	}
 
+	@Override
+	public void initialize(ComponentConfiguration configuration) throws Exception {
+		this.serviceThreads = configuration.getInt("serviceThreads", PlcServiceExecutor.UNBOUNDED);
+		this.serviceQueueSize = configuration.getInt("serviceQueueSize", DEFAULT_QUEUE_SIZE);
+		this.serviceVirtualThreads = configuration.getBoolean("serviceVirtualThreads", false);
+		this.serviceStartThreads = configuration.getInt("serviceStartThreads",
+				Runtime.getRuntime().availableProcessors());
+		this.serviceStartTimeoutMs = configuration.getInt("serviceStartTimeout", 60000);
+		if (this.serviceStartThreads < 1)
+			throw new IllegalArgumentException("serviceStartThreads must be > 0: " + this.serviceStartThreads);
+		super.initialize(configuration);
+	}
+
 	@Override
 	public void start() throws Exception {
 
@@ -38,6 +69,7 @@ public abstract class PlcServiceInitializer extends StrolchComponent {
 				} catch (Exception e) {
 					logger.error("Failed to unregister PlcService {}", plcService.getClass().getName(), e);
 				}
+				plcService.getExecutor().shutdown();
 			});
 		super.stop();
 	}
@@ -51,6 +83,9 @@ public abstract class PlcServiceInitializer extends StrolchComponent {
 
 		this.plcServices = getPlcServices(plcHandler);
 		for (PlcService plcService : this.plcServices) {
+			String name = plcService.getClass().getSimpleName();
+			plcService.setExecutor(new PlcServiceExecutor(name, this.serviceThreads, this.serviceQueueSize,
+					this.serviceVirtualThreads, getScheduledExecutor(name)));
 			try {
 				plcService.register();
 			} catch (Exception e) {
@@ -58,24 +93,154 @@ public abstract class PlcServiceInitializer extends StrolchComponent {
 			}
 		}
 
+		List<PlcService> registered = this.plcServices.stream()
+				.filter(plcService -> plcService.getState() == PlcServiceState.Registered)
+				.toList();
+		List<PlcServiceStartup> timeline = start(registered);
+		StringBuilder sb = new StringBuilder("Started ").append(timeline.size()).append(" PlcServices:");
+		timeline.forEach(startup -> sb.append("\n  ").append(startup));
+		logger.info(sb.toString());
+		this.startupTimeline = timeline;
+	}
+
+	/**
+	 * <p>Starts the given services in parallel on a bounded pool of threads, each with its own read only
+	 * {@link StrolchTransaction}. The services should read the initial values of their addresses from the last values
+	 * kept by the {@link PlcHandler}, see {@link PlcService#getAddressState(StrolchTransaction, String, String)}, so
+	 * that the transaction is rarely used.</p>
+	 *
+	 * <p>Waits until all services are started, failed, or the start timeout elapsed. A service which did not start
+	 * within the timeout is marked as failed, and is stopped as soon as its start returns, as it can not be
+	 * interrupted safely</p>
+	 *
+	 * @return the results of the starts of all services, ordered by their start
+	 */
+	private List<PlcServiceStartup> start(List<PlcService> plcServices) {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(this.serviceStartTimeoutMs);
+
+		int threads = Math.max(1, Math.min(this.serviceStartThreads, plcServices.size()));
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+				Thread.ofPlatform().name("PlcServiceStart-", 0).daemon().factory());
 		try {
-			runAsAgent(ctx -> {
-				try (StrolchTransaction tx = openTx(ctx.getCertificate(), getClass().getSimpleName(), true)) {
-					for (PlcService plcService : this.plcServices) {
-						if (plcService.getState() != PlcServiceState.Registered)
-							continue;
-
-						try {
-							plcService.start(tx);
-						} catch (Exception e) {
-							logger.error("Failed to register PlcService {}", plcService.getClass().getName(), e);
-						}
+			AtomicLongArray startNanos = new AtomicLongArray(plcServices.size());
+			List<CompletableFuture<PlcServiceStartup>> tasks = new ArrayList<>();
+			for (int i = 0; i < plcServices.size(); i++) {
+				PlcService plcService = plcServices.get(i);
+				int index = i;
+				tasks.add(CompletableFuture.supplyAsync(() -> {
+					startNanos.set(index, System.nanoTime());
+					return start(plcService, start, startNanos.get(index));
+				}, executor));
+			}
+
+			List<PlcServiceStartup> timeline = new ArrayList<>();
+			boolean interrupted = false;
+			for (int i = 0; i < tasks.size(); i++) {
+				CompletableFuture<PlcServiceStartup> task = tasks.get(i);
+				PlcService plcService = plcServices.get(i);
+				try {
+					if (this.serviceStartTimeoutMs == 0L)
+						timeline.add(task.get());
+					else
+						timeline.add(task.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+				} catch (TimeoutException e) {
+					logger.error("PlcService {} did not start within {}ms!", plcService.getClass().getName(),
+							this.serviceStartTimeoutMs);
+					timeline.add(failedStartup(plcService, start, startNanos.get(i), true));
+					stopOnceStarted(task, plcService);
+				} catch (InterruptedException e) {
+					if (!interrupted) {
+						interrupted = true;
+						Thread.currentThread().interrupt();
+						logger.error("Interrupted while starting PlcServices!");
 					}
+					timeline.add(failedStartup(plcService, start, startNanos.get(i), false));
+					stopOnceStarted(task, plcService);
+				} catch (ExecutionException e) {
+					logger.error("Failed to start PlcService {}", plcService.getClass().getName(), e.getCause());
+					timeline.add(failedStartup(plcService, start, startNanos.get(i), false));
+				}
+			}
+
+			timeline.sort(Comparator.comparingLong(PlcServiceStartup::startMs));
+			return timeline;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private PlcServiceStartup failedStartup(PlcService plcService, long start, long serviceStart, boolean timedOut) {
+		long now = System.nanoTime();
+		if (serviceStart == 0L)
+			serviceStart = now;
+		return new PlcServiceStartup(plcService.getClass().getName(),
+				TimeUnit.NANOSECONDS.toMillis(serviceStart - start), TimeUnit.NANOSECONDS.toMillis(now - serviceStart),
+				plcService.getState(), true, timedOut);
+	}
+
+	/**
+	 * The start of a service can not be aborted safely, thus a service which did not start in time is stopped as soon
+	 * as its start returns
+	 */
+	private void stopOnceStarted(CompletableFuture<PlcServiceStartup> task, PlcService plcService) {
+		task.whenComplete((startup, e) -> {
+			logger.warn("Stopping PlcService {} as it did not start in time", plcService.getClass().getName());
+			try {
+				plcService.stop();
+			} catch (Exception ex) {
+				logger.error("Failed to stop PlcService {}", plcService.getClass().getName(), ex);
+			}
+		});
+	}
+
+	private PlcServiceStartup start(PlcService plcService, long start, long serviceStart) {
+		String className = plcService.getClass().getName();
+		boolean failed = false;
+		try {
+			runAsAgent(ctx -> {
+				try (StrolchTransaction tx = openTx(ctx.getCertificate(), plcService.getClass().getSimpleName(),
+						true)) {
+					plcService.start(tx);
 				}
 			});
 		} catch (Exception e) {
-			throw new IllegalStateException("Failed to start PlcServices", e);
+			failed = true;
+			logger.error("Failed to start PlcService {}", className, e);
 		}
+
+		long end = System.nanoTime();
+		return new PlcServiceStartup(className, TimeUnit.NANOSECONDS.toMillis(serviceStart - start),
+				TimeUnit.NANOSECONDS.toMillis(end - serviceStart), plcService.getState(), failed, false);
+	}
+
+	/**
+	 * @return the results of starting the {@link PlcService PlcServices}, ordered by their start, or an empty list if
+	 * the services were not started yet
+	 */
+	public List<PlcServiceStartup> getStartupTimeline() {
+		List<PlcServiceStartup> timeline = this.startupTimeline;
+		return timeline == null ? List.of() : timeline;
+	}
+
+	/**
+	 * @return the state and the metrics of the executor of each {@link PlcService}
+	 */
+	public JsonObject getPlcServicesJson() {
+		JsonArray servicesJ = new JsonArray();
+		if (this.plcServices != null) {
+			for (PlcService plcService : this.plcServices) {
+				JsonObject serviceJ = new JsonObject();
+				serviceJ.addProperty(PARAM_CLASS_NAME, plcService.getClass().getName());
+				serviceJ.addProperty(PARAM_STATE, plcService.getState().name());
+				serviceJ.add(PARAM_EXECUTOR, plcService.getExecutor().toJson());
+				servicesJ.add(serviceJ);
+			}
+		}
+
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.add(PARAM_SERVICES, servicesJ);
+		return jsonObject;
 	}
 
 	protected abstract List<PlcService> getPlcServices(PlcHandler plcHandler);
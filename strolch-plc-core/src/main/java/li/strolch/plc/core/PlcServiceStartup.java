@@ -0,0 +1,38 @@
+package li.strolch.plc.core;
+
+import com.google.gson.JsonObject;
+import li.strolch.plc.model.PlcServiceState;
+
+import static li.strolch.plc.model.PlcConstants.*;
+
+/**
+ * The result of starting a {@link PlcService} by the {@link PlcServiceInitializer}, with the offset of the start from
+ * the start of all services and its duration
+ *
+ * @param className  the class name of the service
+ * @param startMs    the offset of the start of the service from the start of all services in milliseconds
+ * @param durationMs the duration of the start in milliseconds
+ * @param state      the state of the service after the start
+ * @param failed     true if the start of the service threw an exception
+ * @param timedOut   true if the start did not complete within the start timeout
+ */
+public record PlcServiceStartup(String className, long startMs, long durationMs, PlcServiceState state,
+								boolean failed, boolean timedOut) {
+
+	public JsonObject toJson() {
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty(PARAM_CLASS_NAME, this.className);
+		jsonObject.addProperty(PARAM_START_MS, this.startMs);
+		jsonObject.addProperty(PARAM_DURATION_MS, this.durationMs);
+		jsonObject.addProperty(PARAM_STATE, this.state.name());
+		jsonObject.addProperty(PARAM_FAILED, this.failed);
+		jsonObject.addProperty(PARAM_TIMED_OUT, this.timedOut);
+		return jsonObject;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%6d ms +%6d ms %-50s %s%s%s", this.startMs, this.durationMs, this.className,
+				this.timedOut ? "TIMED OUT " : "", this.failed ? "FAILED " : "", this.state);
+	}
+}
@@ -0,0 +1,23 @@
+package li.strolch.plc.core.hw;
+
+import li.strolch.plc.model.PlcAddress;
+
+/**
+ * A {@link PlcListener} for boolean addresses, which is notified without boxing the value, if the notification is
+ * performed through one of the primitive notification methods of the {@link Plc}
+ */
+public interface BooleanPlcListener extends PlcListener {
+
+	/**
+	 * Notifies the listener of the new value at the given address
+	 *
+	 * @param address the address at which the event was detected
+	 * @param value   the new value at the address
+	 */
+	void handleBooleanNotification(PlcAddress address, boolean value);
+
+	@Override
+	default void handleNotification(PlcAddress address, Object value) {
+		handleBooleanNotification(address, (Boolean) value);
+	}
+}
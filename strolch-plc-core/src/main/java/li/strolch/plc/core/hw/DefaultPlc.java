@@ -1,19 +1,21 @@
 package li.strolch.plc.core.hw;
 
+import li.strolch.plc.core.jfr.*;
 import li.strolch.plc.model.PlcAddress;
 import li.strolch.plc.model.PlcAddressKey;
 import li.strolch.plc.model.PlcAddressType;
 import li.strolch.utils.ExecutorPool;
-import li.strolch.utils.collections.MapOfLists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toSet;
+import static li.strolch.model.StrolchValueType.INTEGER;
+import static li.strolch.plc.core.hw.NotificationRingBuffer.*;
 
 public class DefaultPlc implements Plc {
 
@@ -22,27 +24,73 @@ public class DefaultPlc implements Plc {
 	public static final String VIRTUAL_STRING = "VirtualString";
 	public static final String VIRTUAL_INTEGER = "VirtualInteger";
 
-	private final Map<String, PlcAddress> notificationMappings;
+	private static final PlcListener[] NO_LISTENERS = new PlcListener[0];
+	private static final PlcCycleLogic[] NO_CYCLE_LOGICS = new PlcCycleLogic[0];
+	private static final int DEFAULT_NOTIFICATION_BUFFER_SIZE = 4096;
+	private static final int DEFAULT_FLIGHT_RECORDER_SIZE = 16384;
+	private static final long DEFAULT_CONNECT_TIMEOUT_MS = 30000L;
+
+	private final Map<String, Integer> notificationMappings;
+	private final Map<PlcAddress, Integer> addressIds;
 	private final Map<String, PlcConnection> connections;
 	private final Map<String, PlcConnection> connectionsByAddress;
-	private final MapOfLists<PlcAddress, PlcListener> listeners;
 
-	private final LinkedBlockingQueue<NotificationTask> notificationTasks;
+	/**
+	 * The registered {@link PlcListener PlcListeners} indexed by the id of the {@link PlcAddress}. This array and the
+	 * {@link Registration Registrations} in it are never modified once published: registration changes build a new
+	 * snapshot while holding the lock on this instance and publish it with a single volatile write, so that the
+	 * notification path reads a consistent snapshot without copying or locking
+	 */
+	private volatile Registration[] registrations;
+	private int nextAddressId;
+
+	private volatile NotificationLane[] notificationLanes;
+	private int notificationBufferSize;
+	private NotificationOverflowPolicy overflowPolicy;
+	private NotificationWaitStrategy waitStrategy;
+
+	private volatile PlcFlightRecorder flightRecorder;
+	private final PlcLatencies latencies;
 
-	private PlcListener globalListener;
-	private PlcConnectionStateChangeListener connectionStateChangeListener;
+	/**
+	 * The ingest time of the notification currently being dispatched on this thread, or 0 if none
+	 */
+	private final ThreadLocal<long[]> ingestTime;
+
+	private volatile PlcListener globalListener;
+	private volatile PlcConnectionStateChangeListener connectionStateChangeListener;
 	private boolean verbose;
 
+	private long connectTimeoutMs;
+	private volatile List<PlcConnectionStartup> startupTimeline;
+
+	private long scanCycleNanos;
+	private volatile PlcCycleLogic[] cycleLogics;
+	private volatile PlcLiveInputs liveInputs;
+	private PlcScanCycleStats scanCycleStats;
+	private Future<?> scanCycleTask;
+
 	private ExecutorPool executorPool;
-	private Future<?> notificationsTask;
-	private boolean run;
+	private ExecutorService connectExecutor;
+	private volatile boolean run;
 
 	public DefaultPlc() {
-		this.notificationMappings = new HashMap<>();
-		this.listeners = new MapOfLists<>(true);
-		this.connections = new HashMap<>();
-		this.connectionsByAddress = new HashMap<>();
-		this.notificationTasks = new LinkedBlockingQueue<>();
+		this.notificationMappings = new ConcurrentHashMap<>();
+		this.addressIds = new ConcurrentHashMap<>();
+		this.registrations = new Registration[0];
+		this.connections = new ConcurrentHashMap<>();
+		this.connectionsByAddress = new ConcurrentHashMap<>();
+		this.notificationBufferSize = DEFAULT_NOTIFICATION_BUFFER_SIZE;
+		this.overflowPolicy = NotificationOverflowPolicy.Block;
+		this.waitStrategy = NotificationWaitStrategy.Blocking;
+		this.notificationLanes = new NotificationLane[0];
+		rebuildNotificationLanes(1);
+		this.flightRecorder = new PlcFlightRecorder(DEFAULT_FLIGHT_RECORDER_SIZE, this::getAddressKey);
+		this.latencies = new PlcLatencies(this::getAddressKey);
+		this.ingestTime = ThreadLocal.withInitial(() -> new long[1]);
+		this.connectTimeoutMs = DEFAULT_CONNECT_TIMEOUT_MS;
+		this.startupTimeline = List.of();
+		this.cycleLogics = NO_CYCLE_LOGICS;
 	}
 
 	@Override
@@ -50,6 +98,130 @@ public class DefaultPlc implements Plc {
 		this.verbose = verbose;
 	}
 
+	@Override
+	public void setNotificationLanes(int nrOfLanes) {
+		if (nrOfLanes < 1)
+			throw new IllegalArgumentException("At least one notification lane is required, not " + nrOfLanes);
+		if (this.run)
+			throw new IllegalStateException("Can not change the notification lanes while started!");
+		if (nrOfLanes == this.notificationLanes.length)
+			return;
+
+		rebuildNotificationLanes(nrOfLanes);
+		logger.info("Using {} notification lanes", nrOfLanes);
+	}
+
+	@Override
+	public void setNotificationBuffer(int bufferSize, NotificationOverflowPolicy overflowPolicy,
+			NotificationWaitStrategy waitStrategy) {
+		if (bufferSize < 2)
+			throw new IllegalArgumentException("The notification buffer size must be at least 2, not " + bufferSize);
+		if (this.run)
+			throw new IllegalStateException("Can not change the notification buffer while started!");
+
+		this.notificationBufferSize = bufferSize;
+		this.overflowPolicy = overflowPolicy;
+		this.waitStrategy = waitStrategy;
+		rebuildNotificationLanes(this.notificationLanes.length);
+		logger.info("Using notification buffers of size {} with overflow policy {} and wait strategy {}", bufferSize,
+				overflowPolicy, waitStrategy);
+	}
+
+	/**
+	 * Replaces the notification lanes with new lanes, so that the buffers are sized for all currently known addresses.
+	 * Any notifications which were queued before the PLC was started are moved to the new lanes
+	 */
+	private void rebuildNotificationLanes(int nrOfLanes) {
+		NotificationLane[] notificationLanes = new NotificationLane[nrOfLanes];
+		for (int i = 0; i < nrOfLanes; i++) {
+			notificationLanes[i] = new NotificationLane(i, this.nextAddressId, null);
+		}
+
+		Handler mover = (addressId, kind, payload, reference, timestamp) -> notificationLanes[addressId
+				% nrOfLanes].buffer.offer(addressId, kind, payload, reference, timestamp);
+		for (NotificationLane lane : this.notificationLanes) {
+			lane.buffer.setConsumer(Thread.currentThread());
+			while (lane.buffer.poll(mover)) {
+				// moved
+			}
+		}
+
+		this.notificationLanes = notificationLanes;
+	}
+
+	/**
+	 * Replaces the running notification lanes with larger ones if addresses were added beyond their capacity, so that
+	 * the added addresses can be conflated as well. Each new lane takes over from the lane it replaces, once that lane
+	 * has delivered its current notification, and first delivers what is left in the buffer of the replaced lane, so
+	 * that the order of notifications is kept. Must be called while holding the lock on this instance
+	 */
+	private void growNotificationLanes() {
+		NotificationLane[] current = this.notificationLanes;
+		int maxAddresses = current[0].buffer.getMaxAddresses();
+		if (maxAddresses >= this.nextAddressId)
+			return;
+
+		maxAddresses = Math.max(this.nextAddressId, maxAddresses * 2);
+		NotificationLane[] notificationLanes = new NotificationLane[current.length];
+		for (int i = 0; i < current.length; i++) {
+			notificationLanes[i] = new NotificationLane(i, maxAddresses, current[i]);
+		}
+
+		this.notificationLanes = notificationLanes;
+		for (NotificationLane lane : current) {
+			lane.retire();
+		}
+		for (NotificationLane lane : notificationLanes) {
+			lane.start();
+		}
+		logger.info("Grew notification lanes to {} addresses", maxAddresses);
+	}
+
+	@Override
+	public void setFlightRecorderSize(int nrOfRecords) {
+		if (nrOfRecords < 0)
+			throw new IllegalArgumentException("The flight recorder size must not be negative, not " + nrOfRecords);
+		PlcFlightRecorder flightRecorder = this.flightRecorder;
+		if (flightRecorder != null && flightRecorder.getCapacity() == nrOfRecords)
+			return;
+
+		this.flightRecorder = nrOfRecords == 0 ? null : new PlcFlightRecorder(nrOfRecords, this::getAddressKey);
+		logger.info("Flight recorder size is {} records", nrOfRecords);
+	}
+
+	@Override
+	public PlcFlightRecorder getFlightRecorder() {
+		return this.flightRecorder;
+	}
+
+	@Override
+	public PlcLatencies getLatencies() {
+		return this.latencies;
+	}
+
+	@Override
+	public long getIngestTime() {
+		long ingestTime = this.ingestTime.get()[0];
+		return ingestTime == 0L ? System.nanoTime() : ingestTime;
+	}
+
+	private String getAddressKey(int addressId) {
+		Registration[] registrations = this.registrations;
+		if (addressId < 0 || addressId >= registrations.length)
+			return "unknown-" + addressId;
+		return registrations[addressId].address().toKey();
+	}
+
+	@Override
+	public int[] getNotificationQueueDepths() {
+		NotificationLane[] notificationLanes = this.notificationLanes;
+		int[] depths = new int[notificationLanes.length];
+		for (int i = 0; i < notificationLanes.length; i++) {
+			depths[i] = notificationLanes[i].buffer.size();
+		}
+		return depths;
+	}
+
 	@Override
 	public void setGlobalListener(PlcListener listener) {
 		this.globalListener = listener;
@@ -57,8 +229,12 @@ public class DefaultPlc implements Plc {
 
 	@Override
 	public void notifyConnectionStateChanged(PlcConnection connection) {
-		if (this.connectionStateChangeListener != null)
-			this.connectionStateChangeListener.notifyStateChange(connection);
+		PlcFlightRecorder flightRecorder = this.flightRecorder;
+		if (flightRecorder != null)
+			flightRecorder.recordConnectionState(connection.getId(), connection.getState());
+		PlcConnectionStateChangeListener listener = this.connectionStateChangeListener;
+		if (listener != null)
+			listener.notifyStateChange(connection);
 	}
 
 	@Override
@@ -68,7 +244,12 @@ public class DefaultPlc implements Plc {
 
 	@Override
 	public Stream<PlcAddressKey> getAddressKeysStream() {
-		return this.notificationMappings.values().stream().map(PlcAddress::toPlcAddressKey);
+		Registration[] registrations = this.registrations;
+		return this.notificationMappings
+				.values()
+				.stream()
+				.filter(id -> id < registrations.length)
+				.map(id -> registrations[id].address().toPlcAddressKey());
 	}
 
 	@Override
@@ -77,38 +258,202 @@ public class DefaultPlc implements Plc {
 	}
 
 	@Override
-	public void register(PlcAddress address, PlcListener listener) {
-		this.listeners.addElement(address, listener);
+	public synchronized void register(PlcAddress address, PlcListener listener) {
+		int id = getOrCreateAddressId(address);
+		Registration registration = this.registrations[id];
+		PlcListener[] listeners = Arrays.copyOf(registration.listeners(), registration.listeners().length + 1);
+		listeners[listeners.length - 1] = listener;
+		publish(id, new Registration(registration.address(), listeners));
 		logger.info("{}: {}", address.toKeyAddress(), listener.getClass().getSimpleName());
 	}
 
 	@Override
-	public void unregister(PlcAddress address, PlcListener listener) {
-		if (this.listeners.removeElement(address, listener)) {
-			logger.info("{}: {}", address, listener.getClass().getName());
-		} else {
+	public synchronized void unregister(PlcAddress address, PlcListener listener) {
+		Integer id = this.addressIds.get(address);
+		Registration registration = id == null ? null : this.registrations[id];
+		int index = registration == null ? -1 : indexOf(registration.listeners(), listener);
+		if (index == -1) {
 			logger.warn("Listener not registered with key {}: {}", address.toKeyAddress(),
 					listener.getClass().getSimpleName());
+			return;
 		}
+
+		PlcListener[] current = registration.listeners();
+		PlcListener[] listeners = new PlcListener[current.length - 1];
+		System.arraycopy(current, 0, listeners, 0, index);
+		System.arraycopy(current, index + 1, listeners, index, current.length - index - 1);
+		publish(id, new Registration(registration.address(), listeners));
+		logger.info("{}: {}", address, listener.getClass().getName());
+	}
+
+	private static int indexOf(PlcListener[] listeners, PlcListener listener) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the dense id of the given {@link PlcAddress}, assigning the next free id if the address has not been
+	 * seen before. Addresses are equal by resource and action, thus a telegram shares the id of the notification with
+	 * the same key. Must be called while holding the lock on this instance
+	 */
+	private int getOrCreateAddressId(PlcAddress address) {
+		Integer id = this.addressIds.get(address);
+		if (id != null)
+			return id;
+
+		int newId = this.nextAddressId++;
+		publish(newId, new Registration(address, NO_LISTENERS));
+		this.addressIds.put(address, newId);
+		return newId;
+	}
+
+	/**
+	 * Publishes a new snapshot of the registrations with the given registration. Must be called while holding the lock
+	 * on this instance
+	 */
+	private void publish(int id, Registration registration) {
+		Registration[] current = this.registrations;
+		Registration[] registrations = Arrays.copyOf(current, Math.max(current.length, id + 1));
+		registrations[id] = registration;
+		this.registrations = registrations;
 	}
 
 	@Override
 	public void syncNotify(String address, Object value) {
-		doNotify(address, value);
+		Integer id = this.notificationMappings.get(address);
+		if (id == null) {
+			logger.warn("No mapping to PlcAddress for hwAddress {}", address);
+			return;
+		}
+
+		dispatch(id, KIND_OBJECT, 0L, value, System.nanoTime());
 	}
 
 	@Override
 	public void queueNotify(String address, Object value) {
-		this.notificationTasks.add(new NotificationTask(address, value));
+		Integer id = this.notificationMappings.get(address);
+		if (id == null) {
+			logger.warn("No mapping to PlcAddress for hwAddress {}", address);
+			return;
+		}
+
+		long ingestTime = System.nanoTime();
+		if (value instanceof Boolean b)
+			queueNotify(id, KIND_BOOLEAN, b ? 1L : 0L, null, ingestTime);
+		else if (value instanceof Integer i)
+			queueNotify(id, KIND_INTEGER, i, null, ingestTime);
+		else if (value instanceof Long l)
+			queueNotify(id, KIND_LONG, l, null, ingestTime);
+		else
+			queueNotify(id, KIND_OBJECT, 0L, value, ingestTime);
 	}
 
-	private void doNotify(String address, Object value) {
-		PlcAddress plcAddress = this.notificationMappings.get(address);
-		if (plcAddress == null) {
-			logger.warn("No mapping to PlcAddress for hwAddress {}", address);
+	@Override
+	public int getAddressId(String address) {
+		Integer id = this.notificationMappings.get(address);
+		return id == null ? -1 : id;
+	}
+
+	@Override
+	public int getAddressId(PlcAddress address) {
+		Integer id = this.addressIds.get(address);
+		return id == null ? -1 : id;
+	}
+
+	@Override
+	public void notifyBoolean(int addressId, boolean value, long ingestTime) {
+		if (isUnknownAddressId(addressId))
+			return;
+		dispatch(addressId, KIND_BOOLEAN, value ? 1L : 0L, null, ingestTime);
+	}
+
+	@Override
+	public void notifyLong(int addressId, long value, long ingestTime) {
+		if (isUnknownAddressId(addressId))
+			return;
+		dispatch(addressId, getLongKind(addressId), value, null, ingestTime);
+	}
+
+	@Override
+	public void queueNotifyBoolean(int addressId, boolean value, long ingestTime) {
+		if (isUnknownAddressId(addressId))
 			return;
+		queueNotify(addressId, KIND_BOOLEAN, value ? 1L : 0L, null, ingestTime);
+	}
+
+	@Override
+	public void queueNotifyLong(int addressId, long value, long ingestTime) {
+		if (isUnknownAddressId(addressId))
+			return;
+		queueNotify(addressId, getLongKind(addressId), value, null, ingestTime);
+	}
+
+	/**
+	 * Connections notify with the ids they resolved with {@link #getAddressId(String)}, which is -1 for unmapped
+	 * hardware addresses, thus unknown ids are ignored the same as unmapped hardware addresses
+	 */
+	private boolean isUnknownAddressId(int addressId) {
+		if (addressId >= 0 && addressId < this.registrations.length)
+			return false;
+		logger.warn("No mapping to PlcAddress for address id {}", addressId);
+		return true;
+	}
+
+	private byte getLongKind(int addressId) {
+		return this.registrations[addressId].address().valueType == INTEGER ? KIND_INTEGER : KIND_LONG;
+	}
+
+	private void queueNotify(int id, byte kind, long payload, Object reference, long ingestTime) {
+
+		// notifications for the same address always use the same lane, thus keeping their order
+		NotificationLane[] notificationLanes = this.notificationLanes;
+		int lane = id % notificationLanes.length;
+		NotificationRingBuffer buffer = notificationLanes[lane].buffer;
+
+		// conflating addresses only keep their latest value until it is delivered
+		PlcAddress plcAddress = this.registrations[id].address();
+		if (plcAddress.conflate)
+			buffer.offerLatest(id, kind, payload, reference, ingestTime);
+		else
+			buffer.offer(id, kind, payload, reference, ingestTime);
+
+		if (PlcEvents.isEnqueuedEnabled()) {
+			PlcNotificationEnqueuedEvent event = new PlcNotificationEnqueuedEvent();
+			event.address = plcAddress.toKey();
+			event.lane = lane;
+			event.conflating = plcAddress.conflate;
+			event.queueDepth = buffer.size();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Notifies the listeners of the given address, making the ingest time available to them through
+	 * {@link #getIngestTime()}, and records the latency of the {@link PlcLatencyStage#Dispatch} stage
+	 */
+	private void dispatch(int id, byte kind, long payload, Object reference, long ingestTime) {
+		long[] current = this.ingestTime.get();
+		long previous = current[0];
+		current[0] = ingestTime;
+		try {
+			switch (kind) {
+				case KIND_BOOLEAN -> doNotifyBoolean(id, payload != 0L);
+				case KIND_INTEGER -> doNotifyLong(id, payload, true);
+				case KIND_LONG -> doNotifyLong(id, payload, false);
+				default -> doNotify(id, reference);
+			}
+		} finally {
+			current[0] = previous;
 		}
+		this.latencies.record(PlcLatencyStage.Dispatch, id, ingestTime);
+	}
 
+	private void doNotify(int id, Object value) {
+		Registration registration = this.registrations[id];
+		PlcAddress plcAddress = registration.address();
 		if (plcAddress.inverted) {
 			if (value instanceof Boolean)
 				value = !((boolean) value);
@@ -117,52 +462,133 @@ public class DefaultPlc implements Plc {
 						value.getClass());
 		}
 
-		doNotify(plcAddress, value, true, true);
+		PlcFlightRecorder flightRecorder = this.flightRecorder;
+		if (flightRecorder != null)
+			flightRecorder.recordNotification(id, value);
+		recordInput(id, value);
+
+		doNotify(plcAddress, registration.listeners(), value, true, true);
 	}
 
-	private void doNotify(PlcAddress plcAddress, Object value, boolean catchExceptions, boolean notifyGlobalListener) {
+	private void doNotifyBoolean(int id, boolean value) {
+		Registration registration = this.registrations[id];
+		PlcAddress plcAddress = registration.address();
+		if (plcAddress.inverted)
+			value = !value;
 
-		List<PlcListener> listeners = this.listeners.getList(plcAddress);
-		if (listeners == null || listeners.isEmpty()) {
+		PlcFlightRecorder flightRecorder = this.flightRecorder;
+		if (flightRecorder != null)
+			flightRecorder.recordNotification(id, value);
+		recordInput(id, value);
+
+		PlcListener[] listeners = registration.listeners();
+		if (listeners.length == 0) {
 			logger.warn("No listener for update {}: {}", plcAddress.toKey(), value);
 		} else {
-			listeners = new ArrayList<>(listeners);
 			for (PlcListener listener : listeners) {
 				try {
 					if (this.verbose)
 						logger.info("Notifying {}: {} @ {}", plcAddress.toKey(), value, listener);
-					listener.handleNotification(plcAddress, value);
+					PlcListenerEvent event = PlcEvents.beginListener();
+					if (listener instanceof BooleanPlcListener booleanListener)
+						booleanListener.handleBooleanNotification(plcAddress, value);
+					else
+						listener.handleNotification(plcAddress, value);
+					if (event != null)
+						event.end(plcAddress.toKey(), listener.getClass());
 				} catch (Exception e) {
-					if (catchExceptions) {
-						logger.error("Failed to notify listener {} for address {}", listener, plcAddress, e);
+					logger.error("Failed to notify listener {} for address {}", listener, plcAddress, e);
+				}
+			}
+		}
+
+		PlcListener globalListener = this.globalListener;
+		if (globalListener != null)
+			globalListener.handleNotification(plcAddress, value);
+	}
+
+	/**
+	 * Notifies the listeners of the given integer or long value. The value is only boxed for listeners which are not a
+	 * {@link LongPlcListener}, as an {@link Integer} or {@link Long}, depending on the given flag
+	 */
+	private void doNotifyLong(int id, long value, boolean integer) {
+		Registration registration = this.registrations[id];
+		PlcAddress plcAddress = registration.address();
+		if (plcAddress.inverted)
+			logger.error("{} is marked as inverted, but the value is not a boolean, but a {}", plcAddress,
+					integer ? Integer.class : Long.class);
+
+		PlcFlightRecorder flightRecorder = this.flightRecorder;
+		if (flightRecorder != null)
+			flightRecorder.recordNotification(id, value, integer);
+		recordInput(id, value);
+
+		Object boxed = null;
+		PlcListener[] listeners = registration.listeners();
+		if (listeners.length == 0) {
+			logger.warn("No listener for update {}: {}", plcAddress.toKey(), value);
+		} else {
+			for (PlcListener listener : listeners) {
+				try {
+					if (this.verbose)
+						logger.info("Notifying {}: {} @ {}", plcAddress.toKey(), value, listener);
+					PlcListenerEvent event = PlcEvents.beginListener();
+					if (listener instanceof LongPlcListener longListener) {
+						longListener.handleLongNotification(plcAddress, value);
 					} else {
-						throw e;
+						if (boxed == null)
+							boxed = box(value, integer);
+						listener.handleNotification(plcAddress, boxed);
 					}
+					if (event != null)
+						event.end(plcAddress.toKey(), listener.getClass());
+				} catch (Exception e) {
+					logger.error("Failed to notify listener {} for address {}", listener, plcAddress, e);
 				}
 			}
 		}
 
-		if (notifyGlobalListener && this.globalListener != null)
-			this.globalListener.handleNotification(plcAddress, value);
+		PlcListener globalListener = this.globalListener;
+		if (globalListener != null) {
+			if (boxed == null)
+				boxed = box(value, integer);
+			globalListener.handleNotification(plcAddress, boxed);
+		}
 	}
 
-	private void doNotifications() {
-		logger.info("Notifications Task running...");
-		while (this.run) {
-			NotificationTask task = null;
-			try {
-				task = this.notificationTasks.take();
-				doNotify(task.address, task.value);
-			} catch (InterruptedException e) {
-				logger.error("Interrupted!");
-			} catch (Exception e) {
-				if (task != null)
-					logger.error("Failed to perform notification for {}: {}", task.address, task.value, e);
-				else
-					logger.error("Failed to get notification task", e);
+	private static Object box(long value, boolean integer) {
+		if (integer)
+			return (int) value;
+		return value;
+	}
+
+	private void doNotify(PlcAddress plcAddress, PlcListener[] listeners, Object value, boolean catchExceptions,
+			boolean notifyGlobalListener) {
+
+		if (listeners.length == 0) {
+			logger.warn("No listener for update {}: {}", plcAddress.toKey(), value);
+		} else {
+			for (PlcListener listener : listeners) {
+				try {
+					if (this.verbose)
+						logger.info("Notifying {}: {} @ {}", plcAddress.toKey(), value, listener);
+					PlcListenerEvent event = PlcEvents.beginListener();
+					listener.handleNotification(plcAddress, value);
+					if (event != null)
+						event.end(plcAddress.toKey(), listener.getClass());
+				} catch (Exception e) {
+					if (catchExceptions) {
+						logger.error("Failed to notify listener {} for address {}", listener, plcAddress, e);
+					} else {
+						throw e;
+					}
+				}
 			}
 		}
-		logger.info("Notifications Task stopped.");
+
+		PlcListener globalListener = this.globalListener;
+		if (notifyGlobalListener && globalListener != null)
+			globalListener.handleNotification(plcAddress, value);
 	}
 
 	@Override
@@ -177,18 +603,92 @@ public class DefaultPlc implements Plc {
 
 	@Override
 	public void send(PlcAddress plcAddress, boolean catchExceptions, boolean notifyGlobalListener) {
-		logger.info("Sending {}: {} (default)", plcAddress.toKey(), plcAddress.defaultValue);
-		if (!isVirtual(plcAddress))
-			validateConnection(plcAddress).send(plcAddress.address, plcAddress.defaultValue);
-		doNotify(plcAddress, plcAddress.defaultValue, catchExceptions, notifyGlobalListener);
+		if (this.verbose)
+			logger.info("Sending {}: {} (default)", plcAddress.toKey(), plcAddress.defaultValue);
+		doSend(plcAddress, plcAddress.defaultValue, catchExceptions, notifyGlobalListener);
 	}
 
 	@Override
 	public void send(PlcAddress plcAddress, Object value, boolean catchExceptions, boolean notifyGlobalListener) {
-		logger.info("Sending {}: {}", plcAddress.toKey(), value);
-		if (!isVirtual(plcAddress))
-			validateConnection(plcAddress).send(plcAddress.address, value);
-		doNotify(plcAddress, value, catchExceptions, notifyGlobalListener);
+		if (this.verbose)
+			logger.info("Sending {}: {}", plcAddress.toKey(), value);
+		doSend(plcAddress, value, catchExceptions, notifyGlobalListener);
+	}
+
+	@Override
+	public void send(Map<PlcAddress, Object> values) {
+		send(values, true, true);
+	}
+
+	@Override
+	public void send(Map<PlcAddress, Object> values, boolean catchExceptions, boolean notifyGlobalListener) {
+		if (this.verbose)
+			logger.info("Sending batch of {} values", values.size());
+
+		int[] ids = new int[values.size()];
+		Map<PlcConnection, Map<String, Object>> valuesByConnection = new LinkedHashMap<>();
+
+		int i = 0;
+		PlcFlightRecorder flightRecorder = this.flightRecorder;
+		for (Map.Entry<PlcAddress, Object> entry : values.entrySet()) {
+			PlcAddress plcAddress = entry.getKey();
+			Object value = entry.getValue();
+			if (this.verbose)
+				logger.info("Sending {}: {}", plcAddress.toKey(), value);
+
+			int id = resolveAddressId(plcAddress);
+			ids[i++] = id;
+			if (flightRecorder != null)
+				flightRecorder.recordSend(id, value);
+
+			if (!isVirtual(plcAddress)) {
+				PlcConnection connection = validateConnection(plcAddress);
+				valuesByConnection.computeIfAbsent(connection, c -> new LinkedHashMap<>()).put(plcAddress.address, value);
+			}
+		}
+
+		for (Map.Entry<PlcConnection, Map<String, Object>> entry : valuesByConnection.entrySet()) {
+			PlcConnection connection = entry.getKey();
+			PlcSendEvent event = PlcEvents.beginSend();
+			connection.sendBatch(entry.getValue());
+			if (event != null)
+				event.end(connection.getId(), "batch of " + entry.getValue().size());
+		}
+
+		i = 0;
+		for (Map.Entry<PlcAddress, Object> entry : values.entrySet()) {
+			doNotify(entry.getKey(), this.registrations[ids[i++]].listeners(), entry.getValue(), catchExceptions,
+					notifyGlobalListener);
+		}
+	}
+
+	private void doSend(PlcAddress plcAddress, Object value, boolean catchExceptions, boolean notifyGlobalListener) {
+		int id = resolveAddressId(plcAddress);
+
+		PlcFlightRecorder flightRecorder = this.flightRecorder;
+		if (flightRecorder != null)
+			flightRecorder.recordSend(id, value);
+
+		if (!isVirtual(plcAddress)) {
+			PlcConnection connection = validateConnection(plcAddress);
+			PlcSendEvent event = PlcEvents.beginSend();
+			connection.send(plcAddress.address, value);
+			if (event != null)
+				event.end(connection.getId(), plcAddress.toKey());
+		}
+		doNotify(plcAddress, this.registrations[id].listeners(), value, catchExceptions, notifyGlobalListener);
+	}
+
+	/**
+	 * Returns the id of the given address, assigning an id to telegrams on their first send
+	 */
+	private int resolveAddressId(PlcAddress plcAddress) {
+		Integer id = this.addressIds.get(plcAddress);
+		if (id != null)
+			return id;
+		synchronized (this) {
+			return getOrCreateAddressId(plcAddress);
+		}
 	}
 
 	private PlcConnection validateConnection(PlcAddress plcAddress) {
@@ -220,17 +720,262 @@ public class DefaultPlc implements Plc {
 	@Override
 	public void start() {
 		this.executorPool = new ExecutorPool();
+
+		// connects may block uninterruptibly, thus they run on their own daemon threads
+		this.connectExecutor = Executors.newCachedThreadPool(
+				Thread.ofPlatform().name("PlcConnect-", 0).daemon().factory());
+
+		// size the buffers for all addresses registered by now, so that all of them may be conflated
+		if (this.notificationLanes[0].buffer.getMaxAddresses() < this.nextAddressId)
+			rebuildNotificationLanes(this.notificationLanes.length);
+		if (this.liveInputs != null)
+			this.liveInputs.ensureCapacity(this.nextAddressId);
+
 		this.run = true;
-		this.notificationsTask = this.executorPool.getSingleThreadExecutor("PlcNotify").submit(this::doNotifications);
-		this.connections.values().stream().filter(PlcConnection::isAutoConnect).forEach(PlcConnection::connect);
+		for (NotificationLane lane : this.notificationLanes) {
+			lane.start();
+		}
+
+		List<PlcConnectionStartup> timeline = connect(this.connections.values());
+		StringBuilder sb = new StringBuilder("Connected ").append(timeline.size()).append(" connections:");
+		timeline.forEach(startup -> sb.append("\n  ").append(startup));
+		logger.info(sb.toString());
+		this.startupTimeline = timeline;
+
+		if (this.scanCycleNanos > 0L)
+			this.scanCycleTask = this.executorPool.getSingleThreadExecutor("PlcScanCycle")
+					.submit(this::runScanCycles);
+	}
+
+	@Override
+	public void setConnectTimeout(long connectTimeoutMs) {
+		if (connectTimeoutMs < 0L)
+			throw new IllegalArgumentException("The connect timeout must not be negative, not " + connectTimeoutMs);
+		this.connectTimeoutMs = connectTimeoutMs;
+	}
+
+	@Override
+	public List<PlcConnectionStartup> getStartupTimeline() {
+		return this.startupTimeline;
+	}
+
+	@Override
+	public void setScanCycleTime(long cycleTimeMs) {
+		if (cycleTimeMs < 0L)
+			throw new IllegalArgumentException("The scan cycle time must not be negative, not " + cycleTimeMs);
+		if (this.run)
+			throw new IllegalStateException("Can not change the scan cycle while started!");
+
+		this.scanCycleNanos = TimeUnit.MILLISECONDS.toNanos(cycleTimeMs);
+		if (cycleTimeMs == 0L) {
+			this.liveInputs = null;
+			this.scanCycleStats = null;
+		} else {
+			this.liveInputs = new PlcLiveInputs(Math.max(64, this.nextAddressId));
+			this.scanCycleStats = new PlcScanCycleStats(cycleTimeMs);
+			logger.info("Using a scan cycle of {}ms", cycleTimeMs);
+		}
+	}
+
+	@Override
+	public PlcScanCycleStats getScanCycleStats() {
+		return this.scanCycleStats;
+	}
+
+	@Override
+	public synchronized void registerCycleLogic(PlcCycleLogic logic) {
+		PlcCycleLogic[] cycleLogics = Arrays.copyOf(this.cycleLogics, this.cycleLogics.length + 1);
+		cycleLogics[cycleLogics.length - 1] = logic;
+		this.cycleLogics = cycleLogics;
+	}
+
+	@Override
+	public synchronized void unregisterCycleLogic(PlcCycleLogic logic) {
+		this.cycleLogics = Arrays.stream(this.cycleLogics).filter(l -> l != logic).toArray(PlcCycleLogic[]::new);
+	}
+
+	/**
+	 * Records the value of a notification in the live input image, from which each scan cycle takes its snapshot
+	 */
+	private void recordInput(int id, boolean value) {
+		PlcLiveInputs liveInputs = this.liveInputs;
+		if (liveInputs != null)
+			liveInputs.setBoolean(id, value);
+	}
+
+	private void recordInput(int id, long value) {
+		PlcLiveInputs liveInputs = this.liveInputs;
+		if (liveInputs != null)
+			liveInputs.setLong(id, value);
+	}
+
+	private void recordInput(int id, Object value) {
+		if (value instanceof Boolean b) {
+			recordInput(id, (boolean) b);
+		} else if (value instanceof Integer i) {
+			recordInput(id, (long) i);
+		} else if (value instanceof Long l) {
+			recordInput(id, (long) l);
+		} else {
+			PlcLiveInputs liveInputs = this.liveInputs;
+			if (liveInputs != null)
+				liveInputs.setObject(id, value);
+		}
+	}
+
+	/**
+	 * Executes the scan cycles at the fixed cycle time. A cycle which overruns its cycle time skips the missed
+	 * cycles, instead of executing them back to back
+	 */
+	private void runScanCycles() {
+		logger.info("Scan cycle running with a cycle time of {}ms", this.scanCycleStats.getCycleTimeMs());
+		PlcProcessImage inputs = new PlcProcessImage(this.liveInputs.getCapacity(), this::getAddressId);
+		PlcProcessImage outputs = new PlcProcessImage(this.liveInputs.getCapacity(), this::resolveAddressId);
+
+		long cycleNanos = this.scanCycleNanos;
+		long next = System.nanoTime();
+		while (this.run) {
+			long now;
+			while ((now = System.nanoTime()) < next) {
+				LockSupport.parkNanos(next - now);
+				if (Thread.interrupted()) {
+					logger.info("Scan cycle stopped.");
+					return;
+				}
+			}
+
+			try {
+				scanCycle(inputs, outputs);
+			} catch (Exception e) {
+				logger.error("Failed to execute scan cycle", e);
+			}
+
+			long end = System.nanoTime();
+			this.scanCycleStats.record(now - next, end - now, end - next > cycleNanos);
+			next += ((end - next) / cycleNanos + 1L) * cycleNanos;
+		}
+		logger.info("Scan cycle stopped.");
+	}
+
+	private void scanCycle(PlcProcessImage inputs, PlcProcessImage outputs) {
+		this.liveInputs.copyTo(inputs);
+
+		for (PlcCycleLogic logic : this.cycleLogics) {
+			try {
+				logic.execute(inputs, outputs);
+			} catch (Exception e) {
+				logger.error("Failed to execute cycle logic {}", logic, e);
+			}
+		}
+
+		Map<PlcAddress, Object> changed = outputs.drainChanged();
+		if (changed != null)
+			send(changed, true, true);
+	}
+
+	/**
+	 * Connects the given auto connect connections in parallel, except connections on the same bus, which are connected
+	 * one after another in the given order. Waits until all connections are connected, failed or timed out. Once a
+	 * connection timed out, its connect may still be accessing the bus, thus the remaining connections on the same bus
+	 * are not connected, but marked as failed
+	 *
+	 * @return the results of the connects, ordered by their start
+	 */
+	private List<PlcConnectionStartup> connect(Collection<PlcConnection> connections) {
+		long start = System.nanoTime();
+
+		Map<String, List<PlcConnection>> connectionsByBus = new LinkedHashMap<>();
+		for (PlcConnection connection : connections) {
+			if (!connection.isAutoConnect())
+				continue;
+			String bus = connection.getBus() == null ? "connection:" + connection.getId() : connection.getBus();
+			connectionsByBus.computeIfAbsent(bus, b -> new ArrayList<>()).add(connection);
+		}
+
+		ExecutorService executor = this.executorPool.getExecutor("PlcConnectBus");
+		List<PlcConnectionStartup> timeline = Collections.synchronizedList(new ArrayList<>());
+		List<Future<?>> tasks = new ArrayList<>();
+		for (List<PlcConnection> busConnections : connectionsByBus.values()) {
+			tasks.add(executor.submit(() -> {
+				PlcConnection hung = null;
+				for (PlcConnection connection : busConnections) {
+					if (hung != null) {
+						timeline.add(failConnect(connection, hung, start));
+						continue;
+					}
+					PlcConnectionStartup startup = connect(connection, start);
+					timeline.add(startup);
+					if (startup.timedOut())
+						hung = connection;
+				}
+			}));
+		}
+
+		for (Future<?> task : tasks) {
+			try {
+				task.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				logger.error("Interrupted while connecting connections!");
+				break;
+			} catch (ExecutionException e) {
+				logger.error("Failed to connect connections", e.getCause());
+			}
+		}
+
+		List<PlcConnectionStartup> result = new ArrayList<>(timeline);
+		result.sort(Comparator.comparingLong(PlcConnectionStartup::startMs));
+		return result;
+	}
+
+	private PlcConnectionStartup connect(PlcConnection connection, long start) {
+		long connectStart = System.nanoTime();
+		boolean timedOut = false;
+		Future<Boolean> task = this.connectExecutor.submit(connection::connect);
+		try {
+			if (this.connectTimeoutMs == 0L)
+				task.get();
+			else
+				task.get(this.connectTimeoutMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			timedOut = true;
+			task.cancel(true);
+			logger.error("Connection {} did not connect within {}ms!", connection.getId(), this.connectTimeoutMs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			task.cancel(true);
+		} catch (ExecutionException e) {
+			logger.error("Failed to connect connection {}", connection.getId(), e.getCause());
+		}
+
+		long end = System.nanoTime();
+		return new PlcConnectionStartup(connection.getId(), connection.getBus(),
+				TimeUnit.NANOSECONDS.toMillis(connectStart - start), TimeUnit.NANOSECONDS.toMillis(end - connectStart),
+				connection.getState(), connection.getStateMsg(), timedOut);
+	}
+
+	private PlcConnectionStartup failConnect(PlcConnection connection, PlcConnection hung, long start) {
+		connection.handleBrokenConnection(
+				"Not connected, as connection " + hung.getId() + " on bus " + connection.getBus() + " is hanging!",
+				null);
+		long now = System.nanoTime();
+		return new PlcConnectionStartup(connection.getId(), connection.getBus(),
+				TimeUnit.NANOSECONDS.toMillis(now - start), 0L, connection.getState(), connection.getStateMsg(), false);
 	}
 
 	@Override
 	public void stop() {
 		this.run = false;
-		if (this.notificationsTask != null)
-			this.notificationsTask.cancel(true);
+		for (NotificationLane lane : this.notificationLanes) {
+			lane.stop();
+		}
+		if (this.scanCycleTask != null)
+			this.scanCycleTask.cancel(true);
+		this.scanCycleTask = null;
 		this.connections.values().forEach(PlcConnection::disconnect);
+		if (this.connectExecutor != null)
+			this.connectExecutor.shutdownNow();
+		this.connectExecutor = null;
 		if (this.executorPool != null)
 			this.executorPool.destroy();
 	}
@@ -252,7 +997,7 @@ public class DefaultPlc implements Plc {
 	}
 
 	@Override
-	public void registerNotificationMapping(PlcAddress address) {
+	public synchronized void registerNotificationMapping(PlcAddress address) {
 
 		boolean virtual = isVirtual(address);
 		if (virtual)
@@ -263,12 +1008,78 @@ public class DefaultPlc implements Plc {
 		if (address.type != PlcAddressType.Notification)
 			throw new IllegalArgumentException("Key must be of type " + PlcAddressType.Notification + ": " + address);
 
-		PlcAddress replaced = this.notificationMappings.put(address.address, address);
+		Integer replaced = this.notificationMappings.get(address.address);
 		if (replaced != null)
-			throw new IllegalArgumentException(
-					"Replaced mapping for address " + address.address + " for key " + replaced + " with " + address);
+			throw new IllegalArgumentException("Replaced mapping for address "
+					+ address.address
+					+ " for key "
+					+ this.registrations[replaced].address()
+					+ " with "
+					+ address);
+
+		// the notification address replaces any telegram address which was registered with the same key
+		int id = getOrCreateAddressId(address);
+		publish(id, new Registration(address, this.registrations[id].listeners()));
+		this.notificationMappings.put(address.address, id);
 
-		logger.info("Registered {}", address);
+		logger.info("Registered {} with id {}", address, id);
+	}
+
+	@Override
+	public void reconfigure(Collection<String> removedConnections, Collection<PlcConnection> addedConnections,
+			Collection<PlcAddress> removedAddresses, Collection<PlcAddress> addedAddresses) {
+
+		List<PlcConnection> disconnect = new ArrayList<>();
+		Set<PlcConnection> refresh = new HashSet<>();
+		synchronized (this) {
+			Set<String> addedKeys = addedAddresses.stream().map(PlcAddress::toKey).collect(toSet());
+			for (PlcAddress address : removedAddresses) {
+				Integer id = this.addressIds.get(address);
+				if (id == null)
+					continue;
+				if (this.notificationMappings.remove(address.address, id))
+					logger.info("Unregistered {} with id {}", address, id);
+
+				// a deleted address keeps its id, but its listeners are released, changed addresses keep them
+				if (!addedKeys.contains(address.toKey()))
+					publish(id, new Registration(this.registrations[id].address(), NO_LISTENERS));
+			}
+
+			for (String connectionId : removedConnections) {
+				PlcConnection connection = this.connections.remove(connectionId);
+				if (connection == null)
+					continue;
+				for (String address : connection.getAddresses()) {
+					this.connectionsByAddress.remove(address, connection);
+				}
+				disconnect.add(connection);
+				logger.info("Removed connection {}", connectionId);
+			}
+
+			addedConnections.forEach(this::addConnection);
+			addedAddresses.forEach(this::registerNotificationMapping);
+
+			// connections which stay connected must resolve the ids of their changed addresses again
+			Stream.concat(removedAddresses.stream(), addedAddresses.stream())
+					.map(address -> this.connectionsByAddress.get(address.address))
+					.filter(Objects::nonNull)
+					.forEach(refresh::add);
+			addedConnections.forEach(refresh::remove);
+
+			if (this.run)
+				growNotificationLanes();
+			if (this.liveInputs != null)
+				this.liveInputs.ensureCapacity(this.nextAddressId);
+		}
+
+		disconnect.forEach(PlcConnection::disconnect);
+		refresh.forEach(PlcConnection::refreshAddressIds);
+		if (this.run)
+			connect(addedConnections);
+
+		logger.info("Reconfigured running PLC: {} connections and {} addresses removed, {} connections and {} "
+				+ "addresses added", removedConnections.size(), removedAddresses.size(), addedConnections.size(),
+				addedAddresses.size());
 	}
 
 	private void validateVirtualAddress(PlcAddress address) {
@@ -290,6 +1101,109 @@ public class DefaultPlc implements Plc {
 		return this.executorPool;
 	}
 
-	private record NotificationTask(String address, Object value) {
+	/**
+	 * A notification lane drains its own {@link NotificationRingBuffer} on its own thread. Notifications are
+	 * partitioned onto the lanes by the id of their {@link PlcAddress}, so that notifications of one address are always
+	 * delivered in order, but a slow listener only delays the addresses on its lane. Note that with more than one lane, a
+	 * listener registered for multiple addresses may be notified concurrently
+	 */
+	private class NotificationLane implements Handler {
+
+		private final int index;
+		private final NotificationRingBuffer buffer;
+		private NotificationLane previous;
+		private volatile boolean retired;
+		private volatile Future<?> task;
+
+		private NotificationLane(int index, int maxAddresses, NotificationLane previous) {
+			this.index = index;
+			this.buffer = new NotificationRingBuffer(notificationBufferSize, maxAddresses, overflowPolicy,
+					waitStrategy);
+			this.previous = previous;
+		}
+
+		private void start() {
+			this.task = executorPool.getSingleThreadExecutor("PlcNotify-" + this.index).submit(this::doNotifications);
+		}
+
+		private void stop() {
+			if (this.task != null)
+				this.task.cancel(true);
+			this.task = null;
+		}
+
+		/**
+		 * Stops this lane after its current notification, leaving the rest of its buffer to the lane replacing it
+		 */
+		private void retire() {
+			this.retired = true;
+			this.buffer.wakeUpConsumer();
+		}
+
+		private void awaitRetired() {
+			Future<?> task = this.task;
+			if (task == null)
+				return;
+			try {
+				task.get();
+			} catch (CancellationException | ExecutionException e) {
+				// stopped
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void doNotifications() {
+			logger.info("Notifications Task {} running...", this.index);
+			this.buffer.setConsumer(Thread.currentThread());
+
+			// producers may still have queued into the replaced lane while we were taking over
+			NotificationRingBuffer previous = null;
+			if (this.previous != null) {
+				this.previous.awaitRetired();
+				previous = this.previous.buffer;
+				previous.setConsumer(Thread.currentThread());
+			}
+
+			while (run && !this.retired) {
+				try {
+					if ((previous == null || !previous.poll(this)) && !this.buffer.poll(this))
+						this.buffer.idle();
+				} catch (Exception e) {
+					logger.error("Failed to get notification", e);
+				}
+			}
+
+			if (previous != null) {
+				while (run && previous.poll(this)) {
+					// delivered
+				}
+			}
+			this.previous = null;
+			logger.info("Notifications Task {} {}.", this.index, this.retired ? "retired" : "stopped");
+		}
+
+		@Override
+		public void onNotification(int addressId, byte kind, long payload, Object reference, long timestamp) {
+			if (PlcEvents.isDequeuedEnabled()) {
+				PlcNotificationDequeuedEvent event = new PlcNotificationDequeuedEvent();
+				event.address = getAddressKey(addressId);
+				event.lane = this.index;
+				event.queueTime = System.nanoTime() - timestamp;
+				event.commit();
+			}
+
+			// the timestamp of a notification is its ingest time
+			latencies.record(PlcLatencyStage.Queue, addressId, timestamp);
+
+			try {
+				dispatch(addressId, kind, payload, reference, timestamp);
+			} catch (Exception e) {
+				logger.error("Failed to perform notification for {}", registrations[addressId].address(), e);
+			}
+		}
+	}
+
+	private record Registration(PlcAddress address, PlcListener[] listeners) {
 	}
 }
@@ -0,0 +1,126 @@
+package li.strolch.plc.core.hw;
+
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static li.strolch.plc.model.PlcConstants.*;
+
+/**
+ * <p>A lock-free, fixed size histogram of latencies in nanoseconds, with log-linear buckets in the style of an HDR
+ * histogram: each power of two is split into 8 linear sub buckets, thus any recorded value is reported with a relative
+ * error of at most 12.5%. Values up to 2^40 ns (about 18 minutes) are tracked, larger values are counted in the last
+ * bucket.</p>
+ *
+ * <p>Recording a value does not allocate any objects</p>
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_MAGNITUDE = 40;
+	private static final int NR_OF_BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts;
+	private final AtomicLong count;
+	private final AtomicLong sum;
+	private final AtomicLong max;
+
+	public LatencyHistogram() {
+		this.counts = new AtomicLongArray(NR_OF_BUCKETS);
+		this.count = new AtomicLong();
+		this.sum = new AtomicLong();
+		this.max = new AtomicLong();
+	}
+
+	static int bucketIndex(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) Math.max(value, 0L);
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		if (magnitude > MAX_MAGNITUDE)
+			return NR_OF_BUCKETS - 1;
+		int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+		return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long bucketUpperBound(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+		int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long width = 1L << (magnitude - SUB_BUCKET_BITS);
+		return (SUB_BUCKETS + index % SUB_BUCKETS) * width + width - 1;
+	}
+
+	/**
+	 * Records the given latency
+	 *
+	 * @param nanos the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		this.counts.incrementAndGet(bucketIndex(nanos));
+		this.count.incrementAndGet();
+		this.sum.addAndGet(nanos);
+		this.max.accumulateAndGet(nanos, Math::max);
+	}
+
+	public long getCount() {
+		return this.count.get();
+	}
+
+	public long getMax() {
+		return this.max.get();
+	}
+
+	public long getMean() {
+		long count = this.count.get();
+		return count == 0L ? 0L : this.sum.get() / count;
+	}
+
+	/**
+	 * Returns the value below which the given percentage of the recorded values lie, as the upper bound of the bucket in
+	 * which the percentile lies, but at most the max recorded value
+	 *
+	 * @param percentile the percentile, between 0.0 and 100.0
+	 *
+	 * @return the value at the given percentile in nanoseconds
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long count = this.count.get();
+		if (count == 0L)
+			return 0L;
+
+		long threshold = Math.max(1L, (long) Math.ceil(count * percentile / 100.0));
+		long seen = 0L;
+		for (int i = 0; i < NR_OF_BUCKETS; i++) {
+			seen += this.counts.get(i);
+			if (seen >= threshold)
+				return Math.min(bucketUpperBound(i), this.max.get());
+		}
+		return this.max.get();
+	}
+
+	public void reset() {
+		for (int i = 0; i < NR_OF_BUCKETS; i++) {
+			this.counts.set(i, 0L);
+		}
+		this.count.set(0L);
+		this.sum.set(0L);
+		this.max.set(0L);
+	}
+
+	/**
+	 * @return the count, and the mean, max and percentiles in microseconds
+	 */
+	public JsonObject toJson() {
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty(PARAM_COUNT, getCount());
+		jsonObject.addProperty(PARAM_MEAN_US, getMean() / 1000.0);
+		jsonObject.addProperty(PARAM_P50_US, getValueAtPercentile(50.0) / 1000.0);
+		jsonObject.addProperty(PARAM_P90_US, getValueAtPercentile(90.0) / 1000.0);
+		jsonObject.addProperty(PARAM_P99_US, getValueAtPercentile(99.0) / 1000.0);
+		jsonObject.addProperty(PARAM_P999_US, getValueAtPercentile(99.9) / 1000.0);
+		jsonObject.addProperty(PARAM_MAX_US, getMax() / 1000.0);
+		return jsonObject;
+	}
+}
@@ -0,0 +1,25 @@
+package li.strolch.plc.core.hw;
+
+/**
+ * Defines what a {@link DefaultPlc} does with a queued notification, when the notification buffer of its lane is
+ * full
+ */
+public enum NotificationOverflowPolicy {
+
+	/**
+	 * The producer waits until the lane has consumed enough notifications to make room. Notifications are never lost
+	 */
+	Block,
+
+	/**
+	 * The oldest queued notification of the lane is discarded to make room for the new notification
+	 */
+	DropOldest,
+
+	/**
+	 * The new notification is kept as the latest value of its address outside the buffer, replacing any previous
+	 * overflowed value of the same address. The latest value is delivered once all older notifications of the address
+	 * have been delivered
+	 */
+	Conflate
+}
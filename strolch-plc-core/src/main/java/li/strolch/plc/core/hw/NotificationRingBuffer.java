@@ -0,0 +1,489 @@
+package li.strolch.plc.core.hw;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>A bounded, preallocated multi-producer/single-consumer ring buffer for the notifications of a lane of the
+ * {@link DefaultPlc}.</p>
+ *
+ * <p>The slots of the buffer are primitive arrays holding the address id, the kind of the value, the value as a
+ * <code>long</code> payload, or as a reference if the value is not a primitive, and the timestamp at which the
+ * notification was queued. Thus, queuing a notification does not allocate any objects.</p>
+ *
+ * <p>Producers claim a slot by incrementing the tail, write the slot and then publish the slot by setting its
+ * sequence. The consumer only reads a slot once it is published, and releases it by incrementing the head.</p>
+ *
+ * <p>If the buffer is full, the {@link NotificationOverflowPolicy} decides what happens. For conflation, each address
+ * has a latest value slot outside the buffer. Once an address has a pending conflated value, all further notifications
+ * of the address are conflated as well, and the conflated value is preferably delivered once no older notification of
+ * the address is in the buffer. Each notification of an address has a sequence number, and the consumer skips any
+ * notification which is older than one already delivered, thus the values of an address are never delivered out of
+ * order.</p>
+ */
+class NotificationRingBuffer {
+
+	static final byte KIND_BOOLEAN = 0;
+	static final byte KIND_INTEGER = 1;
+	static final byte KIND_LONG = 2;
+	static final byte KIND_OBJECT = 3;
+
+	private static final long SLEEP_NANOS = 100_000L;
+	private static final long MAX_PARK_NANOS = 100_000_000L;
+	private static final long BACK_OFF_NANOS = 10_000L;
+
+	/**
+	 * Receives the notifications from the buffer on the consumer thread
+	 */
+	interface Handler {
+		void onNotification(int addressId, byte kind, long payload, Object reference, long timestamp);
+	}
+
+	private final int capacity;
+	private final int mask;
+	private final NotificationOverflowPolicy overflowPolicy;
+	private final NotificationWaitStrategy waitStrategy;
+
+	private final int[] addressIds;
+	private final byte[] kinds;
+	private final long[] payloads;
+	private final Object[] references;
+	private final long[] timestamps;
+	private final long[] sequences;
+	private final AtomicLongArray published;
+
+	private final AtomicLong tail;
+	private final AtomicLong head;
+
+	// latest values per address id, used for conflation
+	private final int maxAddresses;
+	private final AtomicIntegerArray queued;
+	private final AtomicIntegerArray pending;
+	private final AtomicIntegerArray versions;
+	private final AtomicLongArray addressSequences;
+	private final long[] deliveredSequences;
+	private final byte[] conflatedKinds;
+	private final long[] conflatedPayloads;
+	private final Object[] conflatedReferences;
+	private final long[] conflatedTimestamps;
+	private final long[] conflatedSequences;
+	private final PendingIds pendingIds;
+
+	private final AtomicLong dropped;
+	private final AtomicLong conflated;
+
+	private volatile Thread consumer;
+	private volatile boolean consumerWaiting;
+	private int polls;
+	private int idles;
+
+	/**
+	 * Creates a new ring buffer
+	 *
+	 * @param capacity       the number of slots, rounded up to the next power of two
+	 * @param maxAddresses   the number of address ids for which values can be conflated. Notifications for addresses
+	 *                       with a larger id are never conflated
+	 * @param overflowPolicy the policy to apply when the buffer is full
+	 * @param waitStrategy   the strategy for the consumer to wait for new notifications
+	 */
+	NotificationRingBuffer(int capacity, int maxAddresses, NotificationOverflowPolicy overflowPolicy,
+			NotificationWaitStrategy waitStrategy) {
+		this.capacity = nextPowerOfTwo(capacity);
+		this.mask = this.capacity - 1;
+		this.overflowPolicy = overflowPolicy;
+		this.waitStrategy = waitStrategy;
+
+		this.addressIds = new int[this.capacity];
+		this.kinds = new byte[this.capacity];
+		this.payloads = new long[this.capacity];
+		this.references = new Object[this.capacity];
+		this.timestamps = new long[this.capacity];
+		this.sequences = new long[this.capacity];
+		this.published = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++) {
+			this.published.set(i, -1L);
+		}
+
+		this.tail = new AtomicLong();
+		this.head = new AtomicLong();
+
+		this.maxAddresses = maxAddresses;
+		this.queued = new AtomicIntegerArray(maxAddresses);
+		this.pending = new AtomicIntegerArray(maxAddresses);
+		this.versions = new AtomicIntegerArray(maxAddresses);
+		this.addressSequences = new AtomicLongArray(maxAddresses);
+		this.deliveredSequences = new long[maxAddresses];
+		this.conflatedKinds = new byte[maxAddresses];
+		this.conflatedPayloads = new long[maxAddresses];
+		this.conflatedReferences = new Object[maxAddresses];
+		this.conflatedTimestamps = new long[maxAddresses];
+		this.conflatedSequences = new long[maxAddresses];
+		this.pendingIds = new PendingIds(Math.max(maxAddresses, 1));
+
+		this.dropped = new AtomicLong();
+		this.conflated = new AtomicLong();
+	}
+
+	int getCapacity() {
+		return this.capacity;
+	}
+
+	int getMaxAddresses() {
+		return this.maxAddresses;
+	}
+
+	/**
+	 * @return the number of notifications which are waiting to be consumed
+	 */
+	int size() {
+		return (int) (this.tail.get() - this.head.get()) + this.pendingIds.size();
+	}
+
+	/**
+	 * @return the number of notifications which were discarded due to {@link NotificationOverflowPolicy#DropOldest}
+	 */
+	long getDropped() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * @return the number of notifications which replaced a value which was not yet delivered
+	 */
+	long getConflated() {
+		return this.conflated.get();
+	}
+
+	/**
+	 * Must be called by the consumer thread before consuming, so that it can be woken up by producers
+	 */
+	void setConsumer(Thread consumer) {
+		this.consumer = consumer;
+	}
+
+	/**
+	 * Queues the given notification, applying the overflow policy if the buffer is full
+	 */
+	void offer(int addressId, byte kind, long payload, Object reference, long timestamp) {
+		boolean conflatable = addressId < this.maxAddresses;
+		long sequence = 0L;
+		if (conflatable) {
+			sequence = this.addressSequences.incrementAndGet(addressId);
+
+			// once a value is pending, we conflate, so that newer values do not overtake it in the buffer
+			if (this.pending.get(addressId) == 1) {
+				conflate(addressId, kind, payload, reference, timestamp, sequence);
+				return;
+			}
+
+			this.queued.incrementAndGet(addressId);
+		}
+
+		int backOff = 0;
+		for (; ; ) {
+			long t = this.tail.get();
+			long h = this.head.get();
+
+			if (t - h >= this.capacity) {
+				NotificationOverflowPolicy policy = this.overflowPolicy;
+
+				// the consumer may not wait for itself
+				if (policy == NotificationOverflowPolicy.Block && Thread.currentThread() == this.consumer)
+					policy = conflatable ? NotificationOverflowPolicy.Conflate : NotificationOverflowPolicy.DropOldest;
+
+				if (policy == NotificationOverflowPolicy.Conflate && conflatable) {
+					this.queued.decrementAndGet(addressId);
+					conflate(addressId, kind, payload, reference, timestamp, sequence);
+					return;
+				}
+
+				if (policy == NotificationOverflowPolicy.DropOldest)
+					dropOldest(h);
+				else
+					backOff(backOff++);
+				continue;
+			}
+
+			if (!this.tail.compareAndSet(t, t + 1))
+				continue;
+
+			int index = (int) t & this.mask;
+			this.addressIds[index] = addressId;
+			this.kinds[index] = kind;
+			this.payloads[index] = payload;
+			this.references[index] = reference;
+			this.timestamps[index] = timestamp;
+			this.sequences[index] = sequence;
+			this.published.set(index, t);
+
+			wakeUpConsumer();
+			return;
+		}
+	}
+
+	/**
+	 * Queues the given notification as the latest value of its address, replacing any value of the address which was
+	 * not yet delivered. Addresses which can not be conflated are queued with
+	 * {@link #offer(int, byte, long, Object, long)}
+	 */
+	void offerLatest(int addressId, byte kind, long payload, Object reference, long timestamp) {
+		if (addressId >= this.maxAddresses) {
+			offer(addressId, kind, payload, reference, timestamp);
+			return;
+		}
+
+		conflate(addressId, kind, payload, reference, timestamp, this.addressSequences.incrementAndGet(addressId));
+	}
+
+	private void dropOldest(long h) {
+		int index = (int) h & this.mask;
+
+		// the oldest slot might still be in the process of being written by its producer
+		if (this.published.get(index) != h) {
+			Thread.onSpinWait();
+			return;
+		}
+
+		int droppedId = this.addressIds[index];
+		if (this.head.compareAndSet(h, h + 1)) {
+			if (droppedId < this.maxAddresses)
+				this.queued.decrementAndGet(droppedId);
+			this.dropped.incrementAndGet();
+		}
+	}
+
+	private void conflate(int addressId, byte kind, long payload, Object reference, long timestamp, long sequence) {
+
+		// the version is odd while a producer writes the latest value
+		int version;
+		do {
+			version = this.versions.get(addressId);
+			if ((version & 1) != 0)
+				Thread.onSpinWait();
+		} while ((version & 1) != 0 || !this.versions.compareAndSet(addressId, version, version + 1));
+
+		// concurrent producers of the same address may arrive out of order, but the latest value must win
+		if (sequence > this.conflatedSequences[addressId]) {
+			this.conflatedKinds[addressId] = kind;
+			this.conflatedPayloads[addressId] = payload;
+			this.conflatedReferences[addressId] = reference;
+			this.conflatedTimestamps[addressId] = timestamp;
+			this.conflatedSequences[addressId] = sequence;
+		}
+		this.versions.set(addressId, version + 2);
+
+		if (this.pending.getAndSet(addressId, 1) == 0) {
+			this.pendingIds.add(addressId);
+			wakeUpConsumer();
+		} else {
+			this.conflated.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Wakes up the consumer if it is waiting for new notifications
+	 */
+	void wakeUpConsumer() {
+		if (this.consumerWaiting)
+			LockSupport.unpark(this.consumer);
+	}
+
+	private void backOff(int backOff) {
+		if (backOff < 100)
+			Thread.onSpinWait();
+		else if (backOff < 200)
+			Thread.yield();
+		else
+			LockSupport.parkNanos(BACK_OFF_NANOS);
+	}
+
+	/**
+	 * Delivers the next notification to the given handler. May only be called by the consumer thread
+	 *
+	 * @return true if a notification was delivered, false if none was available
+	 */
+	boolean poll(Handler handler) {
+
+		// interleave conflated values, so that they are not starved by a busy buffer
+		if (((++this.polls & 0x7) == 0 && pollPending(handler)) || pollBuffer(handler) || pollPending(handler)) {
+			this.idles = 0;
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Skips notifications which are older than an already delivered notification of the same address, which can
+	 * happen if a newer value was conflated while an older notification was still in the buffer
+	 */
+	private boolean isStale(int addressId, long sequence) {
+		if (addressId >= this.maxAddresses)
+			return false;
+		if (sequence <= this.deliveredSequences[addressId])
+			return true;
+		this.deliveredSequences[addressId] = sequence;
+		return false;
+	}
+
+	private boolean pollBuffer(Handler handler) {
+		for (; ; ) {
+			long h = this.head.get();
+			int index = (int) h & this.mask;
+			if (this.published.get(index) != h)
+				return false;
+
+			int addressId = this.addressIds[index];
+			byte kind = this.kinds[index];
+			long payload = this.payloads[index];
+			Object reference = this.references[index];
+			long timestamp = this.timestamps[index];
+			long sequence = this.sequences[index];
+
+			// if the head moved, then the slot was dropped by a producer and might already be overwritten
+			if (!this.head.compareAndSet(h, h + 1))
+				continue;
+
+			if (addressId < this.maxAddresses)
+				this.queued.decrementAndGet(addressId);
+			if (isStale(addressId, sequence))
+				continue;
+
+			handler.onNotification(addressId, kind, payload, reference, timestamp);
+			return true;
+		}
+	}
+
+	private boolean pollPending(Handler handler) {
+		int addressId = this.pendingIds.poll();
+		if (addressId == -1)
+			return false;
+
+		// older notifications of this address must be delivered first
+		if (this.queued.get(addressId) > 0) {
+			this.pendingIds.add(addressId);
+			return false;
+		}
+
+		// clear before reading, so that a newer value is queued again, and not lost
+		this.pending.set(addressId, 0);
+
+		int version;
+		byte kind;
+		long payload;
+		Object reference;
+		long timestamp;
+		long sequence;
+		do {
+			version = this.versions.get(addressId);
+			if ((version & 1) != 0) {
+				Thread.onSpinWait();
+				continue;
+			}
+
+			kind = this.conflatedKinds[addressId];
+			payload = this.conflatedPayloads[addressId];
+			reference = this.conflatedReferences[addressId];
+			timestamp = this.conflatedTimestamps[addressId];
+			sequence = this.conflatedSequences[addressId];
+			VarHandle.acquireFence();
+			if (this.versions.get(addressId) == version)
+				break;
+		} while (true);
+
+		if (isStale(addressId, sequence))
+			return false;
+
+		handler.onNotification(addressId, kind, payload, reference, timestamp);
+		return true;
+	}
+
+	private boolean isEmpty() {
+		long h = this.head.get();
+		return this.published.get((int) h & this.mask) != h && this.pendingIds.size() == 0;
+	}
+
+	/**
+	 * Waits for new notifications using the configured {@link NotificationWaitStrategy}. May only be called by the
+	 * consumer thread, and may return spuriously
+	 */
+	void idle() {
+		switch (this.waitStrategy) {
+			case BusySpin -> Thread.onSpinWait();
+			case Yield -> Thread.yield();
+			case Sleep -> LockSupport.parkNanos(SLEEP_NANOS);
+			case Blocking -> {
+
+				// spin and yield shortly, as parking and waking up is expensive under load
+				int idles = ++this.idles;
+				if (idles < 100) {
+					Thread.onSpinWait();
+					return;
+				}
+				if (idles < 200) {
+					Thread.yield();
+					return;
+				}
+
+				this.consumerWaiting = true;
+				if (isEmpty())
+					LockSupport.parkNanos(this, MAX_PARK_NANOS);
+				this.consumerWaiting = false;
+			}
+		}
+	}
+
+	private static int nextPowerOfTwo(int value) {
+		if (value < 2)
+			return 2;
+		int highestOneBit = Integer.highestOneBit(value);
+		return highestOneBit == value ? value : highestOneBit << 1;
+	}
+
+	/**
+	 * The ids of the addresses which have a pending conflated value. Each id is at most once in this queue, thus it can
+	 * never overflow
+	 */
+	private static class PendingIds {
+
+		private final int mask;
+		private final int[] ids;
+		private final AtomicLongArray published;
+		private final AtomicLong tail;
+		private volatile long head;
+
+		private PendingIds(int capacity) {
+			int size = nextPowerOfTwo(capacity);
+			this.mask = size - 1;
+			this.ids = new int[size];
+			this.published = new AtomicLongArray(size);
+			for (int i = 0; i < size; i++) {
+				this.published.set(i, -1L);
+			}
+			this.tail = new AtomicLong();
+		}
+
+		private int size() {
+			return (int) (this.tail.get() - this.head);
+		}
+
+		private void add(int id) {
+			long t = this.tail.getAndIncrement();
+			int index = (int) t & this.mask;
+			this.ids[index] = id;
+			this.published.set(index, t);
+		}
+
+		private int poll() {
+			long h = this.head;
+			int index = (int) h & this.mask;
+			if (this.published.get(index) != h)
+				return -1;
+			int id = this.ids[index];
+			this.head = h + 1;
+			return id;
+		}
+	}
+}
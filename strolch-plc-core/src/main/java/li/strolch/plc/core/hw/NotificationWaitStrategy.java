@@ -0,0 +1,28 @@
+package li.strolch.plc.core.hw;
+
+/**
+ * Defines how the thread of a notification lane of the {@link DefaultPlc} waits for new notifications, trading
+ * latency against CPU usage
+ */
+public enum NotificationWaitStrategy {
+
+	/**
+	 * Spins on the CPU, lowest latency, but uses a complete core per lane
+	 */
+	BusySpin,
+
+	/**
+	 * Yields the CPU between checks, low latency with less, but still considerable CPU usage
+	 */
+	Yield,
+
+	/**
+	 * Sleeps for a short moment between checks, low CPU usage at the cost of latency
+	 */
+	Sleep,
+
+	/**
+	 * Parks the thread until a producer wakes it up, lowest CPU usage
+	 */
+	Blocking
+}
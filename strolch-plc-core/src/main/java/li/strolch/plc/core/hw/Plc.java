@@ -4,6 +4,9 @@ import li.strolch.plc.model.PlcAddress;
 import li.strolch.plc.model.PlcAddressKey;
 import li.strolch.utils.ExecutorPool;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -27,6 +30,53 @@ public interface Plc {
 
 	void queueNotify(String address, Object value);
 
+	/**
+	 * Returns the id of the notification address with the given hardware address, which can be used with the
+	 * primitive notification methods
+	 *
+	 * @param address the hardware address
+	 *
+	 * @return the id of the address, or -1 if no notification is mapped to the given hardware address
+	 */
+	int getAddressId(String address);
+
+	/**
+	 * @return the id of the given address, or -1 if the address is not known to this PLC
+	 */
+	int getAddressId(PlcAddress address);
+
+	default void notifyBoolean(int addressId, boolean value) {
+		notifyBoolean(addressId, value, System.nanoTime());
+	}
+
+	default void notifyLong(int addressId, long value) {
+		notifyLong(addressId, value, System.nanoTime());
+	}
+
+	default void queueNotifyBoolean(int addressId, boolean value) {
+		queueNotifyBoolean(addressId, value, System.nanoTime());
+	}
+
+	default void queueNotifyLong(int addressId, long value) {
+		queueNotifyLong(addressId, value, System.nanoTime());
+	}
+
+	/**
+	 * Notifies the listeners of the given address with the given value, passing the time at which the value was read
+	 * from the hardware, so that the latencies of the notification are measured from its ingest
+	 *
+	 * @param addressId  the id of the address
+	 * @param value      the new value
+	 * @param ingestTime the time the value was read from the hardware, as {@link System#nanoTime()}
+	 */
+	void notifyBoolean(int addressId, boolean value, long ingestTime);
+
+	void notifyLong(int addressId, long value, long ingestTime);
+
+	void queueNotifyBoolean(int addressId, boolean value, long ingestTime);
+
+	void queueNotifyLong(int addressId, long value, long ingestTime);
+
 	void send(PlcAddress address);
 
 	void send(PlcAddress address, boolean catchExceptions, boolean notifyGlobalListener);
@@ -35,19 +85,110 @@ public interface Plc {
 
 	void send(PlcAddress address, Object value, boolean catchExceptions, boolean notifyGlobalListener);
 
+	void send(Map<PlcAddress, Object> values);
+
+	/**
+	 * Sends all the given values, grouping them by their {@link PlcConnection}, so that each connection receives all
+	 * its values with one call to {@link PlcConnection#sendBatch(Map)}. After all values are sent, the listeners are
+	 * notified in the iteration order of the given map
+	 *
+	 * @param values               the values to send by their address
+	 * @param catchExceptions      if true, then exceptions of listeners are logged and not thrown
+	 * @param notifyGlobalListener if true, then the global listener is also notified
+	 */
+	void send(Map<PlcAddress, Object> values, boolean catchExceptions, boolean notifyGlobalListener);
+
 	void addConnection(PlcConnection connection);
 
+	/**
+	 * Sets the time to wait for a connection to connect when starting, before continuing with the next connection on
+	 * the same bus. A value of 0 waits indefinitely
+	 */
+	void setConnectTimeout(long connectTimeoutMs);
+
+	/**
+	 * @return the results of connecting the connections on the last start, in the order they were started
+	 */
+	List<PlcConnectionStartup> getStartupTimeline();
+
+	/**
+	 * <p>Sets the cycle time of the scan cycle mode, 0 disables it, which is the default. Must be called before
+	 * starting.</p>
+	 *
+	 * <p>In scan cycle mode, the notifications are still passed to the listeners, but their values are also recorded
+	 * in an input image. In each cycle the input image is copied, the registered {@link PlcCycleLogic} is executed
+	 * against the copy, and the changed outputs are sent, grouped by their {@link PlcConnection}</p>
+	 */
+	void setScanCycleTime(long cycleTimeMs);
+
+	/**
+	 * @return the statistics of the scan cycle, or null if the scan cycle mode is disabled
+	 */
+	PlcScanCycleStats getScanCycleStats();
+
+	void registerCycleLogic(PlcCycleLogic logic);
+
+	void unregisterCycleLogic(PlcCycleLogic logic);
+
 	PlcConnection getConnection(String id);
 
 	PlcConnection getConnection(PlcAddress address);
 
 	void registerNotificationMapping(PlcAddress address);
 
+	/**
+	 * <p>Applies the given changes to the configuration of this PLC while it keeps running. The changes are applied
+	 * atomically with respect to registrations: the removed connections and notification mappings are removed and the
+	 * added ones are added while holding the lock of this PLC. Only then are the removed connections disconnected and,
+	 * if this PLC is started, the added connections connected. All other connections and addresses are not
+	 * touched.</p>
+	 *
+	 * <p>A changed connection or address is passed as removed and added. The id of an address, and thus its
+	 * listeners, are kept when an address with the same resource and action is added again</p>
+	 *
+	 * @param removedConnections the ids of the connections to remove
+	 * @param addedConnections   the new connections, created for this PLC
+	 * @param removedAddresses   the notification addresses to remove
+	 * @param addedAddresses     the notification addresses to add
+	 */
+	void reconfigure(Collection<String> removedConnections, Collection<PlcConnection> addedConnections,
+			Collection<PlcAddress> removedAddresses, Collection<PlcAddress> addedAddresses);
+
 	void notifyConnectionStateChanged(PlcConnection connection);
 
 	void setConnectionStateChangeListener(PlcConnectionStateChangeListener listener);
 
 	void setVerbose(boolean verbose);
 
+	void setNotificationLanes(int nrOfLanes);
+
+	void setNotificationBuffer(int bufferSize, NotificationOverflowPolicy overflowPolicy,
+			NotificationWaitStrategy waitStrategy);
+
+	int[] getNotificationQueueDepths();
+
+	/**
+	 * Sets the number of records kept by the {@link PlcFlightRecorder}, 0 disables the flight recorder
+	 */
+	void setFlightRecorderSize(int nrOfRecords);
+
+	/**
+	 * @return the {@link PlcFlightRecorder}, or null if disabled
+	 */
+	PlcFlightRecorder getFlightRecorder();
+
+	/**
+	 * @return the latency histograms of the stages of the notifications
+	 */
+	PlcLatencies getLatencies();
+
+	/**
+	 * Returns the ingest time of the notification being dispatched on the current thread, so that listeners can
+	 * record the latency of later stages. If no notification is being dispatched, then the current time is returned
+	 *
+	 * @return the ingest time as {@link System#nanoTime()}
+	 */
+	long getIngestTime();
+
 	ExecutorPool getExecutorPool();
 }
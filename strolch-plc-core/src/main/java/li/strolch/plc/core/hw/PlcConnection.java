@@ -42,8 +42,27 @@ public abstract class PlcConnection {
 
 	public abstract void send(String address, Object value);
 
+	/**
+	 * Sends the given values to their addresses. The default implementation sends each value on its own, connections
+	 * which can write multiple addresses in one operation should override this method
+	 *
+	 * @param values the values to send by their hardware address
+	 */
+	public void sendBatch(Map<String, Object> values) {
+		values.forEach(this::send);
+	}
+
 	public abstract Set<String> getAddresses();
 
+	/**
+	 * Called by the {@link Plc} after a reconfiguration added or removed addresses of this connection while it stayed
+	 * connected. Connections which cache the ids of their addresses must override this method and resolve the ids
+	 * again, otherwise they keep dropping the notifications of added addresses and notify removed ones
+	 */
+	public void refreshAddressIds() {
+		// no-op
+	}
+
 	protected void assertConnected() {
 		if (this.connectionState != ConnectionState.Connected)
 			throw new IllegalStateException("PlcConnection " + this.id + " is not yet connected!");
@@ -53,6 +72,16 @@ public abstract class PlcConnection {
 		return true;
 	}
 
+	/**
+	 * Returns the bus used by this connection. Connections on the same bus are connected one after another, all other
+	 * connections are connected in parallel
+	 *
+	 * @return the bus, or null if this connection does not share a bus with other connections
+	 */
+	public String getBus() {
+		return null;
+	}
+
 	protected boolean isConnected() {
 		return this.connectionState == ConnectionState.Connected;
 	}
@@ -0,0 +1,42 @@
+package li.strolch.plc.core.hw;
+
+import com.google.gson.JsonObject;
+import li.strolch.plc.model.ConnectionState;
+
+import static li.strolch.plc.model.PlcConstants.*;
+
+/**
+ * The result of connecting a {@link PlcConnection} while starting the {@link Plc}, with the offset of the connect
+ * from the start of the PLC and its duration
+ *
+ * @param connection the id of the connection
+ * @param bus        the bus of the connection, or null if it does not share a bus
+ * @param startMs    the offset of the start of the connect from the start of the PLC in milliseconds
+ * @param durationMs the duration of the connect in milliseconds
+ * @param state      the state of the connection after the connect
+ * @param stateMsg   the state message of the connection after the connect
+ * @param timedOut   true if the connect did not complete within the connect timeout
+ */
+public record PlcConnectionStartup(String connection, String bus, long startMs, long durationMs,
+								   ConnectionState state, String stateMsg, boolean timedOut) {
+
+	public JsonObject toJson() {
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty(PARAM_CONNECTION, this.connection);
+		if (this.bus != null)
+			jsonObject.addProperty(PARAM_BUS, this.bus);
+		jsonObject.addProperty(PARAM_START_MS, this.startMs);
+		jsonObject.addProperty(PARAM_DURATION_MS, this.durationMs);
+		jsonObject.addProperty(PARAM_STATE, this.state.name());
+		if (this.stateMsg != null)
+			jsonObject.addProperty(PARAM_STATE_MSG, this.stateMsg);
+		jsonObject.addProperty(PARAM_TIMED_OUT, this.timedOut);
+		return jsonObject;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%6d ms +%6d ms %-30s %-10s %s%s", this.startMs, this.durationMs, this.connection,
+				this.bus == null ? "" : this.bus, this.timedOut ? "TIMED OUT " : "", this.state);
+	}
+}
@@ -0,0 +1,19 @@
+package li.strolch.plc.core.hw;
+
+/**
+ * Logic which is executed in every scan cycle of the {@link Plc}, against an image of the inputs taken at the start
+ * of the cycle. The image does not change during the cycle, and each value in it is one the address actually had, but
+ * values of different addresses notified while the image was taken may stem from slightly different points in time.
+ * Outputs written to the output image are sent after all logic of the cycle was executed, grouped by their
+ * {@link PlcConnection}
+ */
+public interface PlcCycleLogic {
+
+	/**
+	 * Executes one scan cycle of this logic. This method is called on the scan cycle thread and must not block
+	 *
+	 * @param inputs  the values of the notification addresses at the start of the cycle, consistent per address
+	 * @param outputs the image to write the outputs to, only changed outputs are sent
+	 */
+	void execute(PlcProcessImage inputs, PlcProcessImage outputs);
+}
@@ -0,0 +1,279 @@
+package li.strolch.plc.core.hw;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import li.strolch.plc.model.ConnectionState;
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static li.strolch.plc.core.hw.NotificationRingBuffer.*;
+import static li.strolch.plc.model.PlcConstants.*;
+
+/**
+ * <p>A fixed size, off-heap journal of the events of a {@link Plc}: notifications, sends and connection state changes.
+ * Each event is written as a compact binary record with a nanosecond timestamp into a ring of records, so that the
+ * latest events are always available, without the cost of logging them.</p>
+ *
+ * <p>A record is {@link #RECORD_SIZE} bytes long:</p>
+ * <ul>
+ *     <li>8 bytes: sequence + 1, written last, 0 while the record is being written</li>
+ *     <li>8 bytes: timestamp as {@link System#nanoTime()}</li>
+ *     <li>4 bytes: id of the address, or index of the connection</li>
+ *     <li>1 byte: type of the event</li>
+ *     <li>1 byte: kind of the value</li>
+ *     <li>2 bytes: unused</li>
+ *     <li>8 bytes: value as payload</li>
+ * </ul>
+ *
+ * <p>The journal can be dumped in a binary form with {@link #writeTo(OutputStream)}, or as JSON with
+ * {@link #toJson(int)}</p>
+ */
+public class PlcFlightRecorder {
+
+	public static final int RECORD_SIZE = 32;
+	public static final int MAGIC = 0x504C4652;
+	public static final short VERSION = 1;
+
+	public static final byte TYPE_NOTIFICATION = 1;
+	public static final byte TYPE_SEND = 2;
+	public static final byte TYPE_CONNECTION_STATE = 3;
+
+	private static final int OFFSET_SEQUENCE = 0;
+	private static final int OFFSET_TIMESTAMP = 8;
+	private static final int OFFSET_ID = 16;
+	private static final int OFFSET_TYPE = 20;
+	private static final int OFFSET_KIND = 21;
+	private static final int OFFSET_PAYLOAD = 24;
+
+	private static final VarHandle LONG_HANDLE = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.nativeOrder());
+
+	private final int capacity;
+	private final ByteBuffer buffer;
+	private final AtomicLong sequence;
+	private final IntFunction<String> addressKeys;
+
+	private final Map<String, Integer> connectionIndexes;
+	private final List<String> connectionIds;
+
+	private final long baseMillis;
+	private final long baseNanos;
+
+	/**
+	 * Creates a new flight recorder
+	 *
+	 * @param capacity    the number of records to keep
+	 * @param addressKeys resolves the id of an address to its key, for dumping the journal
+	 */
+	public PlcFlightRecorder(int capacity, IntFunction<String> addressKeys) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("The flight recorder capacity must be at least 1, not " + capacity);
+		this.capacity = capacity;
+		this.buffer = ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+		this.sequence = new AtomicLong();
+		this.addressKeys = addressKeys;
+		this.connectionIndexes = new ConcurrentHashMap<>();
+		this.connectionIds = new CopyOnWriteArrayList<>();
+		this.baseMillis = System.currentTimeMillis();
+		this.baseNanos = System.nanoTime();
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * @return the number of events recorded since creation, of which the latest {@link #getCapacity()} are kept
+	 */
+	public long getRecorded() {
+		return this.sequence.get();
+	}
+
+	public void recordNotification(int addressId, boolean value) {
+		record(TYPE_NOTIFICATION, addressId, KIND_BOOLEAN, value ? 1L : 0L);
+	}
+
+	public void recordNotification(int addressId, long value, boolean integer) {
+		record(TYPE_NOTIFICATION, addressId, integer ? KIND_INTEGER : KIND_LONG, value);
+	}
+
+	public void recordNotification(int addressId, Object value) {
+		record(TYPE_NOTIFICATION, addressId, value);
+	}
+
+	public void recordSend(int addressId, Object value) {
+		record(TYPE_SEND, addressId, value);
+	}
+
+	public void recordConnectionState(String connectionId, ConnectionState state) {
+		record(TYPE_CONNECTION_STATE, getConnectionIndex(connectionId), KIND_INTEGER, state.ordinal());
+	}
+
+	private void record(byte type, int id, Object value) {
+		if (value instanceof Boolean b)
+			record(type, id, KIND_BOOLEAN, b ? 1L : 0L);
+		else if (value instanceof Integer i)
+			record(type, id, KIND_INTEGER, i);
+		else if (value instanceof Long l)
+			record(type, id, KIND_LONG, l);
+		else
+			record(type, id, KIND_OBJECT, 0L);
+	}
+
+	private void record(byte type, int id, byte kind, long payload) {
+		long timestamp = System.nanoTime();
+		long sequence = this.sequence.getAndIncrement();
+		int offset = (int) (sequence % this.capacity) * RECORD_SIZE;
+
+		// invalidate the record while writing, so that readers skip it
+		LONG_HANDLE.setVolatile(this.buffer, offset + OFFSET_SEQUENCE, 0L);
+		this.buffer.putLong(offset + OFFSET_TIMESTAMP, timestamp);
+		this.buffer.putInt(offset + OFFSET_ID, id);
+		this.buffer.put(offset + OFFSET_TYPE, type);
+		this.buffer.put(offset + OFFSET_KIND, kind);
+		this.buffer.putLong(offset + OFFSET_PAYLOAD, payload);
+		LONG_HANDLE.setRelease(this.buffer, offset + OFFSET_SEQUENCE, sequence + 1);
+	}
+
+	private int getConnectionIndex(String connectionId) {
+		return this.connectionIndexes.computeIfAbsent(connectionId, id -> {
+			synchronized (this.connectionIds) {
+				this.connectionIds.add(id);
+				return this.connectionIds.size() - 1;
+			}
+		});
+	}
+
+	/**
+	 * Copies the complete records, oldest first, into the given consumer, skipping records which are being written
+	 */
+	private void readRecords(int limit, RecordConsumer consumer) {
+		long end = this.sequence.get();
+		long start = Math.max(0L, end - Math.min(limit, this.capacity));
+		byte[] record = new byte[RECORD_SIZE];
+		ByteBuffer recordBuffer = ByteBuffer.wrap(record).order(ByteOrder.nativeOrder());
+		for (long sequence = start; sequence < end; sequence++) {
+			int offset = (int) (sequence % this.capacity) * RECORD_SIZE;
+			if ((long) LONG_HANDLE.getAcquire(this.buffer, offset + OFFSET_SEQUENCE) != sequence + 1)
+				continue;
+			this.buffer.get(offset, record);
+			VarHandle.acquireFence();
+			if ((long) LONG_HANDLE.getVolatile(this.buffer, offset + OFFSET_SEQUENCE) != sequence + 1)
+				continue;
+			consumer.accept(sequence, recordBuffer);
+		}
+	}
+
+	/**
+	 * Writes the journal in its binary form: a header with {@link #MAGIC}, {@link #VERSION}, {@link #RECORD_SIZE}, the
+	 * current time in milliseconds and in nanoseconds and the number of records, then the records oldest first, and
+	 * finally the keys of the addresses and the ids of the connections referenced in the records
+	 *
+	 * @param out the stream to write to
+	 *
+	 * @throws IOException if the stream can not be written
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		ByteArrayOutputStream records = new ByteArrayOutputStream(this.capacity * RECORD_SIZE);
+		Set<Integer> addressIds = new TreeSet<>();
+		int[] count = new int[1];
+		readRecords(this.capacity, (sequence, record) -> {
+			records.write(record.array(), 0, RECORD_SIZE);
+			if (record.get(OFFSET_TYPE) != TYPE_CONNECTION_STATE)
+				addressIds.add(record.getInt(OFFSET_ID));
+			count[0]++;
+		});
+
+		DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+		dataOut.writeInt(MAGIC);
+		dataOut.writeShort(VERSION);
+		dataOut.writeShort(RECORD_SIZE);
+		dataOut.writeLong(System.currentTimeMillis());
+		dataOut.writeLong(System.nanoTime());
+		dataOut.writeBoolean(ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN);
+		dataOut.writeInt(count[0]);
+		records.writeTo(dataOut);
+
+		dataOut.writeInt(addressIds.size());
+		for (Integer addressId : addressIds) {
+			dataOut.writeInt(addressId);
+			dataOut.writeUTF(this.addressKeys.apply(addressId));
+		}
+
+		List<String> connectionIds = new ArrayList<>(this.connectionIds);
+		dataOut.writeInt(connectionIds.size());
+		for (String connectionId : connectionIds) {
+			dataOut.writeUTF(connectionId);
+		}
+
+		dataOut.flush();
+	}
+
+	/**
+	 * Writes the journal in its binary form to the given file
+	 *
+	 * @see #writeTo(OutputStream)
+	 */
+	public void dump(File file) throws IOException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			writeTo(out);
+		}
+	}
+
+	/**
+	 * Returns the latest records as JSON, oldest first
+	 *
+	 * @param limit the maximum number of records to return
+	 */
+	public JsonArray toJson(int limit) {
+		JsonArray recordsJ = new JsonArray();
+		readRecords(limit, (sequence, record) -> {
+			long timestamp = record.getLong(OFFSET_TIMESTAMP);
+			byte type = record.get(OFFSET_TYPE);
+			int id = record.getInt(OFFSET_ID);
+			byte kind = record.get(OFFSET_KIND);
+			long payload = record.getLong(OFFSET_PAYLOAD);
+
+			JsonObject recordJ = new JsonObject();
+			recordJ.addProperty(PARAM_SEQUENCE_ID, sequence);
+			recordJ.addProperty(PARAM_TIMESTAMP,
+					Instant.ofEpochMilli(this.baseMillis + (timestamp - this.baseNanos) / 1_000_000L).toString());
+			recordJ.addProperty(PARAM_NANOS, timestamp);
+
+			switch (type) {
+				case TYPE_NOTIFICATION, TYPE_SEND -> {
+					recordJ.addProperty(PARAM_TYPE, type == TYPE_SEND ? "Send" : "Notification");
+					recordJ.addProperty(PARAM_ADDRESS, this.addressKeys.apply(id));
+					switch (kind) {
+						case KIND_BOOLEAN -> recordJ.addProperty(PARAM_VALUE, payload != 0L);
+						case KIND_INTEGER, KIND_LONG -> recordJ.addProperty(PARAM_VALUE, payload);
+						default -> recordJ.addProperty(PARAM_VALUE, "?");
+					}
+				}
+				case TYPE_CONNECTION_STATE -> {
+					recordJ.addProperty(PARAM_TYPE, "ConnectionState");
+					recordJ.addProperty(PARAM_CONNECTION, this.connectionIds.get(id));
+					recordJ.addProperty(PARAM_VALUE, ConnectionState.values()[(int) payload].name());
+				}
+				default -> recordJ.addProperty(PARAM_TYPE, "Unknown");
+			}
+
+			recordsJ.add(recordJ);
+		});
+		return recordsJ;
+	}
+
+	private interface RecordConsumer {
+		void accept(long sequence, ByteBuffer record);
+	}
+}
@@ -0,0 +1,137 @@
+package li.strolch.plc.core.hw;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+import static li.strolch.plc.model.PlcConstants.*;
+
+/**
+ * Keeps a {@link LatencyHistogram} for each {@link PlcLatencyStage}, over all addresses and per address. The
+ * histograms of an address are created on the first recorded latency of the address
+ */
+public class PlcLatencies {
+
+	private static final PlcLatencyStage[] STAGES = PlcLatencyStage.values();
+
+	private final IntFunction<String> addressKeys;
+	private final LatencyHistogram[] stages;
+	private volatile AtomicReferenceArray<LatencyHistogram[]> addresses;
+
+	/**
+	 * Creates a new set of histograms
+	 *
+	 * @param addressKeys resolves the id of an address to its key
+	 */
+	public PlcLatencies(IntFunction<String> addressKeys) {
+		this.addressKeys = addressKeys;
+		this.stages = newHistograms();
+		this.addresses = new AtomicReferenceArray<>(64);
+	}
+
+	private static LatencyHistogram[] newHistograms() {
+		LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+		return histograms;
+	}
+
+	/**
+	 * Records the latency since the given ingest time
+	 *
+	 * @param stage      the stage which was reached
+	 * @param addressId  the id of the address, or -1 if unknown, in which case only the latency of the stage is
+	 *                   recorded
+	 * @param ingestTime the time of the ingest as {@link System#nanoTime()}
+	 */
+	public void record(PlcLatencyStage stage, int addressId, long ingestTime) {
+		long latency = System.nanoTime() - ingestTime;
+		this.stages[stage.ordinal()].record(latency);
+		if (addressId >= 0)
+			getHistograms(addressId)[stage.ordinal()].record(latency);
+	}
+
+	private LatencyHistogram[] getHistograms(int addressId) {
+		AtomicReferenceArray<LatencyHistogram[]> addresses = this.addresses;
+		LatencyHistogram[] histograms = addressId < addresses.length() ? addresses.get(addressId) : null;
+		if (histograms != null)
+			return histograms;
+		return createHistograms(addressId);
+	}
+
+	private synchronized LatencyHistogram[] createHistograms(int addressId) {
+		AtomicReferenceArray<LatencyHistogram[]> addresses = this.addresses;
+		if (addressId >= addresses.length()) {
+			AtomicReferenceArray<LatencyHistogram[]> grown = new AtomicReferenceArray<>(
+					Math.max(addresses.length() * 2, addressId + 1));
+			for (int i = 0; i < addresses.length(); i++) {
+				grown.set(i, addresses.get(i));
+			}
+			addresses = grown;
+			this.addresses = grown;
+		}
+
+		LatencyHistogram[] histograms = addresses.get(addressId);
+		if (histograms == null) {
+			histograms = newHistograms();
+			addresses.set(addressId, histograms);
+		}
+		return histograms;
+	}
+
+	public LatencyHistogram getHistogram(PlcLatencyStage stage) {
+		return this.stages[stage.ordinal()];
+	}
+
+	public void reset() {
+		for (LatencyHistogram histogram : this.stages) {
+			histogram.reset();
+		}
+		AtomicReferenceArray<LatencyHistogram[]> addresses = this.addresses;
+		for (int i = 0; i < addresses.length(); i++) {
+			LatencyHistogram[] histograms = addresses.get(i);
+			if (histograms != null) {
+				for (LatencyHistogram histogram : histograms) {
+					histogram.reset();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the histograms of all stages, and of all addresses which have recorded latencies
+	 */
+	public JsonObject toJson() {
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.add(PARAM_STAGES, stagesToJson(this.stages));
+
+		JsonArray addressesJ = new JsonArray();
+		AtomicReferenceArray<LatencyHistogram[]> addresses = this.addresses;
+		for (int i = 0; i < addresses.length(); i++) {
+			LatencyHistogram[] histograms = addresses.get(i);
+			if (histograms == null)
+				continue;
+
+			JsonObject addressJ = new JsonObject();
+			addressJ.addProperty(PARAM_ADDRESS, this.addressKeys.apply(i));
+			addressJ.add(PARAM_STAGES, stagesToJson(histograms));
+			addressesJ.add(addressJ);
+		}
+		jsonObject.add(PARAM_ADDRESSES, addressesJ);
+
+		return jsonObject;
+	}
+
+	private static JsonObject stagesToJson(LatencyHistogram[] histograms) {
+		JsonObject stagesJ = new JsonObject();
+		for (PlcLatencyStage stage : STAGES) {
+			LatencyHistogram histogram = histograms[stage.ordinal()];
+			if (histogram.getCount() > 0)
+				stagesJ.add(stage.name(), histogram.toJson());
+		}
+		return stagesJ;
+	}
+}
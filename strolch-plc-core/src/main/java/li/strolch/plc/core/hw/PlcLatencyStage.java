@@ -0,0 +1,28 @@
+package li.strolch.plc.core.hw;
+
+/**
+ * The stages of the PLC pipeline for which the latency since the ingest of a notification at its connection is
+ * measured
+ */
+public enum PlcLatencyStage {
+
+	/**
+	 * From the ingest until a notification lane takes the notification from its queue
+	 */
+	Queue,
+
+	/**
+	 * From the ingest until all listeners of the address were notified
+	 */
+	Dispatch,
+
+	/**
+	 * From the ingest until the new value was persisted on the PlcAddress resource
+	 */
+	Persist,
+
+	/**
+	 * From the ingest until the notification was sent to the gateway server
+	 */
+	Gateway
+}
@@ -0,0 +1,99 @@
+package li.strolch.plc.core.hw;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>The live input image of the scan cycle of the {@link DefaultPlc}, into which the notification lanes record the
+ * latest value of each address, and from which each scan cycle takes its snapshot.</p>
+ *
+ * <p>The values are kept in segments of 64 addresses, with the boolean values of a segment packed into one word. All
+ * writes are single lock-free writes to one slot, thus notifications on different lanes never contend, and a snapshot
+ * is consistent per address, but not across addresses. Growing the image publishes a larger array of the same
+ * segments, so that concurrent writes to existing addresses are never lost</p>
+ */
+class PlcLiveInputs {
+
+	private static final int SEGMENT_SIZE = 64;
+
+	private static class Segment {
+		private final AtomicLong bits = new AtomicLong();
+		private final AtomicLongArray values = new AtomicLongArray(SEGMENT_SIZE);
+		private final AtomicReferenceArray<Object> objects = new AtomicReferenceArray<>(SEGMENT_SIZE);
+	}
+
+	private volatile Segment[] segments;
+
+	PlcLiveInputs(int capacity) {
+		this.segments = new Segment[0];
+		ensureCapacity(capacity);
+	}
+
+	int getCapacity() {
+		return this.segments.length * SEGMENT_SIZE;
+	}
+
+	synchronized void ensureCapacity(int capacity) {
+		Segment[] current = this.segments;
+		int nrOfSegments = (capacity + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+		if (nrOfSegments <= current.length)
+			return;
+
+		Segment[] segments = Arrays.copyOf(current, Math.max(nrOfSegments, current.length * 2));
+		for (int i = current.length; i < segments.length; i++) {
+			segments[i] = new Segment();
+		}
+		this.segments = segments;
+	}
+
+	private Segment segment(int id) {
+		Segment[] segments = this.segments;
+		int index = id / SEGMENT_SIZE;
+		if (index < segments.length)
+			return segments[index];
+
+		// addresses are added to the image on reconfiguration, so this is only a fallback
+		ensureCapacity(id + 1);
+		return this.segments[index];
+	}
+
+	void setBoolean(int id, boolean value) {
+		AtomicLong bits = segment(id).bits;
+		long mask = 1L << id;
+		long current;
+		long next;
+		do {
+			current = bits.get();
+			next = value ? current | mask : current & ~mask;
+			if (next == current)
+				return;
+		} while (!bits.compareAndSet(current, next));
+	}
+
+	void setLong(int id, long value) {
+		segment(id).values.set(id % SEGMENT_SIZE, value);
+	}
+
+	void setObject(int id, Object value) {
+		segment(id).objects.set(id % SEGMENT_SIZE, value);
+	}
+
+	/**
+	 * Copies the current values into the given process image
+	 */
+	void copyTo(PlcProcessImage image) {
+		Segment[] segments = this.segments;
+		image.ensureCapacity(segments.length * SEGMENT_SIZE);
+		for (int i = 0; i < segments.length; i++) {
+			Segment segment = segments[i];
+			image.setBits(i, segment.bits.get());
+			int offset = i * SEGMENT_SIZE;
+			for (int j = 0; j < SEGMENT_SIZE; j++) {
+				image.setLong(offset + j, segment.values.get(j));
+				image.setObject(offset + j, segment.objects.get(j));
+			}
+		}
+	}
+}
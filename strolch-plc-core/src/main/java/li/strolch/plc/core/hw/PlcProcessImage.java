@@ -0,0 +1,200 @@
+package li.strolch.plc.core.hw;
+
+import li.strolch.plc.model.PlcAddress;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * <p>A process image of the scan cycle of the {@link DefaultPlc}: the values of the addresses indexed by their id,
+ * with boolean values packed into a bitset, integer and long values in a primitive array, and all other values as
+ * references.</p>
+ *
+ * <p>The input image holds the values of the notification addresses as they were at the start of the cycle. It is
+ * consistent per address, but not across addresses: the image is copied without blocking the notifications, so two
+ * addresses which changed while it was copied may show the old value of one and the new value of the other. The
+ * output image holds the values written by the {@link PlcCycleLogic}, and tracks which addresses changed since they
+ * were last flushed, so that only changed outputs are sent.</p>
+ *
+ * <p>A process image is not thread safe, it is only accessed by the scan cycle thread</p>
+ */
+public class PlcProcessImage {
+
+	private final ToIntFunction<PlcAddress> addressIds;
+
+	private long[] bits;
+	private long[] values;
+	private Object[] objects;
+	private long[] changed;
+	private PlcAddress[] addresses;
+
+	PlcProcessImage(int capacity, ToIntFunction<PlcAddress> addressIds) {
+		this.addressIds = addressIds;
+		this.bits = new long[words(capacity)];
+		this.values = new long[capacity];
+		this.objects = new Object[capacity];
+		this.changed = new long[words(capacity)];
+		this.addresses = new PlcAddress[capacity];
+	}
+
+	private static int words(int capacity) {
+		return (capacity + 63) >>> 6;
+	}
+
+	public int getCapacity() {
+		return this.values.length;
+	}
+
+	void ensureCapacity(int capacity) {
+		if (capacity <= this.values.length)
+			return;
+		int newCapacity = Math.max(capacity, this.values.length * 2);
+		this.bits = Arrays.copyOf(this.bits, words(newCapacity));
+		this.values = Arrays.copyOf(this.values, newCapacity);
+		this.objects = Arrays.copyOf(this.objects, newCapacity);
+		this.changed = Arrays.copyOf(this.changed, words(newCapacity));
+		this.addresses = Arrays.copyOf(this.addresses, newCapacity);
+	}
+
+	private int id(PlcAddress address) {
+		int id = this.addressIds.applyAsInt(address);
+		if (id < 0)
+			throw new IllegalArgumentException("Address is not known to the PLC: " + address.toKey());
+		return id;
+	}
+
+	public boolean getBoolean(int id) {
+		return (this.bits[id >>> 6] & (1L << id)) != 0L;
+	}
+
+	public long getLong(int id) {
+		return this.values[id];
+	}
+
+	public int getInteger(int id) {
+		return (int) this.values[id];
+	}
+
+	/**
+	 * @return the value of the given address, if it is neither a boolean, integer nor long
+	 */
+	public Object getObject(int id) {
+		return this.objects[id];
+	}
+
+	public boolean getBoolean(PlcAddress address) {
+		return getBoolean(id(address));
+	}
+
+	public long getLong(PlcAddress address) {
+		return getLong(id(address));
+	}
+
+	public int getInteger(PlcAddress address) {
+		return getInteger(id(address));
+	}
+
+	public Object getObject(PlcAddress address) {
+		return getObject(id(address));
+	}
+
+	/**
+	 * Sets the boolean value of the given address, marking it as changed if the value is different
+	 */
+	public void setBoolean(PlcAddress address, boolean value) {
+		int id = id(address);
+		ensureCapacity(id + 1);
+		if (this.addresses[id] == address && getBoolean(id) == value)
+			return;
+		setBoolean(id, value);
+		markChanged(id, address);
+	}
+
+	/**
+	 * Sets the integer or long value of the given address, marking it as changed if the value is different
+	 */
+	public void setLong(PlcAddress address, long value) {
+		int id = id(address);
+		ensureCapacity(id + 1);
+		if (this.addresses[id] == address && this.values[id] == value)
+			return;
+		this.values[id] = value;
+		markChanged(id, address);
+	}
+
+	/**
+	 * Sets any other value of the given address, marking it as changed if the value is not equal
+	 */
+	public void setObject(PlcAddress address, Object value) {
+		int id = id(address);
+		ensureCapacity(id + 1);
+		if (this.addresses[id] == address && Objects.equals(this.objects[id], value))
+			return;
+		this.objects[id] = value;
+		markChanged(id, address);
+	}
+
+	void setBoolean(int id, boolean value) {
+		if (value)
+			this.bits[id >>> 6] |= 1L << id;
+		else
+			this.bits[id >>> 6] &= ~(1L << id);
+	}
+
+	void setLong(int id, long value) {
+		this.values[id] = value;
+	}
+
+	void setObject(int id, Object value) {
+		this.objects[id] = value;
+	}
+
+	private void markChanged(int id, PlcAddress address) {
+		this.addresses[id] = address;
+		this.changed[id >>> 6] |= 1L << id;
+	}
+
+	/**
+	 * Sets the boolean values of the 64 addresses of the given word at once
+	 */
+	void setBits(int word, long bits) {
+		this.bits[word] = bits;
+	}
+
+	/**
+	 * Returns the changed outputs with their value, and clears the changes
+	 *
+	 * @return the changed values by their address, in the order of their ids, or null if nothing changed
+	 */
+	Map<PlcAddress, Object> drainChanged() {
+		Map<PlcAddress, Object> result = null;
+		for (int word = 0; word < this.changed.length; word++) {
+			long changed = this.changed[word];
+			if (changed == 0L)
+				continue;
+			this.changed[word] = 0L;
+
+			if (result == null)
+				result = new LinkedHashMap<>();
+			while (changed != 0L) {
+				int id = (word << 6) + Long.numberOfTrailingZeros(changed);
+				changed &= changed - 1L;
+				PlcAddress address = this.addresses[id];
+				result.put(address, getValue(id, address));
+			}
+		}
+		return result;
+	}
+
+	private Object getValue(int id, PlcAddress address) {
+		return switch (address.valueType) {
+			case BOOLEAN -> getBoolean(id);
+			case INTEGER -> getInteger(id);
+			case LONG -> getLong(id);
+			default -> this.objects[id];
+		};
+	}
+}
@@ -0,0 +1,80 @@
+package li.strolch.plc.core.hw;
+
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static li.strolch.plc.model.PlcConstants.*;
+
+/**
+ * The statistics of the scan cycle of the {@link Plc}: the execution time of the cycles, the jitter of their start
+ * and the number of overruns, i.e. cycles which took longer than the cycle time
+ */
+public class PlcScanCycleStats {
+
+	private final long cycleTimeMs;
+	private final LatencyHistogram cycleTime;
+	private final LatencyHistogram jitter;
+	private final AtomicLong cycles;
+	private final AtomicLong overruns;
+
+	public PlcScanCycleStats(long cycleTimeMs) {
+		this.cycleTimeMs = cycleTimeMs;
+		this.cycleTime = new LatencyHistogram();
+		this.jitter = new LatencyHistogram();
+		this.cycles = new AtomicLong();
+		this.overruns = new AtomicLong();
+	}
+
+	/**
+	 * Records a completed cycle
+	 *
+	 * @param jitterNanos   the delay of the start of the cycle after its planned start
+	 * @param durationNanos the execution time of the cycle
+	 * @param overrun       true if the cycle did not complete within the cycle time
+	 */
+	void record(long jitterNanos, long durationNanos, boolean overrun) {
+		this.jitter.record(jitterNanos);
+		this.cycleTime.record(durationNanos);
+		this.cycles.incrementAndGet();
+		if (overrun)
+			this.overruns.incrementAndGet();
+	}
+
+	public long getCycleTimeMs() {
+		return this.cycleTimeMs;
+	}
+
+	public LatencyHistogram getCycleTime() {
+		return this.cycleTime;
+	}
+
+	public LatencyHistogram getJitter() {
+		return this.jitter;
+	}
+
+	public long getCycles() {
+		return this.cycles.get();
+	}
+
+	public long getOverruns() {
+		return this.overruns.get();
+	}
+
+	public void reset() {
+		this.cycleTime.reset();
+		this.jitter.reset();
+		this.cycles.set(0L);
+		this.overruns.set(0L);
+	}
+
+	public JsonObject toJson() {
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty(PARAM_CYCLE_TIME_MS, this.cycleTimeMs);
+		jsonObject.addProperty(PARAM_CYCLES, getCycles());
+		jsonObject.addProperty(PARAM_OVERRUNS, getOverruns());
+		jsonObject.add(PARAM_EXECUTION, this.cycleTime.toJson());
+		jsonObject.add(PARAM_JITTER, this.jitter.toJson());
+		return jsonObject;
+	}
+}
@@ -5,6 +5,8 @@ import com.pi4j.io.gpio.event.GpioPinDigitalStateChangeEvent;
 import com.pi4j.io.gpio.event.GpioPinListenerDigital;
 import li.strolch.plc.core.hw.Plc;
 import li.strolch.plc.core.hw.connections.SimplePlcConnection;
+import li.strolch.plc.core.jfr.PlcEvents;
+import li.strolch.plc.core.jfr.PlcInterruptEvent;
 
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +22,7 @@ public class RaspiBcmGpioInputConnection extends SimplePlcConnection {
 	private boolean verbose;
 	private Map<String, Pin> pinsByAddress;
 	private Map<GpioPin, String> addressesByPin;
+	private volatile Map<GpioPin, Integer> addressIdsByPin;
 
 	private boolean inverted;
 	private PinPullResistance pinPullResistance;
@@ -68,6 +71,7 @@ public class RaspiBcmGpioInputConnection extends SimplePlcConnection {
 			GpioController gpioController = PlcGpioController.getInstance();
 
 			this.addressesByPin = new HashMap<>();
+			this.addressIdsByPin = new HashMap<>();
 			for (String address : this.pinsByAddress.keySet()) {
 				Pin pin = this.pinsByAddress.get(address);
 				if (gpioController.getProvisionedPins().stream().map(GpioPin::getPin).anyMatch(pin::equals))
@@ -79,6 +83,7 @@ public class RaspiBcmGpioInputConnection extends SimplePlcConnection {
 				inputPin.addListener((GpioPinListenerDigital) this::handleInterrupt);
 
 				this.addressesByPin.put(inputPin, address);
+				this.addressIdsByPin.put(inputPin, this.plc.getAddressId(address));
 				logger.info("Provisioned input pin  {} for address {}", inputPin, address);
 			}
 
@@ -91,14 +96,39 @@ public class RaspiBcmGpioInputConnection extends SimplePlcConnection {
 	}
 
 	private void handleInterrupt(GpioPinDigitalStateChangeEvent event) {
+		long ingestTime = System.nanoTime();
+		PlcInterruptEvent interruptEvent = PlcEvents.beginInterrupt();
 		if (this.verbose)
 			logger.info("{} {} {}", event.getPin(), event.getState(), event.getEdge());
 
-		String address = this.addressesByPin.get(event.getPin());
 		PinState state = event.getState();
 		if (this.verbose)
-			logger.info("{} has new state {}", address, state);
-		notify(address, this.inverted ? state.isLow() : state.isHigh());
+			logger.info("{} has new state {}", this.addressesByPin.get(event.getPin()), state);
+
+		// the pin might be missing if the event arrives while disconnecting or refreshing the address ids
+		Integer addressId = this.addressIdsByPin.get(event.getPin());
+		if (addressId == null || addressId == -1) {
+			String address = this.addressesByPin.get(event.getPin());
+			if (address == null)
+				logger.warn("{}: Ignoring state change of unprovisioned pin {}", this.id, event.getPin());
+			else
+				notify(address, this.inverted ? state.isLow() : state.isHigh());
+		} else {
+			this.plc.notifyBoolean(addressId, this.inverted ? state.isLow() : state.isHigh(), ingestTime);
+		}
+
+		if (interruptEvent != null)
+			interruptEvent.end(this.id, event.getPin().getName());
+	}
+
+	@Override
+	public void refreshAddressIds() {
+		Map<GpioPin, String> addressesByPin = this.addressesByPin;
+		if (addressesByPin == null)
+			return;
+		Map<GpioPin, Integer> addressIdsByPin = new HashMap<>();
+		addressesByPin.forEach((inputPin, address) -> addressIdsByPin.put(inputPin, this.plc.getAddressId(address)));
+		this.addressIdsByPin = addressIdsByPin;
 	}
 
 	@Override
@@ -115,6 +145,7 @@ public class RaspiBcmGpioInputConnection extends SimplePlcConnection {
 				gpioController.unprovisionPin(inputPin);
 			}
 			this.addressesByPin.clear();
+			this.addressIdsByPin.clear();
 		} catch (Error e) {
 			logger.error("Failed to disconnect {}", this.id, e);
 		}
@@ -86,6 +86,11 @@ public abstract class Multi8BitI2cOutputConnection extends SimplePlcConnection {
 		logger.info("Configured {}", getDescription());
 	}
 
+	@Override
+	public String getBus() {
+		return "i2c-" + this.i2cBusNr;
+	}
+
 	@Override
 	public boolean connect() {
 		if (this.simulated) {
@@ -202,5 +207,66 @@ public abstract class Multi8BitI2cOutputConnection extends SimplePlcConnection {
 		}
 	}
 
-	protected abstract void setPin(int device, int pin, I2CDevice outputDevice, boolean high) throws IOException;
+	/**
+	 * Writes all the given values with one write per device, instead of one write per address
+	 */
+	@Override
+	public void sendBatch(Map<String, Object> values) {
+		if (this.simulated) {
+			logger.warn("{}: Running SIMULATED, NOT CONNECTING!", this.id);
+			return;
+		}
+
+		assertConnected();
+
+		synchronized (this) {
+			byte[] newStates = this.states.clone();
+			boolean[] changed = new boolean[newStates.length];
+			for (Map.Entry<String, Object> entry : values.entrySet()) {
+				String address = entry.getKey();
+				int[] pos = this.positionsByAddress.get(address);
+				if (pos == null)
+					throw new IllegalStateException("Address " + address + " does not exist");
+
+				boolean high = (boolean) entry.getValue();
+
+				// see if we need to invert
+				if (this.inverted)
+					high = !high;
+
+				newStates[pos[0]] = setPinState(newStates[pos[0]], pos[1], high);
+				changed[pos[0]] = true;
+			}
+
+			for (int device = 0; device < newStates.length; device++) {
+				if (!changed[device])
+					continue;
+
+				I2CDevice outputDevice = this.outputDevices[device];
+				try {
+					writeState(device, outputDevice, newStates[device]);
+				} catch (Exception e) {
+					handleBrokenConnection("Failed to write to I2C device at " + getDescription(
+							(byte) outputDevice.getAddress()) + ": " + getExceptionMessageWithCauses(e), e);
+					throw new IllegalStateException(
+							"Failed to write to I2C device at " + getDescription((byte) outputDevice.getAddress()),
+							e);
+				}
+			}
+		}
+	}
+
+	protected void setPin(int device, int pin, I2CDevice outputDevice, boolean high) throws IOException {
+		writeState(device, outputDevice, setPinState(this.states[device], pin, high));
+	}
+
+	/**
+	 * Returns the given state of a device with the given pin set to the given value
+	 */
+	protected abstract byte setPinState(byte state, int pin, boolean high);
+
+	/**
+	 * Writes the given state to the device, and on success keeps it as the current state of the device
+	 */
+	protected abstract void writeState(int device, I2CDevice outputDevice, byte newState) throws IOException;
 }
\ No newline at end of file
@@ -10,6 +10,8 @@ import com.pi4j.wiringpi.Gpio;
 import li.strolch.plc.core.hw.Plc;
 import li.strolch.plc.core.hw.connections.SimplePlcConnection;
 import li.strolch.plc.core.hw.gpio.PlcGpioController;
+import li.strolch.plc.core.jfr.PlcEvents;
+import li.strolch.plc.core.jfr.PlcInterruptEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +41,7 @@ public class PCF8574InputConnection extends SimplePlcConnection {
 	private byte[] addresses;
 	private I2CDevice[] inputDevices;
 	private boolean[][] states;
+	private volatile int[][] addressIds;
 
 	private Map<String, int[]> positionsByAddress;
 
@@ -97,6 +100,11 @@ public class PCF8574InputConnection extends SimplePlcConnection {
 			logger.info("Verbose enabled for connection {}", this.id);
 	}
 
+	@Override
+	public String getBus() {
+		return "i2c-" + this.i2cBusNr;
+	}
+
 	@Override
 	public boolean connect() {
 		if (this.simulated) {
@@ -111,6 +119,8 @@ public class PCF8574InputConnection extends SimplePlcConnection {
 
 		logger.info("{}: Connecting...", this.id);
 
+		resolveAddressIds();
+
 		// initialize
 		try {
 			I2CBus i2cBus = I2CFactory.getInstance(this.i2cBusNr);
@@ -199,6 +209,31 @@ public class PCF8574InputConnection extends SimplePlcConnection {
 		super.disconnect();
 	}
 
+	@Override
+	public void refreshAddressIds() {
+		if (this.addressIds != null)
+			resolveAddressIds();
+	}
+
+	private void resolveAddressIds() {
+		int[][] addressIds = new int[this.addresses.length][8];
+		for (int i = 0; i < this.addresses.length; i++) {
+			for (int j = 0; j < 8; j++) {
+				String address = this.id + "." + i + "." + j;
+				addressIds[i][j] = this.plc.getAddressId(address);
+				if (addressIds[i][j] == -1)
+					logger.warn("No mapping to PlcAddress for hwAddress {}, ignoring changes", address);
+			}
+		}
+		this.addressIds = addressIds;
+	}
+
+	private void notify(int device, int pin, boolean state, long ingestTime) {
+		int addressId = this.addressIds[device][pin];
+		if (addressId != -1)
+			this.plc.queueNotifyBoolean(addressId, state, ingestTime);
+	}
+
 	private void checkInterruptPin() {
 
 		// only if we haven't had an interrupt in a while
@@ -215,7 +250,7 @@ public class PCF8574InputConnection extends SimplePlcConnection {
 					this.interruptGpioPin, currentState, this.interruptChangeState);
 
 			try {
-				handleNewState("interruptFix");
+				handleNewState("interruptFix", System.nanoTime());
 			} catch (Exception e) {
 				handleBrokenConnection("Failed to read new state: " + getExceptionMessageWithCauses(e), e);
 			}
@@ -226,18 +261,23 @@ public class PCF8574InputConnection extends SimplePlcConnection {
 	}
 
 	private void handleInterrupt(GpioPinDigitalStateChangeEvent event) {
+		long ingestTime = System.nanoTime();
 		if (this.verbose)
 			logger.info("{} {} {}", event.getPin(), event.getState(), event.getEdge());
 
 		try {
-			if (event.getState() == this.interruptChangeState)
-				handleNewState("interrupt");
+			if (event.getState() == this.interruptChangeState) {
+				PlcInterruptEvent interruptEvent = PlcEvents.beginInterrupt();
+				handleNewState("interrupt", ingestTime);
+				if (interruptEvent != null)
+					interruptEvent.end(this.id, "interrupt");
+			}
 		} catch (Exception e) {
 			handleBrokenConnection("Failed to read new state: " + getExceptionMessageWithCauses(e), e);
 		}
 	}
 
-	private void handleNewState(String ctx) throws IOException {
+	private void handleNewState(String ctx, long ingestTime) throws IOException {
 
 		for (int i = 0; i < this.inputDevices.length; i++) {
 			I2CDevice i2CDevice = this.inputDevices[i];
@@ -259,10 +299,10 @@ public class PCF8574InputConnection extends SimplePlcConnection {
 
 				if (this.states[i][j] != newState) {
 					this.states[i][j] = newState;
-					String address = this.id + "." + i + "." + j;
-					logger.info("Detected {} = {}{}{} {}", address, newState ? 1 : 0,
-							this.inverted ? " (inverted) " : " (normal) ", asBinary(data), ctx);
-					this.plc.queueNotify(address, newState);
+					if (this.verbose)
+						logger.info("Detected {}.{}.{} = {}{}{} {}", this.id, i, j, newState ? 1 : 0,
+								this.inverted ? " (inverted) " : " (normal) ", asBinary(data), ctx);
+					notify(i, j, newState, ingestTime);
 				}
 			}
 		}
@@ -291,7 +331,7 @@ public class PCF8574InputConnection extends SimplePlcConnection {
 						bitSet = !bitSet;
 
 					this.states[i][j] = bitSet;
-					this.plc.queueNotify(this.id + "." + i + "." + j, this.states[i][j]);
+					notify(i, j, bitSet, System.nanoTime());
 				}
 			} catch (Exception e) {
 				ok = false;
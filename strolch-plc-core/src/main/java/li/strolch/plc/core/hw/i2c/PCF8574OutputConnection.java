@@ -57,14 +57,14 @@ public class PCF8574OutputConnection extends Multi8BitI2cOutputConnection {
 	}
 
 	@Override
-	protected void setPin(int device, int pin, I2CDevice outputDevice, boolean high) throws IOException {
-		byte newState;
-		if (high)
-			newState = clearBit(this.states[device], pin);
-		else
-			newState = setBit(this.states[device], pin);
-
-		logger.info("Setting {}.{}.{} = {} ({})", this.id, device, pin, high ? 0 : 1, asBinary(newState));
+	protected byte setPinState(byte state, int pin, boolean high) {
+		return high ? clearBit(state, pin) : setBit(state, pin);
+	}
+
+	@Override
+	protected void writeState(int device, I2CDevice outputDevice, byte newState) throws IOException {
+		if (this.verbose)
+			logger.info("Setting {}.{} = {}", this.id, device, asBinary(newState));
 
 		outputDevice.write(newState);
 		this.states[device] = newState;
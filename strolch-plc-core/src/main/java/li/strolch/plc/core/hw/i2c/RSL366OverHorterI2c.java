@@ -96,6 +96,11 @@ public class RSL366OverHorterI2c extends SimplePlcConnection {
 		return this.i2cBus.runBusLockedDeviceAction(this.dev.getI2cDevice(), action);
 	}
 
+	@Override
+	public String getBus() {
+		return "i2c-" + this.i2cBusNr;
+	}
+
 	@Override
 	public synchronized boolean connect() {
 		if (this.simulated) {
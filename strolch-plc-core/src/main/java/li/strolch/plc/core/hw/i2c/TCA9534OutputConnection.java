@@ -76,13 +76,12 @@ public class TCA9534OutputConnection extends Multi8BitI2cOutputConnection {
 	}
 
 	@Override
-	protected void setPin(int device, int pin, I2CDevice outputDevice, boolean high) throws IOException {
-		byte newState;
-		if (high)
-			newState = setBit(this.states[device], pin);
-		else
-			newState = clearBit(this.states[device], pin);
+	protected byte setPinState(byte state, int pin, boolean high) {
+		return high ? setBit(state, pin) : clearBit(state, pin);
+	}
 
+	@Override
+	protected void writeState(int device, I2CDevice outputDevice, byte newState) throws IOException {
 		byte writeState = this.reversed ? reverse(newState) : newState;
 
 		if (this.verbose)
@@ -0,0 +1,36 @@
+package li.strolch.plc.core.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted for the transaction which persists a batch of new values of PlcAddress resources
+ */
+@Name("li.strolch.plc.AddressUpdate")
+@Label("PLC Address Update")
+@Category({"Strolch", "PLC"})
+@Description("The transaction persisting a batch of new values of PlcAddresses")
+@StackTrace(false)
+public class PlcAddressUpdateEvent extends Event {
+
+	@Label("Updates")
+	@Description("The number of notifications collected in the batch")
+	public int updates;
+
+	@Label("Addresses")
+	@Description("The number of addresses in the batch, after keeping only the last value per address")
+	public int addresses;
+
+	@Label("Changed")
+	@Description("The number of addresses whose value changed")
+	public int changed;
+
+	public void end(int updates, int addresses, int changed) {
+		end();
+		if (shouldCommit()) {
+			this.updates = updates;
+			this.addresses = addresses;
+			this.changed = changed;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package li.strolch.plc.core.jfr;
+
+import jdk.jfr.EventType;
+
+/**
+ * <p>Creates the JFR events of the PLC, but only if they are enabled in the current recording, so that the hot path
+ * neither allocates nor records anything, if no recording is running.</p>
+ *
+ * <p>The begin methods return null if the event is disabled, the callers must handle this case</p>
+ */
+public final class PlcEvents {
+
+	private static final EventType INTERRUPT = EventType.getEventType(PlcInterruptEvent.class);
+	private static final EventType ENQUEUED = EventType.getEventType(PlcNotificationEnqueuedEvent.class);
+	private static final EventType DEQUEUED = EventType.getEventType(PlcNotificationDequeuedEvent.class);
+	private static final EventType LISTENER = EventType.getEventType(PlcListenerEvent.class);
+	private static final EventType SEND = EventType.getEventType(PlcSendEvent.class);
+	private static final EventType ADDRESS_UPDATE = EventType.getEventType(PlcAddressUpdateEvent.class);
+
+	private PlcEvents() {
+		// utility class
+	}
+
+	public static PlcInterruptEvent beginInterrupt() {
+		if (!INTERRUPT.isEnabled())
+			return null;
+		PlcInterruptEvent event = new PlcInterruptEvent();
+		event.begin();
+		return event;
+	}
+
+	public static boolean isEnqueuedEnabled() {
+		return ENQUEUED.isEnabled();
+	}
+
+	public static boolean isDequeuedEnabled() {
+		return DEQUEUED.isEnabled();
+	}
+
+	public static PlcListenerEvent beginListener() {
+		if (!LISTENER.isEnabled())
+			return null;
+		PlcListenerEvent event = new PlcListenerEvent();
+		event.begin();
+		return event;
+	}
+
+	public static PlcSendEvent beginSend() {
+		if (!SEND.isEnabled())
+			return null;
+		PlcSendEvent event = new PlcSendEvent();
+		event.begin();
+		return event;
+	}
+
+	public static PlcAddressUpdateEvent beginAddressUpdate() {
+		if (!ADDRESS_UPDATE.isEnabled())
+			return null;
+		PlcAddressUpdateEvent event = new PlcAddressUpdateEvent();
+		event.begin();
+		return event;
+	}
+}
@@ -0,0 +1,28 @@
+package li.strolch.plc.core.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted while a connection handles a hardware interrupt, i.e. reads the new state and notifies the changes
+ */
+@Name("li.strolch.plc.Interrupt")
+@Label("PLC Interrupt")
+@Category({"Strolch", "PLC"})
+@Description("A hardware interrupt handled by a PLC connection")
+public class PlcInterruptEvent extends Event {
+
+	@Label("Connection")
+	public String connection;
+
+	@Label("Context")
+	public String context;
+
+	public void end(String connection, String context) {
+		end();
+		if (shouldCommit()) {
+			this.connection = connection;
+			this.context = context;
+			commit();
+		}
+	}
+}
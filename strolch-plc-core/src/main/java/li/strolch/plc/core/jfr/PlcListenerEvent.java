@@ -0,0 +1,29 @@
+package li.strolch.plc.core.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted for each invocation of a {@link li.strolch.plc.core.hw.PlcListener}
+ */
+@Name("li.strolch.plc.Listener")
+@Label("PLC Listener")
+@Category({"Strolch", "PLC"})
+@Description("The invocation of a listener for a notification")
+@StackTrace(false)
+public class PlcListenerEvent extends Event {
+
+	@Label("Address")
+	public String address;
+
+	@Label("Listener")
+	public Class<?> listener;
+
+	public void end(String address, Class<?> listener) {
+		end();
+		if (shouldCommit()) {
+			this.address = address;
+			this.listener = listener;
+			commit();
+		}
+	}
+}
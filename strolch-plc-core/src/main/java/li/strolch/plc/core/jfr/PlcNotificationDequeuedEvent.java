@@ -0,0 +1,24 @@
+package li.strolch.plc.core.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted when a notification lane of the PLC takes a notification from its queue
+ */
+@Name("li.strolch.plc.NotificationDequeued")
+@Label("PLC Notification Dequeued")
+@Category({"Strolch", "PLC"})
+@Description("A notification taken from a notification lane, with the time it spent queued")
+@StackTrace(false)
+public class PlcNotificationDequeuedEvent extends Event {
+
+	@Label("Address")
+	public String address;
+
+	@Label("Lane")
+	public int lane;
+
+	@Label("Queue Time")
+	@Timespan(Timespan.NANOSECONDS)
+	public long queueTime;
+}
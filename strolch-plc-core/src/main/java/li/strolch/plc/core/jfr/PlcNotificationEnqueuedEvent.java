@@ -0,0 +1,26 @@
+package li.strolch.plc.core.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted when a notification is queued on a notification lane of the PLC
+ */
+@Name("li.strolch.plc.NotificationEnqueued")
+@Label("PLC Notification Enqueued")
+@Category({"Strolch", "PLC"})
+@Description("A notification queued on a notification lane")
+@StackTrace(false)
+public class PlcNotificationEnqueuedEvent extends Event {
+
+	@Label("Address")
+	public String address;
+
+	@Label("Lane")
+	public int lane;
+
+	@Label("Conflating")
+	public boolean conflating;
+
+	@Label("Queue Depth")
+	public int queueDepth;
+}
@@ -0,0 +1,28 @@
+package li.strolch.plc.core.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted while a value is sent to a {@link li.strolch.plc.core.hw.PlcConnection}
+ */
+@Name("li.strolch.plc.Send")
+@Label("PLC Send")
+@Category({"Strolch", "PLC"})
+@Description("A value sent to the hardware by a PLC connection")
+public class PlcSendEvent extends Event {
+
+	@Label("Connection")
+	public String connection;
+
+	@Label("Address")
+	public String address;
+
+	public void end(String connection, String address) {
+		end();
+		if (shouldCommit()) {
+			this.connection = connection;
+			this.address = address;
+			commit();
+		}
+	}
+}
@@ -1,9 +1,9 @@
 package li.strolch.plc.core.service.plc;
 
 import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.plc.core.PlcAddressHandle;
 import li.strolch.plc.core.PlcHandler;
 import li.strolch.plc.core.PlcService;
-import li.strolch.plc.model.PlcAddress;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -30,6 +30,11 @@ public class ExamplePlcConveyorPlcService extends PlcService {
 	private AtomicBoolean conveyor3On;
 	private AtomicBoolean conveyor4On;
 
+	private PlcAddressHandle conveyor1OccupiedHandle;
+	private PlcAddressHandle conveyor2OccupiedHandle;
+	private PlcAddressHandle conveyor3OccupiedHandle;
+	private PlcAddressHandle conveyor4OccupiedHandle;
+
 	private final AtomicBoolean conveyor1WaitingForTransfer;
 	private final AtomicBoolean conveyor2WaitingForTransfer;
 	private final AtomicBoolean conveyor3WaitingForTransfer;
@@ -43,61 +48,33 @@ public class ExamplePlcConveyorPlcService extends PlcService {
 	}
 
 	@Override
-	public void handleNotification(PlcAddress address, Object value) {
-
-		String resource = address.resource;
-		String action = address.action;
-		boolean state = (boolean) value;
-
-		switch (resource) {
-			case R_CONVEYOR_01 -> {
-
-				if (action.equals(A_OCCUPIED)) {
-					conveyor1Occupied.set(state);
-					handleTransfer(null, R_CONVEYOR_01, R_CONVEYOR_02, //
-							null, conveyor1Occupied, conveyor2Occupied, //
-							null, conveyor1On, conveyor2On, //
-							null, conveyor1WaitingForTransfer);
-				} else {
-					logger.error("Unhandled action {}-{}", resource, action);
-				}
-			}
-			case R_CONVEYOR_02 -> {
-
-				if (action.equals(A_OCCUPIED)) {
-					conveyor2Occupied.set(state);
-					handleTransfer(R_CONVEYOR_01, R_CONVEYOR_02, R_CONVEYOR_03, //
-							conveyor1Occupied, conveyor2Occupied, conveyor3Occupied, //
-							conveyor1On, conveyor2On, conveyor3On, //
-							conveyor1WaitingForTransfer, conveyor2WaitingForTransfer);
-				} else {
-					logger.error("Unhandled action {}-{}", resource, action);
-				}
-			}
-			case R_CONVEYOR_03 -> {
-
-				if (action.equals(A_OCCUPIED)) {
-					conveyor3Occupied.set(state);
-					handleTransfer(R_CONVEYOR_02, R_CONVEYOR_03, R_CONVEYOR_04, //
-							conveyor2Occupied, conveyor3Occupied, conveyor4Occupied, //
-							conveyor2On, conveyor3On, conveyor4On, //
-							conveyor2WaitingForTransfer, conveyor3WaitingForTransfer);
-				} else {
-					logger.error("Unhandled action {}-{}", resource, action);
-				}
-			}
-			case R_CONVEYOR_04 -> {
-
-				if (action.equals(A_OCCUPIED)) {
-					conveyor4Occupied.set(state);
-					handleTransfer(R_CONVEYOR_03, R_CONVEYOR_04, null, //
-							conveyor3Occupied, conveyor4Occupied, null, //
-							conveyor3On, conveyor4On, null, //
-							conveyor3WaitingForTransfer, null);
-				} else {
-					logger.error("Unhandled action {}-{}", resource, action);
-				}
-			}
+	protected void onBoolean(PlcAddressHandle handle, boolean state) {
+		if (handle == this.conveyor1OccupiedHandle) {
+			conveyor1Occupied.set(state);
+			handleTransfer(null, R_CONVEYOR_01, R_CONVEYOR_02, //
+					null, conveyor1Occupied, conveyor2Occupied, //
+					null, conveyor1On, conveyor2On, //
+					null, conveyor1WaitingForTransfer);
+		} else if (handle == this.conveyor2OccupiedHandle) {
+			conveyor2Occupied.set(state);
+			handleTransfer(R_CONVEYOR_01, R_CONVEYOR_02, R_CONVEYOR_03, //
+					conveyor1Occupied, conveyor2Occupied, conveyor3Occupied, //
+					conveyor1On, conveyor2On, conveyor3On, //
+					conveyor1WaitingForTransfer, conveyor2WaitingForTransfer);
+		} else if (handle == this.conveyor3OccupiedHandle) {
+			conveyor3Occupied.set(state);
+			handleTransfer(R_CONVEYOR_02, R_CONVEYOR_03, R_CONVEYOR_04, //
+					conveyor2Occupied, conveyor3Occupied, conveyor4Occupied, //
+					conveyor2On, conveyor3On, conveyor4On, //
+					conveyor2WaitingForTransfer, conveyor3WaitingForTransfer);
+		} else if (handle == this.conveyor4OccupiedHandle) {
+			conveyor4Occupied.set(state);
+			handleTransfer(R_CONVEYOR_03, R_CONVEYOR_04, null, //
+					conveyor3Occupied, conveyor4Occupied, null, //
+					conveyor3On, conveyor4On, null, //
+					conveyor3WaitingForTransfer, null);
+		} else {
+			logger.error("Unhandled action {}-{}", handle.resource(), handle.action());
 		}
 	}
 
@@ -214,10 +191,10 @@ public class ExamplePlcConveyorPlcService extends PlcService {
 
 	@Override
 	public void register() {
-		register(R_CONVEYOR_01, A_OCCUPIED);
-		register(R_CONVEYOR_02, A_OCCUPIED);
-		register(R_CONVEYOR_03, A_OCCUPIED);
-		register(R_CONVEYOR_04, A_OCCUPIED);
+		this.conveyor1OccupiedHandle = registerHandle(R_CONVEYOR_01, A_OCCUPIED);
+		this.conveyor2OccupiedHandle = registerHandle(R_CONVEYOR_02, A_OCCUPIED);
+		this.conveyor3OccupiedHandle = registerHandle(R_CONVEYOR_03, A_OCCUPIED);
+		this.conveyor4OccupiedHandle = registerHandle(R_CONVEYOR_04, A_OCCUPIED);
 
 		register(R_CONVEYOR_03, A_BARCODE);
 		super.register();
@@ -0,0 +1,27 @@
+package li.strolch.plc.core;
+
+import li.strolch.model.StrolchValueType;
+import li.strolch.plc.model.PlcAddress;
+import li.strolch.plc.model.PlcAddressType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlcAddressValuesTest {
+
+	@Test
+	public void shouldReportInvalidatedValueAsChanged() {
+		PlcAddress address = new PlcAddress(PlcAddressType.Notification, "Conveyor01", "Occupied",
+				"VirtualBoolean.occupied", StrolchValueType.BOOLEAN, false, false, false);
+		PlcAddressValues values = new PlcAddressValues(new PlcAddress[] { address });
+
+		assertTrue(values.update(0, true));
+		assertFalse(values.update(0, true));
+
+		// e.g. persisting the value failed
+		values.invalidate(0);
+		assertTrue(values.update(0, true));
+		assertFalse(values.update(0, true));
+	}
+}
@@ -0,0 +1,164 @@
+package li.strolch.plc.core;
+
+import li.strolch.model.Resource;
+import li.strolch.model.parameter.StringListParameter;
+import li.strolch.model.parameter.StringParameter;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.plc.core.hw.DefaultPlc;
+import li.strolch.plc.model.PlcAddress;
+import li.strolch.plc.model.PlcAddressType;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.testbase.runtime.RuntimeMock;
+import li.strolch.utils.collections.MapOfMaps;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static li.strolch.model.StrolchModelConstants.BAG_PARAMETERS;
+import static li.strolch.model.StrolchModelConstants.BAG_RELATIONS;
+import static li.strolch.plc.model.PlcConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the bulk loading of the addresses and telegrams by the {@link PlcConfigurator} with resolving the relations
+ * of each logical device by querying the model, for 10k addresses. Only runs if the system property
+ * {@code plc.benchmark} is set to true, e.g. with {@code mvn test -Dplc.benchmark=true}
+ */
+public class PlcConfiguratorBenchmarkTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(PlcConfiguratorBenchmarkTest.class);
+	private static final String SRC_RUNTIME = "src/test/resources/test-runtime";
+	private static final String TARGET_PATH = "target/" + PlcConfiguratorBenchmarkTest.class.getSimpleName();
+
+	private static final int NR_OF_DEVICES = 100;
+	private static final int NR_OF_ADDRESSES = 100;
+	private static final int ITERATIONS = 5;
+
+	private static RuntimeMock runtimeMock;
+	private static Certificate cert;
+
+	@BeforeClass
+	public static void beforeClass() {
+		Assume.assumeTrue("Benchmark is disabled, enable with -Dplc.benchmark=true",
+				Boolean.getBoolean("plc.benchmark"));
+
+		runtimeMock = new RuntimeMock().mockRuntime(TARGET_PATH, SRC_RUNTIME);
+		runtimeMock.startContainer();
+		cert = runtimeMock.loginAdmin();
+
+		try (StrolchTransaction tx = runtimeMock.openUserTx(cert, false)) {
+			Resource deviceTemplate = tx.getResourceBy(TYPE_PLC_LOGICAL_DEVICE, "plc", true);
+			Resource addressTemplate = tx.getResourceBy(TYPE_PLC_ADDRESS, "addrPlcStarted", true);
+
+			for (int d = 0; d < NR_OF_DEVICES; d++) {
+				List<String> addressIds = new ArrayList<>();
+				for (int a = 0; a < NR_OF_ADDRESSES; a++) {
+					Resource address = addressTemplate.getClone();
+					address.setId("addrBench" + d + "_" + a);
+					StringParameter addressP = address.getParameter(BAG_PARAMETERS, PARAM_ADDRESS, true);
+					addressP.setValue("VirtualBoolean.bench" + d + "_" + a);
+					StringParameter resourceP = address.getParameter(BAG_PARAMETERS, PARAM_RESOURCE, true);
+					resourceP.setValue("Bench" + d);
+					StringParameter actionP = address.getParameter(BAG_PARAMETERS, PARAM_ACTION, true);
+					actionP.setValue("Action" + a);
+					tx.add(address);
+					addressIds.add(address.getId());
+				}
+
+				Resource device = deviceTemplate.getClone();
+				device.setId("bench" + d);
+				StringListParameter addressesP = device.getParameter(BAG_RELATIONS, PARAM_ADDRESSES, true);
+				addressesP.setValue(addressIds);
+				StringListParameter telegramsP = device.getParameter(BAG_RELATIONS, PARAM_TELEGRAMS, true);
+				telegramsP.setValue(List.of());
+				tx.add(device);
+			}
+
+			tx.commitOnClose();
+		}
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		if (cert != null)
+			runtimeMock.logout(cert);
+		if (runtimeMock != null)
+			runtimeMock.destroyRuntime();
+	}
+
+	@Test
+	public void shouldBulkConfigure10kAddresses() throws Exception {
+		try (StrolchTransaction tx = runtimeMock.openUserTx(cert, true)) {
+
+			// warm up, so that the first measurement does not pay for class loading and JIT
+			int resolved = resolveRelations(tx);
+			int sequential = configure(tx, false);
+			int parallel = configure(tx, true);
+			assertTrue(resolved >= NR_OF_DEVICES * NR_OF_ADDRESSES);
+			assertEquals(resolved, sequential);
+			assertEquals(resolved, parallel);
+
+			// the best of a few runs, so that a single GC pause does not decide the comparison
+			long relationsNanos = Long.MAX_VALUE;
+			long sequentialNanos = Long.MAX_VALUE;
+			long parallelNanos = Long.MAX_VALUE;
+			for (int i = 0; i < ITERATIONS; i++) {
+				long start = System.nanoTime();
+				resolveRelations(tx);
+				relationsNanos = Math.min(relationsNanos, System.nanoTime() - start);
+
+				start = System.nanoTime();
+				configure(tx, false);
+				sequentialNanos = Math.min(sequentialNanos, System.nanoTime() - start);
+
+				start = System.nanoTime();
+				configure(tx, true);
+				parallelNanos = Math.min(parallelNanos, System.nanoTime() - start);
+			}
+
+			logger.info("Resolving relations of {} addresses per logical device took {}ms", resolved,
+					relationsNanos / 1_000_000L);
+			logger.info("Bulk configuring {} addresses took {}ms sequential and {}ms parallel", sequential,
+					sequentialNanos / 1_000_000L, parallelNanos / 1_000_000L);
+
+			// the bulk configuration builds the whole Plc in less time than only resolving the relations per device
+			assertTrue(sequentialNanos < relationsNanos);
+		}
+	}
+
+	/**
+	 * Resolves the addresses and telegrams of each logical device by querying the model, as the configurator did
+	 * before loading them in bulk
+	 *
+	 * @return the number of resolved addresses
+	 */
+	private static int resolveRelations(StrolchTransaction tx) {
+		int resolved = 0;
+		for (Resource device : tx.streamResources(TYPE_PLC_LOGICAL_DEVICE).toList()) {
+			resolved += tx.getResourcesByRelation(device, PARAM_ADDRESSES, true).size();
+			tx.getResourcesByRelation(device, PARAM_TELEGRAMS, false);
+		}
+		return resolved;
+	}
+
+	private static int configure(StrolchTransaction tx, boolean parallel) throws Exception {
+		String plcClassName = DefaultPlc.class.getName();
+		MapOfMaps<String, String, PlcAddress> plcAddresses = new MapOfMaps<>();
+		MapOfMaps<String, String, PlcAddress> plcTelegrams = new MapOfMaps<>();
+		Map<PlcAddress, String> addressesToResourceId = new HashMap<>();
+		PlcConfigurator.configurePlc(tx, plcClassName, parallel, plcAddresses, plcTelegrams, addressesToResourceId);
+		return (int) addressesToResourceId.keySet()
+				.stream()
+				.filter(a -> a.type == PlcAddressType.Notification)
+				.count();
+	}
+}
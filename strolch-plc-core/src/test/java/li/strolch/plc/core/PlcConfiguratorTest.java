@@ -0,0 +1,144 @@
+package li.strolch.plc.core;
+
+import li.strolch.model.Resource;
+import li.strolch.model.parameter.StringListParameter;
+import li.strolch.model.parameter.StringParameter;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.plc.core.hw.DefaultPlc;
+import li.strolch.plc.core.hw.Plc;
+import li.strolch.plc.model.PlcAddress;
+import li.strolch.plc.model.PlcAddressType;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.testbase.runtime.RuntimeMock;
+import li.strolch.utils.collections.MapOfMaps;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static li.strolch.model.StrolchModelConstants.BAG_PARAMETERS;
+import static li.strolch.model.StrolchModelConstants.BAG_RELATIONS;
+import static li.strolch.plc.model.PlcConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class PlcConfiguratorTest {
+
+	private static final String SRC_RUNTIME = "src/test/resources/test-runtime";
+	private static final String TARGET_PATH = "target/" + PlcConfiguratorTest.class.getSimpleName();
+
+	private static final int NR_OF_DEVICES = 3;
+	private static final int NR_OF_ADDRESSES = 4;
+
+	private static RuntimeMock runtimeMock;
+	private static Certificate cert;
+
+	@BeforeClass
+	public static void beforeClass() {
+		runtimeMock = new RuntimeMock().mockRuntime(TARGET_PATH, SRC_RUNTIME);
+		runtimeMock.startContainer();
+		cert = runtimeMock.loginAdmin();
+
+		try (StrolchTransaction tx = runtimeMock.openUserTx(cert, false)) {
+			Resource deviceTemplate = tx.getResourceBy(TYPE_PLC_LOGICAL_DEVICE, "plc", true);
+			Resource addressTemplate = tx.getResourceBy(TYPE_PLC_ADDRESS, "addrPlcStarted", true);
+
+			for (int d = 0; d < NR_OF_DEVICES; d++) {
+				List<String> addressIds = new ArrayList<>();
+				for (int a = 0; a < NR_OF_ADDRESSES; a++) {
+					Resource address = addressTemplate.getClone();
+					address.setId("addrConf" + d + "_" + a);
+					StringParameter addressP = address.getParameter(BAG_PARAMETERS, PARAM_ADDRESS, true);
+					addressP.setValue("VirtualBoolean.conf" + d + "_" + a);
+					StringParameter resourceP = address.getParameter(BAG_PARAMETERS, PARAM_RESOURCE, true);
+					resourceP.setValue("Conf" + d);
+					StringParameter actionP = address.getParameter(BAG_PARAMETERS, PARAM_ACTION, true);
+					actionP.setValue("Action" + a);
+					tx.add(address);
+					addressIds.add(address.getId());
+				}
+
+				Resource device = deviceTemplate.getClone();
+				device.setId("conf" + d);
+				StringListParameter addressesP = device.getParameter(BAG_RELATIONS, PARAM_ADDRESSES, true);
+				addressesP.setValue(addressIds);
+				StringListParameter telegramsP = device.getParameter(BAG_RELATIONS, PARAM_TELEGRAMS, true);
+				telegramsP.setValue(List.of());
+				tx.add(device);
+			}
+
+			tx.commitOnClose();
+		}
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		if (cert != null)
+			runtimeMock.logout(cert);
+		if (runtimeMock != null)
+			runtimeMock.destroyRuntime();
+	}
+
+	@Test
+	public void shouldConfigureRelationsOfLogicalDevices() throws Exception {
+		try (StrolchTransaction tx = runtimeMock.openUserTx(cert, true)) {
+			MapOfMaps<String, String, PlcAddress> plcAddresses = new MapOfMaps<>();
+			MapOfMaps<String, String, PlcAddress> plcTelegrams = new MapOfMaps<>();
+			Map<PlcAddress, String> addressesToResourceId = new HashMap<>();
+			PlcConfigurator.configurePlc(tx, DefaultPlc.class.getName(), false, plcAddresses, plcTelegrams,
+					addressesToResourceId);
+
+			// the bulk loaded addresses and telegrams must be the ones found by querying the relations
+			for (Resource device : tx.streamResources(TYPE_PLC_LOGICAL_DEVICE).toList()) {
+				for (Resource addressRes : tx.getResourcesByRelation(device, PARAM_ADDRESSES, true)) {
+					PlcAddress address = plcAddresses.getElement(addressRes.getString(PARAM_RESOURCE),
+							addressRes.getString(PARAM_ACTION));
+					assertNotNull(addressRes.getId() + " is not configured", address);
+					assertEquals(addressRes.getString(PARAM_ADDRESS), address.address);
+					assertEquals(PlcAddressType.Notification, address.type);
+					assertEquals(addressRes.getId(), addressesToResourceId.get(address));
+				}
+				for (Resource telegramRes : tx.getResourcesByRelation(device, PARAM_TELEGRAMS, true)) {
+					PlcAddress telegram = plcTelegrams.getElement(telegramRes.getString(PARAM_RESOURCE),
+							telegramRes.getString(PARAM_ACTION));
+					assertNotNull(telegramRes.getId() + " is not configured", telegram);
+					assertEquals(telegramRes.getString(PARAM_ADDRESS), telegram.address);
+					assertEquals(PlcAddressType.Telegram, telegram.type);
+				}
+			}
+
+			for (int a = 0; a < NR_OF_ADDRESSES; a++) {
+				assertNotNull(plcAddresses.getElement("Conf1", "Action" + a));
+			}
+		}
+	}
+
+	@Test
+	public void shouldConfigureSameInParallel() throws Exception {
+		try (StrolchTransaction tx = runtimeMock.openUserTx(cert, true)) {
+			MapOfMaps<String, String, PlcAddress> sequentialAddresses = new MapOfMaps<>();
+			Map<PlcAddress, String> sequentialResourceIds = new HashMap<>();
+			Plc sequential = PlcConfigurator.configurePlc(tx, DefaultPlc.class.getName(), false, sequentialAddresses,
+					new MapOfMaps<>(), sequentialResourceIds);
+
+			MapOfMaps<String, String, PlcAddress> parallelAddresses = new MapOfMaps<>();
+			Map<PlcAddress, String> parallelResourceIds = new HashMap<>();
+			Plc parallel = PlcConfigurator.configurePlc(tx, DefaultPlc.class.getName(), true, parallelAddresses,
+					new MapOfMaps<>(), parallelResourceIds);
+
+			// addresses are registered in relation order, thus they must have the same ids
+			assertEquals(sequentialResourceIds, parallelResourceIds);
+			for (PlcAddress address : sequentialResourceIds.keySet()) {
+				if (address.type != PlcAddressType.Notification)
+					continue;
+				PlcAddress parallelAddress = parallelAddresses.getElement(address.resource, address.action);
+				assertEquals(address.address, parallelAddress.address);
+				assertEquals(sequential.getAddressId(address), parallel.getAddressId(parallelAddress));
+			}
+		}
+	}
+}
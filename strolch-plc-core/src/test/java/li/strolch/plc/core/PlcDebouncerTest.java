@@ -0,0 +1,86 @@
+package li.strolch.plc.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.*;
+
+public class PlcDebouncerTest {
+
+	@Test
+	public void shouldOnlyRunLastArmedTask() {
+		PlcDebouncer debouncer = new PlcDebouncer(10L, 8);
+		PlcDebouncer.Timer timer = debouncer.newTimer(Runnable::run, e -> fail(e.getMessage()));
+		List<Integer> fired = new ArrayList<>();
+
+		long now = System.nanoTime();
+		for (int i = 0; i < 1000; i++) {
+			int value = i;
+			debouncer.arm(timer, () -> fired.add(value), MILLISECONDS.toNanos(50L), now);
+		}
+		assertEquals(1, debouncer.getPendingTimers());
+
+		debouncer.tick(now + MILLISECONDS.toNanos(40L));
+		assertTrue(fired.isEmpty());
+		assertTrue(debouncer.isArmed(timer));
+
+		// more than one revolution of the wheel
+		debouncer.tick(now + MILLISECONDS.toNanos(200L));
+		assertEquals(List.of(999), fired);
+		assertFalse(debouncer.isArmed(timer));
+		assertEquals(0, debouncer.getPendingTimers());
+		assertEquals(1L, debouncer.getFiredTimers());
+		assertEquals(1L, debouncer.getFireLateness().getCount());
+	}
+
+	@Test
+	public void shouldKeepTimersBeyondOneRevolution() {
+		PlcDebouncer debouncer = new PlcDebouncer(10L, 8);
+		AtomicInteger fired = new AtomicInteger();
+		PlcDebouncer.Timer shortTimer = debouncer.newTimer(Runnable::run, e -> fail(e.getMessage()));
+		PlcDebouncer.Timer longTimer = debouncer.newTimer(Runnable::run, e -> fail(e.getMessage()));
+
+		long now = System.nanoTime();
+		debouncer.arm(shortTimer, fired::incrementAndGet, MILLISECONDS.toNanos(20L), now);
+		debouncer.arm(longTimer, fired::incrementAndGet, MILLISECONDS.toNanos(500L), now);
+
+		debouncer.tick(now + MILLISECONDS.toNanos(100L));
+		assertEquals(1, fired.get());
+		assertTrue(debouncer.isArmed(longTimer));
+
+		debouncer.cancel(longTimer);
+		debouncer.tick(now + MILLISECONDS.toNanos(600L));
+		assertEquals(1, fired.get());
+		assertEquals(0, debouncer.getPendingTimers());
+	}
+
+	@Test
+	public void shouldNotRunTaskCancelledAfterExpiry() {
+		PlcDebouncer debouncer = new PlcDebouncer(10L, 8);
+		List<Runnable> queued = new ArrayList<>();
+		PlcDebouncer.Timer timer = debouncer.newTimer(queued::add, e -> fail(e.getMessage()));
+		AtomicInteger fired = new AtomicInteger();
+
+		long now = System.nanoTime();
+		debouncer.arm(timer, fired::incrementAndGet, MILLISECONDS.toNanos(20L), now);
+		debouncer.tick(now + MILLISECONDS.toNanos(100L));
+
+		// the task is only handed to the executor, and must not run once the timer was cancelled
+		assertEquals(1, queued.size());
+		assertEquals(0, fired.get());
+		debouncer.cancel(timer);
+		queued.forEach(Runnable::run);
+		assertEquals(0, fired.get());
+
+		// a re-armed timer only runs its latest task
+		queued.clear();
+		debouncer.arm(timer, fired::incrementAndGet, MILLISECONDS.toNanos(20L), now + MILLISECONDS.toNanos(100L));
+		debouncer.tick(now + MILLISECONDS.toNanos(200L));
+		queued.forEach(Runnable::run);
+		assertEquals(1, fired.get());
+	}
+}
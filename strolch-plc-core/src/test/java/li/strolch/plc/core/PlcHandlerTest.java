@@ -102,11 +102,76 @@ public class PlcHandlerTest {
 		Thread.sleep(50L);
 		assertTrue(value.get());
 		assertTrue(getAddress(addressId).getBoolean(PARAM_VALUE));
+		assertTrue(plcHandler.<Boolean>getAddressValue("PLC", "Running"));
 
 		plcHandler.send("PLC", "NotRunning");
 		Thread.sleep(50L);
 		assertFalse(value.get());
 		assertFalse(getAddress(addressId).getBoolean(PARAM_VALUE));
+		assertFalse(plcHandler.<Boolean>getAddressValue("PLC", "Running"));
+	}
+
+	@Test
+	public void shouldAlternateTelegramsOfOneAddress() throws InterruptedException {
+
+		PlcHandler plcHandler = runtimeMock.getComponent(PlcHandler.class);
+		String addressId = plcHandler.getPlcAddressId("Lamp", "State");
+		assertFalse(getAddress(addressId).getBoolean(PARAM_VALUE));
+
+		for (int i = 0; i < 3; i++) {
+			plcHandler.send("Lamp", "SwitchOn");
+			Thread.sleep(50L);
+			assertTrue(getAddress(addressId).getBoolean(PARAM_VALUE));
+			assertTrue(plcHandler.<Boolean>getAddressValue("Lamp", "State"));
+
+			plcHandler.send("Lamp", "SwitchOff");
+			Thread.sleep(50L);
+			assertFalse(getAddress(addressId).getBoolean(PARAM_VALUE));
+			assertFalse(plcHandler.<Boolean>getAddressValue("Lamp", "State"));
+		}
+	}
+
+	@Test
+	public void shouldNotPersistVolatileAddress() throws InterruptedException {
+
+		PlcHandler plcHandler = runtimeMock.getComponent(PlcHandler.class);
+		String addressId = plcHandler.getPlcAddressId("Fan", "Running");
+		AtomicBoolean value = new AtomicBoolean();
+		plcHandler.register("Fan", "Start", (address, v) -> value.set((Boolean) v));
+
+		plcHandler.send("Fan", "Start");
+		Thread.sleep(50L);
+		assertTrue(value.get());
+		assertTrue(plcHandler.<Boolean>getAddressValue("Fan", "Running"));
+		assertFalse(getAddress(addressId).getBoolean(PARAM_VALUE));
+
+		plcHandler.send("Fan", "Stop");
+		Thread.sleep(50L);
+		assertFalse(plcHandler.<Boolean>getAddressValue("Fan", "Running"));
+		assertFalse(getAddress(addressId).getBoolean(PARAM_VALUE));
+	}
+
+	@Test
+	public void shouldPersistSampledAddressOncePerInterval() throws InterruptedException {
+
+		PlcHandler plcHandler = runtimeMock.getComponent(PlcHandler.class);
+		String addressId = plcHandler.getPlcAddressId("Fan", "Speed");
+
+		// the first change is persisted immediately
+		plcHandler.send("Fan", "SetSpeed", 1);
+		Thread.sleep(50L);
+		assertEquals(1, (int) getAddress(addressId).getInteger(PARAM_VALUE));
+
+		// further changes within the interval are only kept in memory
+		plcHandler.send("Fan", "SetSpeed", 2);
+		plcHandler.send("Fan", "SetSpeed", 3);
+		Thread.sleep(50L);
+		assertEquals(3, (int) plcHandler.<Integer>getAddressValue("Fan", "Speed"));
+		assertEquals(1, (int) getAddress(addressId).getInteger(PARAM_VALUE));
+
+		// and the last value is persisted at the end of the interval
+		Thread.sleep(600L);
+		assertEquals(3, (int) getAddress(addressId).getInteger(PARAM_VALUE));
 	}
 
 	private Resource getAddress(String addressId) {
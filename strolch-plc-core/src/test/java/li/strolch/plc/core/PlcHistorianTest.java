@@ -0,0 +1,82 @@
+package li.strolch.plc.core;
+
+import li.strolch.model.StrolchValueType;
+import li.strolch.plc.model.PlcAddress;
+import li.strolch.plc.model.PlcAddressType;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PlcHistorianTest {
+
+	private static final int SEGMENT_SIZE = PlcHistorian.HEADER_SIZE + 4 * PlcHistorian.RECORD_SIZE;
+
+	private static PlcAddress[] addresses() {
+		return new PlcAddress[]{ //
+				new PlcAddress(PlcAddressType.Notification, "Conveyor03", "Occupied", "io.in01",
+						StrolchValueType.BOOLEAN, false, false, false), //
+				new PlcAddress(PlcAddressType.Notification, "Conveyor03", "Speed", "io.in02",
+						StrolchValueType.INTEGER, 0, false, false)};
+	}
+
+	private static List<Long> query(PlcHistorian historian, String key, long bucket) throws IOException {
+		List<Long> values = new ArrayList<>();
+		assertTrue(historian.query(key, 0L, Long.MAX_VALUE, bucket, (timestamp, kind, payload) -> values.add(payload)));
+		return values;
+	}
+
+	@Test
+	public void shouldRotateAndReopen() throws IOException {
+		File path = Files.createTempDirectory("plc_historian").toFile();
+
+		PlcHistorian historian = new PlcHistorian(path, SEGMENT_SIZE, 2);
+		historian.setAddresses(addresses());
+		for (int i = 0; i < 10; i++) {
+			historian.record(0, i % 2 == 0);
+			historian.record(1, i);
+		}
+		historian.close();
+
+		// 20 records in segments of 4 records, of which only the last 2 segments are kept
+		assertEquals(List.of(6L, 7L, 8L, 9L), query(historian, "Conveyor03-Speed", 0L));
+		assertEquals(List.of(1L, 0L, 1L, 0L), query(historian, "Conveyor03-Occupied", 0L));
+		assertFalse(historian.query("Conveyor03-Unknown", 0L, Long.MAX_VALUE, 0L, (t, k, p) -> fail()));
+
+		PlcHistorian reopened = new PlcHistorian(path, SEGMENT_SIZE, 2);
+		reopened.setAddresses(addresses());
+		reopened.record(1, 10);
+
+		// the last segment was full, so the new record rolled the oldest segment away
+		assertEquals(List.of(8L, 9L, 10L), query(reopened, "Conveyor03-Speed", 0L));
+		assertEquals(List.of(10L), query(reopened, "Conveyor03-Speed", Long.MAX_VALUE));
+		reopened.close();
+	}
+
+	@Test
+	public void shouldStampRecordsWithIngestTime() throws IOException {
+		File path = Files.createTempDirectory("plc_historian").toFile();
+
+		PlcHistorian historian = new PlcHistorian(path, SEGMENT_SIZE, 2);
+		historian.setAddresses(addresses());
+		assertTrue(historian.isKnown("Conveyor03-Speed"));
+		assertFalse(historian.isKnown("Conveyor03-Unknown"));
+
+		// ingested 10s ago, e.g. delayed by a batch window
+		long before = System.currentTimeMillis();
+		historian.record(1, 1, System.nanoTime() - TimeUnit.SECONDS.toNanos(10L));
+
+		List<Long> timestamps = new ArrayList<>();
+		historian.query("Conveyor03-Speed", 0L, Long.MAX_VALUE, 0L,
+				(timestamp, kind, payload) -> timestamps.add(timestamp));
+		assertEquals(1, timestamps.size());
+		assertTrue(timestamps.get(0) <= before - 9000L);
+		historian.close();
+	}
+}
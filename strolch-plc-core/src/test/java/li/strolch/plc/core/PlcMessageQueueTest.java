@@ -0,0 +1,156 @@
+package li.strolch.plc.core;
+
+import li.strolch.model.Locator;
+import li.strolch.model.log.LogMessage;
+import li.strolch.model.log.LogMessageState;
+import li.strolch.model.log.LogSeverity;
+import li.strolch.plc.model.PlcAddress;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import static java.util.stream.Collectors.toList;
+import static li.strolch.runtime.StrolchConstants.DEFAULT_REALM;
+import static org.junit.Assert.*;
+
+public class PlcMessageQueueTest {
+
+	private static final ResourceBundle BUNDLE = ResourceBundle.getBundle("plc-message-queue-test");
+
+	private PlcMessageQueue queue;
+	private RecordingListener listener;
+
+	@Before
+	public void before() {
+		this.queue = new PlcMessageQueue(10);
+		this.listener = new RecordingListener();
+	}
+
+	private static Locator locator(String conveyor) {
+		return Locator.valueOf("Plc", "plc", "Conveyor", conveyor);
+	}
+
+	private static LogMessage message(String conveyor) {
+		return new LogMessage(DEFAULT_REALM, "plc", locator(conveyor), LogSeverity.Error,
+				LogMessageState.Active, BUNDLE, "conveyor.fault").value("conveyor", conveyor);
+	}
+
+	@Test
+	public void shouldCollapseMessagesByLocator() throws InterruptedException {
+		LogMessage first = message("01");
+		LogMessage second = message("01");
+		LogMessage other = message("02");
+		this.queue.add(first);
+		this.queue.add(other);
+		this.queue.add(second);
+
+		this.queue.deliver(this.listener, 10);
+		assertEquals(List.of(), this.listener.disabled);
+		assertEquals(2, this.listener.messages.size());
+		assertSame(second, this.listener.messages.get(0));
+		assertSame(other, this.listener.messages.get(1));
+	}
+
+	@Test
+	public void shouldDisablePendingMessage() throws InterruptedException {
+		this.queue.add(message("01"));
+		this.queue.disable(locator("01"));
+
+		this.queue.deliver(this.listener, 10);
+		assertEquals(List.of(locator("01")), this.listener.disabled);
+		assertEquals(List.of(), this.listener.messages);
+	}
+
+	@Test
+	public void shouldDeliverMessageAfterDisable() throws InterruptedException {
+		LogMessage message = message("01");
+		this.queue.disable(locator("01"));
+		this.queue.add(message);
+
+		this.queue.deliver(this.listener, 10);
+		assertEquals(List.of(locator("01")), this.listener.disabled);
+		assertEquals(1, this.listener.messages.size());
+		assertSame(message, this.listener.messages.get(0));
+	}
+
+	@Test
+	public void shouldDeliverInBatches() throws InterruptedException {
+		for (int i = 0; i < 5; i++) {
+			this.queue.add(message("0" + i));
+		}
+
+		this.queue.deliver(this.listener, 2);
+		assertEquals(List.of(locator("00"), locator("01")), this.listener.messageLocators());
+		this.listener.clear();
+
+		this.queue.deliver(this.listener, 2);
+		assertEquals(List.of(locator("02"), locator("03")), this.listener.messageLocators());
+		this.listener.clear();
+
+		this.queue.deliver(this.listener, 2);
+		assertEquals(List.of(locator("04")), this.listener.messageLocators());
+	}
+
+	@Test
+	public void shouldRequeueFailedBatchFirst() throws InterruptedException {
+		this.queue.add(message("01"));
+		this.queue.add(message("02"));
+		this.queue.add(message("03"));
+		LogMessage newer = message("01");
+
+		// while delivering, a newer message for a failed locator and a new locator are queued
+		GlobalPlcListener failingListener = new RecordingListener() {
+			@Override
+			public void sendMessages(Collection<Locator> disabled, Collection<LogMessage> messages) {
+				queue.add(newer);
+				queue.add(message("04"));
+				throw new IllegalStateException("Failing on purpose");
+			}
+		};
+		try {
+			this.queue.deliver(failingListener, 2);
+			fail("Delivery should have failed");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		this.queue.deliver(this.listener, 10);
+		assertEquals(List.of(locator("01"), locator("02"), locator("03"), locator("04")),
+				this.listener.messageLocators());
+		assertSame(newer, this.listener.messages.get(0));
+	}
+
+	private static class RecordingListener implements GlobalPlcListener {
+
+		private final List<Locator> disabled = new ArrayList<>();
+		private final List<LogMessage> messages = new ArrayList<>();
+
+		@Override
+		public void sendMsg(LogMessage message) {
+			this.messages.add(message);
+		}
+
+		@Override
+		public void disableMsg(Locator locator) {
+			this.disabled.add(locator);
+		}
+
+		@Override
+		public void handleNotification(PlcAddress address, Object value) {
+			// ignore
+		}
+
+		private List<Locator> messageLocators() {
+			return this.messages.stream().map(LogMessage::getLocator).collect(toList());
+		}
+
+		private void clear() {
+			this.disabled.clear();
+			this.messages.clear();
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package li.strolch.plc.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PlcServiceExecutorTest {
+
+	private static void assertBounded(boolean virtualThreads) throws InterruptedException {
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		PlcServiceExecutor executor = new PlcServiceExecutor("Test", 1, 1, virtualThreads, scheduler);
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			CountDownLatch done = new CountDownLatch(2);
+			Runnable blocking = () -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				done.countDown();
+			};
+
+			assertTrue(executor.execute(blocking, e -> fail(e.getMessage())));
+			assertTrue(started.await(1, TimeUnit.SECONDS));
+			assertTrue(executor.execute(done::countDown, e -> fail(e.getMessage())));
+			assertFalse(executor.execute(done::countDown, e -> fail(e.getMessage())));
+
+			assertEquals(1, executor.getRunning());
+			assertEquals(1, executor.getQueueDepth());
+			assertEquals(1L, executor.getRejected());
+
+			release.countDown();
+			assertTrue(done.await(1, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdown();
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldRejectBeyondQueueSize() throws InterruptedException {
+		assertBounded(false);
+	}
+
+	@Test
+	public void shouldRejectBeyondQueueSizeOnVirtualThreads() throws InterruptedException {
+		assertBounded(true);
+	}
+
+	@Test
+	public void shouldMeasureStartLagOfPeriodicTaskAgainstSchedule() throws InterruptedException {
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		PlcServiceExecutor executor = new PlcServiceExecutor("Test", 1, 10, false, scheduler);
+		try {
+			// block the scheduler, so that the first trigger is late
+			CountDownLatch executed = new CountDownLatch(1);
+			scheduler.execute(() -> {
+				try {
+					Thread.sleep(100L);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			ScheduledFuture<?> future = executor.scheduleAtFixedRate(executed::countDown, e -> fail(e.getMessage()),
+					0L, 10L, TimeUnit.MILLISECONDS);
+			assertTrue(executed.await(1, TimeUnit.SECONDS));
+			future.cancel(false);
+
+			// the lag is measured from when the execution was due, not from when it was triggered
+			assertTrue(executor.getStartLag().getMax() >= TimeUnit.MILLISECONDS.toNanos(80L));
+		} finally {
+			executor.shutdown();
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldNotShutdownSharedExecutor() throws InterruptedException {
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		ExecutorService shared = Executors.newCachedThreadPool();
+		PlcServiceExecutor executor = new PlcServiceExecutor("Test", shared, scheduler);
+		try {
+			CountDownLatch executed = new CountDownLatch(1);
+			assertTrue(executor.execute(executed::countDown, e -> fail(e.getMessage())));
+			assertTrue(executed.await(1, TimeUnit.SECONDS));
+
+			executor.shutdown();
+			assertFalse(shared.isShutdown());
+		} finally {
+			shared.shutdownNow();
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldSkipOverrunningPeriodicTask() throws InterruptedException {
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		PlcServiceExecutor executor = new PlcServiceExecutor("Test", 2, 10, false, scheduler);
+		try {
+			ScheduledFuture<?> future = executor.scheduleAtFixedRate(() -> {
+				try {
+					Thread.sleep(50L);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, e -> fail(e.getMessage()), 0L, 5L, TimeUnit.MILLISECONDS);
+			Thread.sleep(200L);
+			future.cancel(false);
+
+			// never more than one execution of the periodic task at a time
+			assertTrue(executor.getOverruns() > 0L);
+			assertTrue(executor.getCompleted() <= 5L);
+			assertEquals(0L, executor.getRejected());
+		} finally {
+			executor.shutdown();
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldInterruptCancelledScheduledTask() throws InterruptedException {
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		PlcServiceExecutor executor = new PlcServiceExecutor("Test", 1, 1, false, scheduler);
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch interrupted = new CountDownLatch(1);
+			ScheduledFuture<?> future = executor.schedule(() -> {
+				started.countDown();
+				try {
+					Thread.sleep(5000L);
+				} catch (InterruptedException e) {
+					interrupted.countDown();
+				}
+			}, e -> fail(e.getMessage()), 10L, TimeUnit.MILLISECONDS);
+
+			assertTrue(started.await(1, TimeUnit.SECONDS));
+			assertTrue(future.cancel(true));
+			assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdown();
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldCancelPeriodicTasksOnShutdown() throws InterruptedException {
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		PlcServiceExecutor executor = new PlcServiceExecutor("Test", PlcServiceExecutor.UNBOUNDED, 0, false,
+				scheduler);
+		try {
+			ScheduledFuture<?> future = executor.scheduleAtFixedRate(() -> {
+			}, e -> fail(e.getMessage()), 0L, 5L, TimeUnit.MILLISECONDS);
+			Thread.sleep(50L);
+			executor.shutdown();
+			assertTrue(future.isCancelled());
+
+			// the trigger is not armed anymore, thus nothing is rejected by the shut down executor
+			Thread.sleep(50L);
+			assertEquals(0L, executor.getRejected());
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package li.strolch.plc.core;
+
+import li.strolch.plc.core.test.StartupTimelinePlcServiceInitializer;
+import li.strolch.plc.core.test.StartupTimelinePlcServiceInitializer.FailingPlcService;
+import li.strolch.plc.core.test.StartupTimelinePlcServiceInitializer.FirstSlowPlcService;
+import li.strolch.plc.core.test.StartupTimelinePlcServiceInitializer.HangingPlcService;
+import li.strolch.plc.core.test.StartupTimelinePlcServiceInitializer.SecondSlowPlcService;
+import li.strolch.plc.model.PlcServiceState;
+import li.strolch.testbase.runtime.RuntimeMock;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static li.strolch.plc.core.test.StartupTimelinePlcServiceInitializer.START_DURATION_MS;
+import static org.junit.Assert.*;
+
+public class PlcServiceInitializerTest {
+
+	private static final String SRC_RUNTIME = "src/test/resources/test-runtime-services";
+	private static final String TARGET_PATH = "target/" + PlcServiceInitializerTest.class.getSimpleName();
+	private static RuntimeMock runtimeMock;
+
+	@BeforeClass
+	public static void beforeClass() {
+		runtimeMock = new RuntimeMock().mockRuntime(TARGET_PATH, SRC_RUNTIME);
+		runtimeMock.startContainer();
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		if (runtimeMock != null)
+			runtimeMock.destroyRuntime();
+	}
+
+	private static PlcServiceStartup getStartup(List<PlcServiceStartup> timeline, Class<?> clazz) {
+		return timeline.stream()
+				.filter(startup -> startup.className().equals(clazz.getName()))
+				.findFirst()
+				.orElseThrow(() -> new AssertionError("No startup for " + clazz.getName()));
+	}
+
+	@Test
+	public void shouldRecordAllServicesInTimeline() {
+		PlcServiceInitializer initializer = runtimeMock.getComponent(PlcServiceInitializer.class);
+		List<PlcServiceStartup> timeline = initializer.getStartupTimeline();
+		assertEquals(4, timeline.size());
+		for (int i = 1; i < timeline.size(); i++) {
+			assertTrue(timeline.get(i - 1).startMs() <= timeline.get(i).startMs());
+		}
+	}
+
+	@Test
+	public void shouldStartServicesInParallel() {
+		List<PlcServiceStartup> timeline = runtimeMock.getComponent(PlcServiceInitializer.class)
+				.getStartupTimeline();
+		PlcServiceStartup first = getStartup(timeline, FirstSlowPlcService.class);
+		PlcServiceStartup second = getStartup(timeline, SecondSlowPlcService.class);
+
+		for (PlcServiceStartup startup : List.of(first, second)) {
+			assertFalse(startup.failed());
+			assertFalse(startup.timedOut());
+			assertEquals(PlcServiceState.Started, startup.state());
+			assertTrue(startup.durationMs() >= START_DURATION_MS);
+		}
+
+		// both starts overlap, as they are started on their own threads
+		assertTrue(second.startMs() < first.startMs() + first.durationMs());
+		assertTrue(first.startMs() < second.startMs() + second.durationMs());
+	}
+
+	@Test
+	public void shouldRecordFailedStart() {
+		List<PlcServiceStartup> timeline = runtimeMock.getComponent(PlcServiceInitializer.class)
+				.getStartupTimeline();
+		PlcServiceStartup failing = getStartup(timeline, FailingPlcService.class);
+		assertTrue(failing.failed());
+		assertFalse(failing.timedOut());
+		assertEquals(PlcServiceState.Registered, failing.state());
+	}
+
+	@Test
+	public void shouldStopTimedOutServiceOnceStarted() throws InterruptedException {
+		List<PlcServiceStartup> timeline = runtimeMock.getComponent(PlcServiceInitializer.class)
+				.getStartupTimeline();
+		PlcServiceStartup hanging = getStartup(timeline, HangingPlcService.class);
+		assertTrue(hanging.failed());
+		assertTrue(hanging.timedOut());
+		assertTrue(hanging.durationMs() < StartupTimelinePlcServiceInitializer.HANGING_START_DURATION_MS);
+
+		// the start is not interrupted, but the service is stopped as soon as its start returns
+		assertTrue(HangingPlcService.STOPPED.await(5L, TimeUnit.SECONDS));
+	}
+}
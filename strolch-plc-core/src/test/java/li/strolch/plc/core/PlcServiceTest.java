@@ -0,0 +1,198 @@
+package li.strolch.plc.core;
+
+import li.strolch.model.Resource;
+import li.strolch.model.parameter.StringParameter;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.plc.core.hw.Plc;
+import li.strolch.plc.model.PlcAddress;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.testbase.runtime.RuntimeMock;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static li.strolch.model.StrolchModelConstants.BAG_PARAMETERS;
+import static li.strolch.plc.model.PlcConstants.PARAM_ADDRESS;
+import static li.strolch.plc.model.PlcConstants.TYPE_PLC_ADDRESS;
+import static org.junit.Assert.*;
+
+public class PlcServiceTest {
+
+	private static final String SRC_RUNTIME = "src/test/resources/test-runtime";
+	private static final String TARGET_PATH = "target/" + PlcServiceTest.class.getSimpleName();
+	private static RuntimeMock runtimeMock;
+	private static Certificate cert;
+
+	@BeforeClass
+	public static void beforeClass() {
+		runtimeMock = new RuntimeMock().mockRuntime(TARGET_PATH, SRC_RUNTIME);
+		runtimeMock.startContainer();
+		cert = runtimeMock.loginAdmin();
+	}
+
+	@AfterClass
+	public static void afterClass() throws InterruptedException {
+		if (cert != null)
+			runtimeMock.logout(cert);
+		if (runtimeMock != null)
+			runtimeMock.destroyRuntime();
+
+		// wait for PLC's async updates to complete
+		Thread.sleep(100L);
+	}
+
+	private static PlcHandler getPlcHandler() {
+		return runtimeMock.getComponent(PlcHandler.class);
+	}
+
+	private static int getAddressId(String resource, String action) {
+		PlcHandler plcHandler = getPlcHandler();
+		return plcHandler.getPlc().getAddressId(plcHandler.getPlcAddress(resource, action).address);
+	}
+
+	@Test
+	public void shouldAssignHandleIndicesInRegistrationOrder() {
+		PlcHandler plcHandler = getPlcHandler();
+		RecordingPlcService service = new RecordingPlcService(plcHandler);
+		try {
+			PlcAddressHandle lamp = service.registerHandle("Lamp", "State");
+			PlcAddressHandle fan = service.registerHandle("Fan", "Speed");
+			PlcAddressHandle counter = service.registerHandle("Counter", "Ticks");
+
+			assertEquals(0, lamp.index());
+			assertEquals(1, fan.index());
+			assertEquals(2, counter.index());
+			assertEquals(plcHandler.getPlcAddress("Fan", "Speed"), fan.address());
+			assertEquals("Fan", fan.resource());
+			assertEquals("Speed", fan.action());
+		} finally {
+			service.unregister();
+		}
+	}
+
+	@Test
+	public void shouldRouteNotificationsByValueType() {
+		PlcHandler plcHandler = getPlcHandler();
+		Plc plc = plcHandler.getPlc();
+		RecordingPlcService service = new RecordingPlcService(plcHandler);
+		try {
+			service.registerHandle("Lamp", "State");
+			service.registerHandle("Fan", "Speed");
+			service.registerHandle("Counter", "Ticks");
+			service.registerHandle("BarcodeReader", "Barcode");
+
+			plc.notifyBoolean(getAddressId("Lamp", "State"), true);
+			plc.notifyLong(getAddressId("Fan", "Speed"), 7L);
+			plc.notifyLong(getAddressId("Counter", "Ticks"), 7L);
+			plcHandler.notify("Fan", "Speed", 8);
+			plcHandler.notify("BarcodeReader", "Barcode", "1234");
+
+			assertEquals(List.of("onBoolean 0", "onLong 1", "onLong 2", "onLong 1", "onValue 3"), service.calls);
+
+			// the values are boxed to the value type of the address
+			assertEquals(List.of(true, 7, 7L, 8, "1234"), service.values);
+			assertEquals(Integer.class, service.values.get(1).getClass());
+			assertEquals(Long.class, service.values.get(2).getClass());
+		} finally {
+			service.unregister();
+		}
+	}
+
+	@Test
+	public void shouldKeepOtherHandlesOnUnregister() {
+		PlcHandler plcHandler = getPlcHandler();
+		Plc plc = plcHandler.getPlc();
+		RecordingPlcService service = new RecordingPlcService(plcHandler);
+		try {
+			service.registerHandle("Lamp", "State");
+			PlcAddressHandle counter = service.registerHandle("Counter", "Ticks");
+
+			service.unregister("Lamp", "State");
+			plc.notifyBoolean(getAddressId("Lamp", "State"), true);
+			plc.notifyLong(getAddressId("Counter", "Ticks"), 1L);
+			assertEquals(List.of("onLong 1"), service.calls);
+
+			// the other handles keep their index, and a new handle gets the next one
+			assertEquals(1, counter.index());
+			assertEquals(2, service.registerHandle("Lamp", "State").index());
+
+			// the service itself is not a registered listener
+			plcHandler.unregister("Counter", "Ticks", service);
+			plc.notifyLong(getAddressId("Counter", "Ticks"), 2L);
+			assertEquals(List.of("onLong 1", "onLong 1"), service.calls);
+		} finally {
+			service.unregister();
+		}
+	}
+
+	@Test
+	public void shouldKeepHandleOnReconfigure() {
+		PlcHandler plcHandler = getPlcHandler();
+		RecordingPlcService service = new RecordingPlcService(plcHandler);
+		try {
+			PlcAddressHandle counter = service.registerHandle("Counter", "Ticks");
+			PlcAddress address = counter.address();
+
+			setHardwareAddress("addrCounterTicks", "VirtualInteger.counterTicksMoved");
+			assertTrue(plcHandler.reconfigurePlc());
+
+			plcHandler.getPlc().notifyLong(getAddressId("Counter", "Ticks"), 3L);
+			assertEquals(List.of("onLong 0"), service.calls);
+			assertEquals(List.of(3L), service.values);
+
+			// the same handle is notified, with the reconfigured address
+			assertNotSame(address, counter.address());
+			assertEquals("VirtualInteger.counterTicksMoved", counter.address().address);
+		} finally {
+			service.unregister();
+			setHardwareAddress("addrCounterTicks", "VirtualInteger.counterTicks");
+			plcHandler.reconfigurePlc();
+		}
+	}
+
+	private static void setHardwareAddress(String addressId, String hwAddress) {
+		try (StrolchTransaction tx = runtimeMock.openUserTx(cert, false)) {
+			Resource address = tx.getResourceBy(TYPE_PLC_ADDRESS, addressId, true);
+			StringParameter addressP = address.getParameter(BAG_PARAMETERS, PARAM_ADDRESS, true);
+			addressP.setValue(hwAddress);
+			tx.update(address);
+			tx.commitOnClose();
+		}
+	}
+
+	private static class RecordingPlcService extends PlcService {
+
+		private final List<String> calls = new ArrayList<>();
+		private final List<Object> values = new ArrayList<>();
+
+		public RecordingPlcService(PlcHandler plcHandler) {
+			super(plcHandler);
+		}
+
+		@Override
+		protected void onBoolean(PlcAddressHandle handle, boolean value) {
+			this.calls.add("onBoolean " + handle.index());
+			super.onBoolean(handle, value);
+		}
+
+		@Override
+		protected void onLong(PlcAddressHandle handle, long value) {
+			this.calls.add("onLong " + handle.index());
+			super.onLong(handle, value);
+		}
+
+		@Override
+		protected void onValue(PlcAddressHandle handle, Object value) {
+			this.calls.add("onValue " + handle.index());
+			super.onValue(handle, value);
+		}
+
+		@Override
+		public void handleNotification(PlcAddress address, Object value) {
+			this.values.add(value);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package li.strolch.plc.core.hw;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void shouldMapValuesToBuckets() {
+		for (long value : new long[] { 0L, 1L, 7L, 8L, 15L, 16L, 1000L, 123_456_789L, 1L << 40 }) {
+			int index = LatencyHistogram.bucketIndex(value);
+			long upperBound = LatencyHistogram.bucketUpperBound(index);
+			assertTrue(value + " > " + upperBound, value <= upperBound);
+			assertTrue(value + " has error " + (upperBound - value), upperBound - value <= value / 8);
+		}
+	}
+
+	@Test
+	public void shouldCalculatePercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1_000_000L, histogram.getMax());
+		assertEquals(500_500L, histogram.getMean());
+
+		long p50 = histogram.getValueAtPercentile(50.0);
+		assertTrue("p50 is " + p50, p50 >= 500_000L && p50 <= 500_000L * 9 / 8);
+		long p99 = histogram.getValueAtPercentile(99.0);
+		assertTrue("p99 is " + p99, p99 >= 990_000L && p99 <= 1_000_000L);
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0L, histogram.getValueAtPercentile(99.0));
+	}
+}
@@ -0,0 +1,71 @@
+package li.strolch.plc.core.hw;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static li.strolch.plc.core.hw.NotificationRingBuffer.KIND_BOOLEAN;
+import static li.strolch.plc.core.hw.NotificationRingBuffer.KIND_LONG;
+import static org.junit.Assert.assertEquals;
+
+public class NotificationRingBufferTest {
+
+	private static List<Long> drain(NotificationRingBuffer buffer) {
+		List<Long> values = new ArrayList<>();
+		buffer.setConsumer(Thread.currentThread());
+		while (buffer.poll((addressId, kind, payload, reference, timestamp) -> values.add(payload))) {
+			// drain
+		}
+		return values;
+	}
+
+	@Test
+	public void shouldKeepOrder() {
+		NotificationRingBuffer buffer = new NotificationRingBuffer(8, 1, NotificationOverflowPolicy.Block,
+				NotificationWaitStrategy.Blocking);
+		for (long i = 0; i < 5; i++) {
+			buffer.offer(0, KIND_LONG, i, null, 0L);
+		}
+		assertEquals(5, buffer.size());
+		assertEquals(List.of(0L, 1L, 2L, 3L, 4L), drain(buffer));
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	public void shouldDropOldest() {
+		NotificationRingBuffer buffer = new NotificationRingBuffer(4, 1, NotificationOverflowPolicy.DropOldest,
+				NotificationWaitStrategy.Blocking);
+		for (long i = 0; i < 6; i++) {
+			buffer.offer(0, KIND_LONG, i, null, 0L);
+		}
+		assertEquals(2, buffer.getDropped());
+		assertEquals(List.of(2L, 3L, 4L, 5L), drain(buffer));
+	}
+
+	@Test
+	public void shouldConflateToLatestValue() {
+		NotificationRingBuffer buffer = new NotificationRingBuffer(4, 2, NotificationOverflowPolicy.Conflate,
+				NotificationWaitStrategy.Blocking);
+		for (long i = 0; i < 10; i++) {
+			buffer.offer(0, KIND_LONG, i, null, 0L);
+		}
+		buffer.offer(1, KIND_BOOLEAN, 1L, null, 0L);
+
+		assertEquals(List.of(0L, 1L, 2L, 3L, 9L, 1L), drain(buffer));
+		assertEquals(5, buffer.getConflated());
+	}
+
+	@Test
+	public void shouldOnlyDeliverLatestValueOfConflatingAddress() {
+		NotificationRingBuffer buffer = new NotificationRingBuffer(16, 2, NotificationOverflowPolicy.Block,
+				NotificationWaitStrategy.Blocking);
+		for (long i = 0; i < 5; i++) {
+			buffer.offerLatest(0, KIND_LONG, 100L + i, null, 0L);
+			buffer.offer(1, KIND_LONG, i, null, 0L);
+		}
+
+		assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 104L), drain(buffer));
+		assertEquals(4, buffer.getConflated());
+	}
+}
@@ -0,0 +1,64 @@
+package li.strolch.plc.core.hw;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import li.strolch.plc.model.ConnectionState;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import static li.strolch.plc.model.PlcConstants.*;
+import static org.junit.Assert.assertEquals;
+
+public class PlcFlightRecorderTest {
+
+	@Test
+	public void shouldKeepLatestRecords() {
+		PlcFlightRecorder recorder = new PlcFlightRecorder(4, id -> "Address-" + id);
+		for (int i = 0; i < 6; i++) {
+			recorder.recordNotification(i, (long) i, true);
+		}
+		recorder.recordConnectionState("Connection01", ConnectionState.Connected);
+
+		assertEquals(7, recorder.getRecorded());
+
+		JsonArray recordsJ = recorder.toJson(10);
+		assertEquals(4, recordsJ.size());
+
+		JsonObject first = recordsJ.get(0).getAsJsonObject();
+		assertEquals(3, first.get(PARAM_SEQUENCE_ID).getAsLong());
+		assertEquals("Address-3", first.get(PARAM_ADDRESS).getAsString());
+		assertEquals(3, first.get(PARAM_VALUE).getAsLong());
+
+		JsonObject last = recordsJ.get(3).getAsJsonObject();
+		assertEquals("ConnectionState", last.get(PARAM_TYPE).getAsString());
+		assertEquals("Connection01", last.get(PARAM_CONNECTION).getAsString());
+		assertEquals(ConnectionState.Connected.name(), last.get(PARAM_VALUE).getAsString());
+	}
+
+	@Test
+	public void shouldWriteBinaryDump() throws IOException {
+		PlcFlightRecorder recorder = new PlcFlightRecorder(8, id -> "Address-" + id);
+		recorder.recordNotification(1, true);
+		recorder.recordSend(2, "value");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		recorder.writeTo(out);
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(PlcFlightRecorder.MAGIC, in.readInt());
+		assertEquals(PlcFlightRecorder.VERSION, in.readShort());
+		assertEquals(PlcFlightRecorder.RECORD_SIZE, in.readShort());
+		in.readLong();
+		in.readLong();
+		in.readBoolean();
+		assertEquals(2, in.readInt());
+		in.skipNBytes(2L * PlcFlightRecorder.RECORD_SIZE);
+		assertEquals(2, in.readInt());
+		assertEquals(1, in.readInt());
+		assertEquals("Address-1", in.readUTF());
+	}
+}
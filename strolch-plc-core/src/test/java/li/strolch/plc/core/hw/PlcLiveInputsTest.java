@@ -0,0 +1,32 @@
+package li.strolch.plc.core.hw;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PlcLiveInputsTest {
+
+	@Test
+	public void shouldKeepValuesWhenGrowing() {
+		PlcLiveInputs liveInputs = new PlcLiveInputs(64);
+		liveInputs.setBoolean(3, true);
+		liveInputs.setLong(5, 42L);
+		liveInputs.setObject(7, "seven");
+		assertEquals(64, liveInputs.getCapacity());
+
+		liveInputs.ensureCapacity(65);
+		assertEquals(128, liveInputs.getCapacity());
+		liveInputs.setBoolean(100, true);
+		liveInputs.setBoolean(3, false);
+		liveInputs.setBoolean(4, true);
+
+		PlcProcessImage image = new PlcProcessImage(64, a -> 0);
+		liveInputs.copyTo(image);
+		assertEquals(128, image.getCapacity());
+		assertFalse(image.getBoolean(3));
+		assertTrue(image.getBoolean(4));
+		assertTrue(image.getBoolean(100));
+		assertEquals(42L, image.getLong(5));
+		assertEquals("seven", image.getObject(7));
+	}
+}
@@ -10,13 +10,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -73,6 +80,375 @@ public class PlcTest {
 		assertFalse(state.get());
 	}
 
+	@Test
+	public void shouldNotifyBooleanListener() {
+		AtomicBoolean state = new AtomicBoolean(false);
+		BooleanPlcListener listener = (key, value) -> state.set(value);
+		plc.register(positionOccupied, listener);
+		plc.notifyBoolean(plc.getAddressId("Conveyor.Occupied"), true);
+		assertTrue(state.get());
+		conveyorCon.notify("Conveyor.Occupied", false);
+		assertFalse(state.get());
+		plc.unregister(positionOccupied, listener);
+	}
+
+	@Test
+	public void shouldIgnoreUnknownAddressIds() {
+		int unknownId = plc.getAddressId("Conveyor.Unknown");
+		assertEquals(-1, unknownId);
+		plc.notifyBoolean(unknownId, true);
+		plc.notifyLong(unknownId, 1L);
+		plc.queueNotifyBoolean(unknownId, true);
+		plc.queueNotifyLong(unknownId, 1L);
+		plc.notifyBoolean(Integer.MAX_VALUE, true);
+	}
+
+	@Test
+	public void shouldSendBatch() {
+		Map<PlcAddress, Object> values = new LinkedHashMap<>();
+		values.put(positionOff, false);
+		values.put(positionOn, true);
+		plc.send(values);
+		assertTrue(stateOnOff.get());
+		plc.send(Map.of(positionOff, false));
+		assertFalse(stateOnOff.get());
+	}
+
+	@Test
+	public void shouldRegisterWhileNotifying() throws Exception {
+		AtomicInteger notifications = new AtomicInteger();
+		PlcListener listener = (key, value) -> notifications.incrementAndGet();
+		plc.register(positionOccupied, listener);
+
+		AtomicBoolean run = new AtomicBoolean(true);
+		Thread churn = new Thread(() -> {
+			while (run.get()) {
+				PlcListener temporary = (key, value) -> {
+				};
+				plc.register(positionOccupied, temporary);
+				plc.unregister(positionOccupied, temporary);
+			}
+		});
+		churn.start();
+		try {
+			for (int i = 0; i < 10000; i++) {
+				conveyorCon.notify("Conveyor.Occupied", i % 2 == 0);
+			}
+		} finally {
+			run.set(false);
+			churn.join();
+			plc.unregister(positionOccupied, listener);
+		}
+
+		assertEquals(10000, notifications.get());
+	}
+
+	@Test
+	public void shouldReconfigureRunningPlc() {
+		Plc plc = new DefaultPlc();
+		TestPlcConnection connection01 = new TestPlcConnection(plc, "Connection.Conveyor01",
+				Set.of("Conveyor01.Occupied"), e -> {
+		});
+		plc.addConnection(connection01);
+		PlcAddress occupied01 = new PlcAddress(PlcAddressType.Notification, "Conveyor01", "Occupied",
+				"Conveyor01.Occupied", StrolchValueType.BOOLEAN, false, false, false);
+		plc.registerNotificationMapping(occupied01);
+		plc.start();
+		try {
+			AtomicInteger notifications = new AtomicInteger();
+			PlcListener listener = (key, value) -> notifications.incrementAndGet();
+			plc.register(occupied01, listener);
+
+			// add a connection with a new address
+			TestPlcConnection connection02 = new TestPlcConnection(plc, "Connection.Conveyor02",
+					Set.of("Conveyor02.Occupied"), e -> {
+			});
+			PlcAddress occupied02 = new PlcAddress(PlcAddressType.Notification, "Conveyor02", "Occupied",
+					"Conveyor02.Occupied", StrolchValueType.BOOLEAN, false, false, false);
+			plc.reconfigure(Set.of(), Set.of(connection02), Set.of(), Set.of(occupied02));
+			plc.register(occupied02, listener);
+			assertEquals(ConnectionState.Connected, connection02.getState());
+			assertEquals(ConnectionState.Connected, connection01.getState());
+
+			connection01.notify("Conveyor01.Occupied", true);
+			connection02.notify("Conveyor02.Occupied", true);
+			assertEquals(2, notifications.get());
+
+			// remove the new connection again, the first keeps running
+			plc.reconfigure(Set.of("Connection.Conveyor02"), Set.of(), Set.of(occupied02), Set.of());
+			assertEquals(ConnectionState.Disconnected, connection02.getState());
+			assertEquals(-1, plc.getAddressId("Conveyor02.Occupied"));
+			connection02.notify("Conveyor02.Occupied", false);
+			connection01.notify("Conveyor01.Occupied", false);
+			assertEquals(3, notifications.get());
+		} finally {
+			plc.stop();
+		}
+	}
+
+	@Test
+	public void shouldNotifyAddressAddedToConnectedConnection() throws InterruptedException {
+		Plc plc = new DefaultPlc();
+		CachingPlcConnection connection = new CachingPlcConnection(plc, "Connection.Conveyor03",
+				Set.of("Conveyor03.Occupied", "Conveyor03.Released"));
+		plc.addConnection(connection);
+		PlcAddress occupied = new PlcAddress(PlcAddressType.Notification, "Conveyor03", "Occupied",
+				"Conveyor03.Occupied", StrolchValueType.BOOLEAN, false, false, false);
+		plc.registerNotificationMapping(occupied);
+		plc.start();
+		try {
+			List<String> notifications = new CopyOnWriteArrayList<>();
+			PlcListener listener = (address, value) -> notifications.add(address.action + "=" + value);
+			plc.register(occupied, listener);
+
+			// add an address on a free pin of the connected connection
+			PlcAddress released = new PlcAddress(PlcAddressType.Notification, "Conveyor03", "Released",
+					"Conveyor03.Released", StrolchValueType.BOOLEAN, false, false, true);
+			plc.reconfigure(Set.of(), Set.of(), Set.of(), Set.of(released));
+			plc.register(released, listener);
+			assertEquals(ConnectionState.Connected, connection.getState());
+
+			connection.notifyBoolean("Conveyor03.Released", true);
+			connection.notifyBoolean("Conveyor03.Occupied", true);
+			awaitNotifications(notifications, 2);
+
+			// remove the first address, its listener is released and the connection does not notify it anymore
+			plc.reconfigure(Set.of(), Set.of(), Set.of(occupied), Set.of());
+			connection.notifyBoolean("Conveyor03.Occupied", false);
+			connection.notifyBoolean("Conveyor03.Released", false);
+			awaitNotifications(notifications, 3);
+			Thread.sleep(50L);
+
+			assertEquals(List.of("Released=true", "Occupied=true", "Released=false"), notifications);
+		} finally {
+			plc.stop();
+		}
+	}
+
+	@Test
+	public void shouldConnectBusesInParallel() {
+		Plc plc = new DefaultPlc();
+		plc.setConnectTimeout(500L);
+		plc.addConnection(new SlowPlcConnection(plc, "Bus1.Device1", "i2c-1", 200L));
+		plc.addConnection(new SlowPlcConnection(plc, "Bus1.Device2", "i2c-1", 200L));
+		plc.addConnection(new SlowPlcConnection(plc, "Tcp.Device", null, 200L));
+		plc.addConnection(new SlowPlcConnection(plc, "Tcp.Hanging", null, 5000L));
+		plc.start();
+		try {
+			Map<String, PlcConnectionStartup> timeline = new HashMap<>();
+			plc.getStartupTimeline().forEach(startup -> timeline.put(startup.connection(), startup));
+			assertEquals(4, timeline.size());
+
+			// devices on the same bus are connected one after another, others in parallel
+			PlcConnectionStartup device1 = timeline.get("Bus1.Device1");
+			PlcConnectionStartup device2 = timeline.get("Bus1.Device2");
+			assertTrue(device2.startMs() >= device1.startMs() + device1.durationMs());
+			assertTrue(timeline.get("Tcp.Device").startMs() < device1.durationMs());
+			assertEquals(ConnectionState.Connected, device2.state());
+
+			assertTrue(timeline.get("Tcp.Hanging").timedOut());
+			assertFalse(timeline.get("Tcp.Device").timedOut());
+		} finally {
+			plc.stop();
+		}
+	}
+
+	@Test
+	public void shouldFailBusAfterHangingConnect() {
+		Plc plc = new DefaultPlc();
+		plc.setConnectTimeout(200L);
+		HangingPlcConnection device1 = new HangingPlcConnection(plc, "Bus2.Device1", "i2c-2", 1000L);
+		HangingPlcConnection device2 = new HangingPlcConnection(plc, "Bus2.Device2", "i2c-2", 1000L);
+		plc.addConnection(device1);
+		plc.addConnection(device2);
+		plc.addConnection(new SlowPlcConnection(plc, "Bus3.Device1", "i2c-3", 0L));
+		plc.start();
+		try {
+			List<PlcConnectionStartup> timeline = plc.getStartupTimeline();
+			assertEquals(3, timeline.size());
+
+			// the hanging connect ignores the interrupt, thus the bus must not be used until it returns
+			PlcConnectionStartup hanging = timeline.stream().filter(PlcConnectionStartup::timedOut).findFirst()
+					.orElseThrow();
+			PlcConnectionStartup skipped = timeline.stream()
+					.filter(startup -> startup.connection().startsWith("Bus2.") && !startup.timedOut())
+					.findFirst()
+					.orElseThrow();
+			assertTrue((hanging.connection().equals("Bus2.Device1") ? device1 : device2).connecting.get());
+			assertFalse((skipped.connection().equals("Bus2.Device1") ? device1 : device2).connecting.get());
+			assertEquals(ConnectionState.Failed, skipped.state());
+			assertEquals(ConnectionState.Connected,
+					timeline.stream().filter(startup -> startup.connection().equals("Bus3.Device1")).findFirst()
+							.orElseThrow().state());
+		} finally {
+			plc.stop();
+		}
+	}
+
+	@Test
+	public void shouldExecuteScanCycle() throws Exception {
+		Plc plc = new DefaultPlc();
+		List<Map<String, Object>> batches = new CopyOnWriteArrayList<>();
+		TestPlcConnection connection = new TestPlcConnection(plc, "Scan",
+				Set.of("Scan.Input", "Scan.Output1", "Scan.Output2"), e -> {
+		}) {
+			@Override
+			public void sendBatch(Map<String, Object> values) {
+				batches.add(new HashMap<>(values));
+			}
+		};
+		plc.addConnection(connection);
+		PlcAddress input = new PlcAddress(PlcAddressType.Notification, "Scan", "Input", "Scan.Input",
+				StrolchValueType.BOOLEAN, false, false, false);
+		PlcAddress output1 = new PlcAddress(PlcAddressType.Telegram, "Scan", "Output1", "Scan.Output1",
+				StrolchValueType.BOOLEAN, false, false, false);
+		PlcAddress output2 = new PlcAddress(PlcAddressType.Telegram, "Scan", "Output2", "Scan.Output2",
+				StrolchValueType.BOOLEAN, false, false, false);
+		plc.registerNotificationMapping(input);
+		plc.setScanCycleTime(5L);
+
+		// both outputs follow the input, thus are always sent together in one batch
+		plc.registerCycleLogic((inputs, outputs) -> {
+			boolean value = inputs.getBoolean(input);
+			outputs.setBoolean(output1, value);
+			outputs.setBoolean(output2, !value);
+		});
+		plc.start();
+		try {
+			awaitBatches(batches, 1);
+			assertEquals(Map.of("Scan.Output1", false, "Scan.Output2", true), batches.get(0));
+
+			connection.notify("Scan.Input", true);
+			awaitBatches(batches, 2);
+			assertEquals(Map.of("Scan.Output1", true, "Scan.Output2", false), batches.get(1));
+
+			// unchanged outputs are not sent again
+			Thread.sleep(50L);
+			assertEquals(2, batches.size());
+
+			PlcScanCycleStats stats = plc.getScanCycleStats();
+			assertTrue(stats.getCycles() > 2L);
+			assertEquals(5L, stats.getCycleTimeMs());
+		} finally {
+			plc.stop();
+		}
+	}
+
+	private static void awaitBatches(List<Map<String, Object>> batches, int size) throws InterruptedException {
+		for (int i = 0; i < 100 && batches.size() < size; i++) {
+			Thread.sleep(10L);
+		}
+		assertEquals(size, batches.size());
+	}
+
+	private static void awaitNotifications(List<String> notifications, int size) throws InterruptedException {
+		for (int i = 0; i < 100 && notifications.size() < size; i++) {
+			Thread.sleep(10L);
+		}
+		assertEquals(size, notifications.size());
+	}
+
+	/**
+	 * Caches the ids of its addresses on connect, as the hardware connections do
+	 */
+	static class CachingPlcConnection extends TestPlcConnection {
+
+		private volatile Map<String, Integer> addressIds;
+
+		public CachingPlcConnection(Plc plc, String id, Set<String> addresses) {
+			super(plc, id, addresses, e -> {
+			});
+		}
+
+		@Override
+		public boolean connect() {
+			refreshAddressIds();
+			return super.connect();
+		}
+
+		@Override
+		public void refreshAddressIds() {
+			Map<String, Integer> addressIds = new HashMap<>();
+			getAddresses().forEach(address -> addressIds.put(address, this.plc.getAddressId(address)));
+			this.addressIds = addressIds;
+		}
+
+		public void notifyBoolean(String address, boolean value) {
+			int addressId = this.addressIds.get(address);
+			if (addressId != -1)
+				this.plc.queueNotifyBoolean(addressId, value, System.nanoTime());
+		}
+	}
+
+	static class SlowPlcConnection extends TestPlcConnection {
+
+		private final String bus;
+		private final long connectDelay;
+
+		public SlowPlcConnection(Plc plc, String id, String bus, long connectDelay) {
+			super(plc, id, Set.of(id + ".Input"), e -> {
+			});
+			this.bus = bus;
+			this.connectDelay = connectDelay;
+		}
+
+		@Override
+		public String getBus() {
+			return this.bus;
+		}
+
+		@Override
+		public boolean connect() {
+			try {
+				Thread.sleep(this.connectDelay);
+			} catch (InterruptedException e) {
+				return false;
+			}
+			return super.connect();
+		}
+	}
+
+	/**
+	 * Blocks in connect without responding to interrupts, as connects on an I2C bus do
+	 */
+	static class HangingPlcConnection extends TestPlcConnection {
+
+		private final String bus;
+		private final long connectDelay;
+		private final AtomicBoolean connecting;
+
+		public HangingPlcConnection(Plc plc, String id, String bus, long connectDelay) {
+			super(plc, id, Set.of(id + ".Input"), e -> {
+			});
+			this.bus = bus;
+			this.connectDelay = connectDelay;
+			this.connecting = new AtomicBoolean();
+		}
+
+		@Override
+		public String getBus() {
+			return this.bus;
+		}
+
+		@Override
+		public boolean connect() {
+			this.connecting.set(true);
+			boolean interrupted = false;
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.connectDelay);
+			while (System.nanoTime() < deadline) {
+				try {
+					Thread.sleep(10L);
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			this.connecting.set(false);
+			if (interrupted)
+				Thread.currentThread().interrupt();
+			return super.connect();
+		}
+	}
+
 	static class TestPlcConnection extends PlcConnection {
 
 		private final Set<String> addresses;
@@ -97,7 +473,7 @@ public class PlcTest {
 
 		@Override
 		public void disconnect() {
-			//
+			this.connectionState = ConnectionState.Disconnected;
 		}
 
 		@Override
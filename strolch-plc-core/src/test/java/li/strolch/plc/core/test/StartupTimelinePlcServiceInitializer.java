@@ -0,0 +1,84 @@
+package li.strolch.plc.core.test;
+
+import li.strolch.agent.api.ComponentContainer;
+import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.plc.core.PlcHandler;
+import li.strolch.plc.core.PlcService;
+import li.strolch.plc.core.PlcServiceInitializer;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class StartupTimelinePlcServiceInitializer extends PlcServiceInitializer {
+
+	public static final long START_DURATION_MS = 200L;
+	public static final long HANGING_START_DURATION_MS = 1500L;
+
+	public StartupTimelinePlcServiceInitializer(ComponentContainer container, String componentName) {
+		super(container, componentName);
+	}
+
+	@Override
+	protected List<PlcService> getPlcServices(PlcHandler plcHandler) {
+		return List.of(new FirstSlowPlcService(plcHandler), new SecondSlowPlcService(plcHandler),
+				new FailingPlcService(plcHandler), new HangingPlcService(plcHandler));
+	}
+
+	private static abstract class SleepingPlcService extends PlcService {
+
+		private final long durationMs;
+
+		public SleepingPlcService(PlcHandler plcHandler, long durationMs) {
+			super(plcHandler);
+			this.durationMs = durationMs;
+		}
+
+		@Override
+		public void start(StrolchTransaction tx) {
+			try {
+				Thread.sleep(this.durationMs);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException("Interrupted while starting", e);
+			}
+			super.start(tx);
+		}
+	}
+
+	public static class FirstSlowPlcService extends SleepingPlcService {
+		public FirstSlowPlcService(PlcHandler plcHandler) {
+			super(plcHandler, START_DURATION_MS);
+		}
+	}
+
+	public static class SecondSlowPlcService extends SleepingPlcService {
+		public SecondSlowPlcService(PlcHandler plcHandler) {
+			super(plcHandler, START_DURATION_MS);
+		}
+	}
+
+	public static class FailingPlcService extends PlcService {
+		public FailingPlcService(PlcHandler plcHandler) {
+			super(plcHandler);
+		}
+
+		@Override
+		public void start(StrolchTransaction tx) {
+			throw new IllegalStateException("Failing on purpose");
+		}
+	}
+
+	public static class HangingPlcService extends SleepingPlcService {
+
+		public static final CountDownLatch STOPPED = new CountDownLatch(1);
+
+		public HangingPlcService(PlcHandler plcHandler) {
+			super(plcHandler, HANGING_START_DURATION_MS);
+		}
+
+		@Override
+		public void stop() {
+			super.stop();
+			STOPPED.countDown();
+		}
+	}
+}
@@ -16,6 +16,8 @@ import li.strolch.model.parameter.StringParameter;
 import li.strolch.persistence.api.StrolchTransaction;
 import li.strolch.plc.core.GlobalPlcListener;
 import li.strolch.plc.core.PlcHandler;
+import li.strolch.plc.core.hw.Plc;
+import li.strolch.plc.core.hw.PlcLatencyStage;
 import li.strolch.plc.model.*;
 import li.strolch.privilege.model.PrivilegeContext;
 import li.strolch.runtime.configuration.ComponentConfiguration;
@@ -28,6 +30,7 @@ import java.net.SocketException;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.text.MessageFormat;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -325,13 +328,7 @@ public class PlcGwClientHandler extends StrolchComponent implements GlobalPlcLis
 	@Override
 	public void sendMsg(LogMessage message) {
 		async(() -> {
-
-			JsonObject messageJ = new JsonObject();
-			messageJ.addProperty(PARAM_PLC_ID, this.plcId);
-			messageJ.addProperty(PARAM_MESSAGE_TYPE, MSG_TYPE_MESSAGE);
-			messageJ.add(PARAM_MESSAGE, message.toJson());
-
-			sendDataToClient(messageJ);
+			sendDataToClient(messageToJson(message));
 			if (this.verbose)
 				logger.info("Sent msg {} to server", message.getLocator());
 		});
@@ -340,23 +337,50 @@ public class PlcGwClientHandler extends StrolchComponent implements GlobalPlcLis
 	@Override
 	public void disableMsg(Locator locator) {
 		async(() -> {
+			sendDataToClient(disableMessageToJson(locator));
+			if (this.verbose)
+				logger.info("Sent disable msg {} to server", locator);
+		});
+	}
 
-			JsonObject messageJ = new JsonObject();
-			messageJ.addProperty(PARAM_PLC_ID, this.plcId);
-			messageJ.addProperty(PARAM_MESSAGE_TYPE, MSG_TYPE_DISABLE_MESSAGE);
-			messageJ.addProperty(PARAM_REALM, DEFAULT_REALM);
-			messageJ.addProperty(PARAM_LOCATOR, locator.toString());
+	@Override
+	public void sendMessages(Collection<Locator> disabled, Collection<LogMessage> messages) {
+		async(() -> {
+			for (Locator locator : disabled) {
+				sendDataToClient(disableMessageToJson(locator));
+			}
+			for (LogMessage message : messages) {
+				sendDataToClient(messageToJson(message));
+			}
 
-			sendDataToClient(messageJ);
 			if (this.verbose)
-				logger.info("Sent disable msg {} to server", locator);
+				logger.info("Sent {} disable msgs and {} msgs to server", disabled.size(), messages.size());
 		});
 	}
 
+	private JsonObject messageToJson(LogMessage message) {
+		JsonObject messageJ = new JsonObject();
+		messageJ.addProperty(PARAM_PLC_ID, this.plcId);
+		messageJ.addProperty(PARAM_MESSAGE_TYPE, MSG_TYPE_MESSAGE);
+		messageJ.add(PARAM_MESSAGE, message.toJson());
+		return messageJ;
+	}
+
+	private JsonObject disableMessageToJson(Locator locator) {
+		JsonObject messageJ = new JsonObject();
+		messageJ.addProperty(PARAM_PLC_ID, this.plcId);
+		messageJ.addProperty(PARAM_MESSAGE_TYPE, MSG_TYPE_DISABLE_MESSAGE);
+		messageJ.addProperty(PARAM_REALM, DEFAULT_REALM);
+		messageJ.addProperty(PARAM_LOCATOR, locator.toString());
+		return messageJ;
+	}
+
 	private void notifyServer(PlcAddress plcAddress, Object value) {
 		if (!plcAddress.remote)
 			return;
 
+		Plc plc = this.plcHandler.getPlc();
+		long ingestTime = plc.getIngestTime();
 		async(() -> {
 
 			JsonObject notificationJ = new JsonObject();
@@ -367,6 +391,7 @@ public class PlcGwClientHandler extends StrolchComponent implements GlobalPlcLis
 			notificationJ.add(PARAM_VALUE, valueToJson(value));
 
 			sendDataToClient(notificationJ);
+			plc.getLatencies().record(PlcLatencyStage.Gateway, plc.getAddressId(plcAddress), ingestTime);
 
 			if (this.verbose)
 				logger.info("Sent notification for {} to server", plcAddress.toKey());
@@ -398,13 +423,12 @@ public class PlcGwClientHandler extends StrolchComponent implements GlobalPlcLis
 
 	private void handleGetAddressState(PrivilegeContext ctx, JsonObject telegramJ) throws Exception {
 		PlcAddress plcAddress = null;
-		try (StrolchTransaction tx = openTx(ctx.getCertificate(), true).silentThreshold(SILENT_THRESHOLD,
-				TimeUnit.MILLISECONDS)) {
+		try {
 			plcAddress = parsePlcAddress(telegramJ);
 
-			String plcAddressId = this.plcHandler.getPlcAddressId(plcAddress.resource, plcAddress.action);
-			Resource address = tx.getResourceBy(TYPE_PLC_ADDRESS, plcAddressId, true);
-			Object value = address.getParameter(PARAM_VALUE, true).getValue();
+			Object value = this.plcHandler.getAddressValue(plcAddress.resource, plcAddress.action);
+			if (value == null)
+				value = readAddressState(ctx, plcAddress);
 			telegramJ.add(PARAM_VALUE, valueToJson(value));
 
 			telegramJ.addProperty(PARAM_STATE, PlcResponseState.Done.name());
@@ -419,6 +443,15 @@ public class PlcGwClientHandler extends StrolchComponent implements GlobalPlcLis
 		sendDataToClient(telegramJ);
 	}
 
+	private Object readAddressState(PrivilegeContext ctx, PlcAddress plcAddress) {
+		try (StrolchTransaction tx = openTx(ctx.getCertificate(), true).silentThreshold(SILENT_THRESHOLD,
+				TimeUnit.MILLISECONDS)) {
+			String plcAddressId = this.plcHandler.getPlcAddressId(plcAddress.resource, plcAddress.action);
+			Resource address = tx.getResourceBy(TYPE_PLC_ADDRESS, plcAddressId, true);
+			return address.getParameter(PARAM_VALUE, true).getValue();
+		}
+	}
+
 	private void handleTelegram(JsonObject telegramJ) throws Exception {
 
 		PlcAddress plcAddress = null;
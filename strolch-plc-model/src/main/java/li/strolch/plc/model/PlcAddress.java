@@ -18,6 +18,8 @@ import static java.text.MessageFormat.format;
  *     <li>{@link StrolchValueType} for this address</li>
  *     <li>the default value for the action and resource for when sending and notifying</li>
  *     <li>inverted flag to define if a boolean value should be inverted. This is done by the system and the user need not invert as well</li>
+ *     <li>conflate flag to define if queued notifications may be conflated to the latest value, i.e. listeners might not see every intermediate value</li>
+ *     <li>the {@link PlcPersistence} and its interval in milliseconds, defining how changed values are persisted</li>
  * </ul>
  *
  * @see PlcAddressKey
@@ -48,9 +50,24 @@ public class PlcAddress {
 	public final StrolchValueType valueType;
 	public final Object defaultValue;
 	public final boolean inverted;
+	public final boolean conflate;
+	public final PlcPersistence persistence;
+	public final long persistInterval;
 
 	public PlcAddress(PlcAddressType type, String resource, String action, String address, StrolchValueType valueType,
 			Object defaultValue, boolean inverted, boolean remote) {
+		this(type, resource, action, address, valueType, defaultValue, inverted, remote, false);
+	}
+
+	public PlcAddress(PlcAddressType type, String resource, String action, String address, StrolchValueType valueType,
+			Object defaultValue, boolean inverted, boolean remote, boolean conflate) {
+		this(type, resource, action, address, valueType, defaultValue, inverted, remote, conflate,
+				PlcPersistence.Always, 0L);
+	}
+
+	public PlcAddress(PlcAddressType type, String resource, String action, String address, StrolchValueType valueType,
+			Object defaultValue, boolean inverted, boolean remote, boolean conflate, PlcPersistence persistence,
+			long persistInterval) {
 		this.type = type;
 		this.resource = resource.intern();
 		this.action = action.intern();
@@ -63,6 +80,9 @@ public class PlcAddress {
 		this.valueType = valueType;
 		this.defaultValue = defaultValue;
 		this.inverted = inverted;
+		this.conflate = conflate;
+		this.persistence = persistence;
+		this.persistInterval = persistInterval;
 
 		this.remote = remote;
 	}
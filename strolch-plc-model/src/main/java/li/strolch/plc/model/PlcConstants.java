@@ -27,6 +27,9 @@ public class PlcConstants {
 	public static final String PARAM_INDEX = "index";
 	public static final String PARAM_INTERRUPT_PIN_NAME = "interruptPinName";
 	public static final String PARAM_INVERTED = "inverted";
+	public static final String PARAM_CONFLATE = "conflate";
+	public static final String PARAM_PERSISTENCE = "persistence";
+	public static final String PARAM_PERSIST_INTERVAL = "persistInterval";
 	public static final String PARAM_REMOTE = "remote";
 	public static final String PARAM_PLC_ID = "plcId";
 	public static final String PARAM_IP_ADDRESS = "ipAddress";
@@ -53,6 +56,51 @@ public class PlcConstants {
 	public static final String PARAM_LOCATOR = "locator";
 	public static final String PARAM_REALM = "realm";
 	public static final String PARAM_SIMULATED = "simulated";
+	public static final String PARAM_NOTIFICATION_LANES = "notificationLanes";
+	public static final String PARAM_QUEUE_DEPTH = "queueDepth";
+	public static final String PARAM_TIMESTAMP = "timestamp";
+	public static final String PARAM_NANOS = "nanos";
+	public static final String PARAM_CONNECTION = "connection";
+	public static final String PARAM_CAPACITY = "capacity";
+	public static final String PARAM_RECORDED = "recorded";
+	public static final String PARAM_RECORDS = "records";
+	public static final String PARAM_FILE = "file";
+	public static final String PARAM_STAGES = "stages";
+	public static final String PARAM_COUNT = "count";
+	public static final String PARAM_MEAN_US = "meanUs";
+	public static final String PARAM_P50_US = "p50Us";
+	public static final String PARAM_P90_US = "p90Us";
+	public static final String PARAM_P99_US = "p99Us";
+	public static final String PARAM_P999_US = "p999Us";
+	public static final String PARAM_MAX_US = "maxUs";
+	public static final String PARAM_UPDATE_STATE_COMMIT = "updateStateCommit";
+	public static final String PARAM_SUPPRESSED_UPDATES = "suppressedUpdates";
+	public static final String PARAM_BUS = "bus";
+	public static final String PARAM_START_MS = "startMs";
+	public static final String PARAM_DURATION_MS = "durationMs";
+	public static final String PARAM_TIMED_OUT = "timedOut";
+	public static final String PARAM_DEBOUNCER = "debouncer";
+	public static final String PARAM_TICK_MILLIS = "tickMillis";
+	public static final String PARAM_PENDING_TIMERS = "pendingTimers";
+	public static final String PARAM_FIRED_TIMERS = "firedTimers";
+	public static final String PARAM_FIRE_LATENESS = "fireLateness";
+	public static final String PARAM_SCAN_CYCLE = "scanCycle";
+	public static final String PARAM_CYCLE_TIME_MS = "cycleTimeMs";
+	public static final String PARAM_CYCLES = "cycles";
+	public static final String PARAM_OVERRUNS = "overruns";
+	public static final String PARAM_EXECUTION = "execution";
+	public static final String PARAM_JITTER = "jitter";
+	public static final String PARAM_SERVICES = "services";
+	public static final String PARAM_EXECUTOR = "executor";
+	public static final String PARAM_NAME = "name";
+	public static final String PARAM_THREADS = "threads";
+	public static final String PARAM_QUEUE_SIZE = "queueSize";
+	public static final String PARAM_VIRTUAL_THREADS = "virtualThreads";
+	public static final String PARAM_RUNNING = "running";
+	public static final String PARAM_COMPLETED = "completed";
+	public static final String PARAM_FAILED = "failed";
+	public static final String PARAM_REJECTED = "rejected";
+	public static final String PARAM_START_LAG = "startLag";
 
 	public static final String PARAM_PLC_SUPPORTS_READ_STATE = "plcSupportsReadState";
 
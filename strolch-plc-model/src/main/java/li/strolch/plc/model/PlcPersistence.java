@@ -0,0 +1,28 @@
+package li.strolch.plc.model;
+
+/**
+ * Defines how the values of a {@link PlcAddress} are persisted on its PlcAddress resource
+ */
+public enum PlcPersistence {
+
+	/**
+	 * Every changed value is persisted
+	 */
+	Always,
+
+	/**
+	 * The value is persisted at most once per persist interval, persisting the last value at the end of the interval
+	 */
+	Sampled,
+
+	/**
+	 * The value is never persisted, it is only kept in memory, and listeners are still notified
+	 */
+	Volatile;
+
+	public static PlcPersistence parse(String value) {
+		if (value == null || value.isEmpty())
+			return Always;
+		return valueOf(value);
+	}
+}
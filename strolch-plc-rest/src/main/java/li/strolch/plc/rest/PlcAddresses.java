@@ -3,13 +3,11 @@ package li.strolch.plc.rest;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.ws.rs.Consumes;
-import jakarta.ws.rs.PUT;
-import jakarta.ws.rs.Path;
-import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import li.strolch.plc.core.PlcHandler;
 import li.strolch.plc.core.service.SendPlcAddressActionService;
 import li.strolch.privilege.model.Certificate;
 import li.strolch.rest.RestfulStrolchComponent;
@@ -18,10 +16,43 @@ import li.strolch.rest.helper.ResponseUtil;
 import li.strolch.service.JsonServiceArgument;
 import li.strolch.service.api.ServiceHandler;
 import li.strolch.service.api.ServiceResult;
+import li.strolch.utils.dbc.DBC;
+
+import static li.strolch.plc.model.ModelHelper.valueToJson;
+import static li.strolch.plc.model.PlcConstants.*;
+import static li.strolch.rest.StrolchRestfulConstants.DATA;
 
 @Path("plc/addresses")
 public class PlcAddresses {
 
+	@GET
+	@Path("{resource}/{action}")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getAddressValue(@Context HttpServletRequest request, @PathParam("resource") String resource,
+			@PathParam("action") String action) {
+		Certificate cert = (Certificate) request.getAttribute(StrolchRestfulConstants.STROLCH_CERTIFICATE);
+		DBC.PRE.assertNotNull("No certificate available!", cert);
+
+		PlcHandler plcHandler = RestfulStrolchComponent.getInstance().getComponent(PlcHandler.class);
+		if (plcHandler.getAddressValues() == null)
+			return ResponseUtil.toResponse(Response.Status.NOT_FOUND, "The PLC is not configured!");
+
+		if (!plcHandler.hasPlcAddress(resource, action))
+			return ResponseUtil.toResponse(Response.Status.NOT_FOUND,
+					"PlcAddress " + resource + "-" + action + " does not exist!");
+
+		Object value = plcHandler.getAddressValue(resource, action);
+		if (value == null)
+			return ResponseUtil.toResponse(Response.Status.NOT_FOUND,
+					"No value known for address " + resource + "-" + action);
+
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty(PARAM_RESOURCE, resource);
+		jsonObject.addProperty(PARAM_ACTION, action);
+		jsonObject.add(PARAM_VALUE, valueToJson(value));
+		return ResponseUtil.toResponse(DATA, jsonObject);
+	}
+
 	@PUT
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.APPLICATION_JSON)
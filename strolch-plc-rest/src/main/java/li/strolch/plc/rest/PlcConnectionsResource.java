@@ -1,5 +1,6 @@
 package li.strolch.plc.rest;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.*;
@@ -8,6 +9,7 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import li.strolch.model.Tags;
 import li.strolch.persistence.api.StrolchTransaction;
+import li.strolch.plc.core.PlcHandler;
 import li.strolch.plc.core.search.PlcConnectionSearch;
 import li.strolch.plc.core.service.SetPlcConnectionStateService;
 import li.strolch.privilege.model.Certificate;
@@ -18,8 +20,10 @@ import li.strolch.service.StringMapArgument;
 import li.strolch.service.api.ServiceHandler;
 import li.strolch.service.api.ServiceResult;
 import li.strolch.utils.collections.Paging;
+import li.strolch.utils.dbc.DBC;
 
 import static li.strolch.plc.rest.PlcModelVisitor.plcConnectionToJson;
+import static li.strolch.rest.StrolchRestfulConstants.DATA;
 
 @Path("plc/connections")
 public class PlcConnectionsResource {
@@ -49,6 +53,22 @@ public class PlcConnectionsResource {
 		return ResponseUtil.toResponse(paging);
 	}
 
+	@GET
+	@Path("startup")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getStartupTimeline(@Context HttpServletRequest request) {
+		Certificate cert = (Certificate) request.getAttribute(StrolchRestfulConstants.STROLCH_CERTIFICATE);
+		DBC.PRE.assertNotNull("No certificate available!", cert);
+
+		PlcHandler plcHandler = RestfulStrolchComponent.getInstance().getComponent(PlcHandler.class);
+		if (plcHandler.getPlc() == null)
+			return ResponseUtil.toResponse(Response.Status.NOT_FOUND, "The PLC is not configured!");
+
+		JsonArray timelineJ = new JsonArray();
+		plcHandler.getPlc().getStartupTimeline().forEach(startup -> timelineJ.add(startup.toJson()));
+		return ResponseUtil.toResponse(DATA, timelineJ);
+	}
+
 	@PUT
 	@Path("{id}/state/{state}")
 	@Consumes(MediaType.APPLICATION_JSON)
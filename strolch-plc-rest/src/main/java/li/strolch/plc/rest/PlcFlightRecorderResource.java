@@ -0,0 +1,81 @@
+package li.strolch.plc.rest;
+
+import com.google.gson.JsonObject;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import li.strolch.plc.core.PlcHandler;
+import li.strolch.plc.core.hw.PlcFlightRecorder;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.rest.RestfulStrolchComponent;
+import li.strolch.rest.StrolchRestfulConstants;
+import li.strolch.rest.helper.ResponseUtil;
+import li.strolch.utils.dbc.DBC;
+
+import java.io.File;
+
+import static li.strolch.plc.model.PlcConstants.*;
+import static li.strolch.rest.StrolchRestfulConstants.DATA;
+
+@Path("plc/flightRecorder")
+public class PlcFlightRecorderResource {
+
+	private static PlcFlightRecorder getFlightRecorder(HttpServletRequest request) {
+		Certificate cert = (Certificate) request.getAttribute(StrolchRestfulConstants.STROLCH_CERTIFICATE);
+		DBC.PRE.assertNotNull("No certificate available!", cert);
+
+		PlcHandler plcHandler = RestfulStrolchComponent.getInstance().getComponent(PlcHandler.class);
+		return plcHandler.getPlc() == null ? null : plcHandler.getPlc().getFlightRecorder();
+	}
+
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getRecords(@Context HttpServletRequest request,
+			@QueryParam("limit") @DefaultValue("100") int limit) {
+
+		PlcFlightRecorder flightRecorder = getFlightRecorder(request);
+		if (flightRecorder == null)
+			return ResponseUtil.toResponse(Response.Status.NOT_FOUND, "The flight recorder is not enabled!");
+
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty(PARAM_CAPACITY, flightRecorder.getCapacity());
+		jsonObject.addProperty(PARAM_RECORDED, flightRecorder.getRecorded());
+		jsonObject.add(PARAM_RECORDS, flightRecorder.toJson(limit));
+		return ResponseUtil.toResponse(DATA, jsonObject);
+	}
+
+	@GET
+	@Path("dump")
+	@Produces(MediaType.APPLICATION_OCTET_STREAM)
+	public Response getDump(@Context HttpServletRequest request) {
+
+		PlcFlightRecorder flightRecorder = getFlightRecorder(request);
+		if (flightRecorder == null)
+			return Response.status(Response.Status.NOT_FOUND).build();
+
+		String fileName = "plc_flight_recorder_" + System.currentTimeMillis() + ".bin";
+		StreamingOutput streamingOutput = flightRecorder::writeTo;
+		return Response
+				.ok(streamingOutput, MediaType.APPLICATION_OCTET_STREAM)
+				.header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
+				.build();
+	}
+
+	@POST
+	@Path("dump")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response dumpToFile(@Context HttpServletRequest request) throws Exception {
+		Certificate cert = (Certificate) request.getAttribute(StrolchRestfulConstants.STROLCH_CERTIFICATE);
+		DBC.PRE.assertNotNull("No certificate available!", cert);
+
+		PlcHandler plcHandler = RestfulStrolchComponent.getInstance().getComponent(PlcHandler.class);
+		File dumpFile = plcHandler.dumpFlightRecorder();
+
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty(PARAM_FILE, dumpFile.getAbsolutePath());
+		return ResponseUtil.toResponse(DATA, jsonObject);
+	}
+}
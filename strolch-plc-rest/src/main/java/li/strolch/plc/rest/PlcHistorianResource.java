@@ -0,0 +1,70 @@
+package li.strolch.plc.rest;
+
+import com.google.gson.stream.JsonWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import li.strolch.plc.core.PlcHandler;
+import li.strolch.plc.core.PlcHistorian;
+import li.strolch.privilege.model.Certificate;
+import li.strolch.rest.RestfulStrolchComponent;
+import li.strolch.rest.StrolchRestfulConstants;
+import li.strolch.rest.helper.ResponseUtil;
+import li.strolch.utils.dbc.DBC;
+
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static li.strolch.plc.model.PlcConstants.*;
+
+@Path("plc/historian")
+public class PlcHistorianResource {
+
+	@GET
+	@Path("{resource}/{action}")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getHistory(@Context HttpServletRequest request, @PathParam("resource") String resource,
+			@PathParam("action") String action, @QueryParam("from") @DefaultValue("0") long from,
+			@QueryParam("to") @DefaultValue("0") long to, @QueryParam("bucket") @DefaultValue("0") long bucket) {
+		Certificate cert = (Certificate) request.getAttribute(StrolchRestfulConstants.STROLCH_CERTIFICATE);
+		DBC.PRE.assertNotNull("No certificate available!", cert);
+
+		PlcHandler plcHandler = RestfulStrolchComponent.getInstance().getComponent(PlcHandler.class);
+		PlcHistorian historian = plcHandler.getHistorian();
+		if (historian == null)
+			return ResponseUtil.toResponse(Response.Status.NOT_FOUND, "The historian is not enabled!");
+
+		// by default query the last hour
+		long toMillis = to <= 0L ? System.currentTimeMillis() : to;
+		long fromMillis = from <= 0L ? toMillis - TimeUnit.HOURS.toMillis(1) : from;
+		String key = resource + "-" + action;
+		if (!historian.isKnown(key))
+			return ResponseUtil.toResponse(Response.Status.NOT_FOUND, "The address " + key + " is not recorded!");
+
+		StreamingOutput streamingOutput = out -> {
+			JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			writer.beginObject();
+			writer.name(PARAM_RESOURCE).value(resource);
+			writer.name(PARAM_ACTION).value(action);
+			writer.name(PARAM_RECORDS).beginArray();
+			historian.query(key, fromMillis, toMillis, bucket, (timestamp, kind, payload) -> {
+				writer.beginObject();
+				writer.name(PARAM_TIMESTAMP).value(timestamp);
+				if (kind == PlcHistorian.KIND_BOOLEAN)
+					writer.name(PARAM_VALUE).value(payload != 0L);
+				else
+					writer.name(PARAM_VALUE).value(payload);
+				writer.endObject();
+			});
+			writer.endArray();
+			writer.endObject();
+			writer.flush();
+		};
+
+		return Response.ok(streamingOutput, MediaType.APPLICATION_JSON).build();
+	}
+}
@@ -1,5 +1,6 @@
 package li.strolch.plc.rest;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.*;
@@ -7,6 +8,7 @@ import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import li.strolch.plc.core.PlcHandler;
+import li.strolch.plc.core.PlcServiceInitializer;
 import li.strolch.plc.core.service.SetPlcStateService;
 import li.strolch.privilege.model.Certificate;
 import li.strolch.rest.RestfulStrolchComponent;
@@ -34,13 +36,87 @@ public class PlcResource {
 		JsonObject jsonObject = new JsonObject();
 		jsonObject.addProperty(PARAM_STATE, plcHandler.getPlcState().name());
 		jsonObject.addProperty(PARAM_STATE_MSG, plcHandler.getPlcStateMsg());
-		if (plcHandler.getPlc() != null)
+		if (plcHandler.getPlc() != null) {
 			jsonObject.addProperty(PARAM_CLASS_NAME, plcHandler.getPlc().getClass().getName());
-		else
+
+			JsonArray lanesJ = new JsonArray();
+			int[] depths = plcHandler.getPlc().getNotificationQueueDepths();
+			for (int i = 0; i < depths.length; i++) {
+				JsonObject laneJ = new JsonObject();
+				laneJ.addProperty(PARAM_INDEX, i);
+				laneJ.addProperty(PARAM_QUEUE_DEPTH, depths[i]);
+				lanesJ.add(laneJ);
+			}
+			jsonObject.add(PARAM_NOTIFICATION_LANES, lanesJ);
+			jsonObject.addProperty(PARAM_SUPPRESSED_UPDATES, plcHandler.getSuppressedUpdates());
+		} else {
 			jsonObject.addProperty(PARAM_CLASS_NAME, "unknown");
+		}
+		return ResponseUtil.toResponse(DATA, jsonObject);
+	}
+
+	@GET
+	@Path("latencies")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getLatencies(@Context HttpServletRequest request) {
+		PlcHandler plcHandler = RestfulStrolchComponent.getInstance().getComponent(PlcHandler.class);
+		Certificate cert = (Certificate) request.getAttribute(StrolchRestfulConstants.STROLCH_CERTIFICATE);
+		DBC.PRE.assertNotNull("No certificate available!", cert);
+
+		if (plcHandler.getPlc() == null)
+			return ResponseUtil.toResponse(Response.Status.NOT_FOUND, "The PLC is not configured!");
+		JsonObject jsonObject = plcHandler.getPlc().getLatencies().toJson();
+		jsonObject.add(PARAM_UPDATE_STATE_COMMIT, plcHandler.getUpdateStateCommitLatency().toJson());
+		jsonObject.add(PARAM_DEBOUNCER, plcHandler.getDebouncer().toJson());
+		if (plcHandler.getPlc().getScanCycleStats() != null)
+			jsonObject.add(PARAM_SCAN_CYCLE, plcHandler.getPlc().getScanCycleStats().toJson());
 		return ResponseUtil.toResponse(DATA, jsonObject);
 	}
 
+	@GET
+	@Path("services")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getServices(@Context HttpServletRequest request) {
+		PlcServiceInitializer initializer = RestfulStrolchComponent.getInstance()
+				.getComponent(PlcServiceInitializer.class);
+		Certificate cert = (Certificate) request.getAttribute(StrolchRestfulConstants.STROLCH_CERTIFICATE);
+		DBC.PRE.assertNotNull("No certificate available!", cert);
+
+		return ResponseUtil.toResponse(DATA, initializer.getPlcServicesJson());
+	}
+
+	@GET
+	@Path("services/startup")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getServicesStartupTimeline(@Context HttpServletRequest request) {
+		PlcServiceInitializer initializer = RestfulStrolchComponent.getInstance()
+				.getComponent(PlcServiceInitializer.class);
+		Certificate cert = (Certificate) request.getAttribute(StrolchRestfulConstants.STROLCH_CERTIFICATE);
+		DBC.PRE.assertNotNull("No certificate available!", cert);
+
+		JsonArray timelineJ = new JsonArray();
+		initializer.getStartupTimeline().forEach(startup -> timelineJ.add(startup.toJson()));
+		return ResponseUtil.toResponse(DATA, timelineJ);
+	}
+
+	@DELETE
+	@Path("latencies")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response resetLatencies(@Context HttpServletRequest request) {
+		PlcHandler plcHandler = RestfulStrolchComponent.getInstance().getComponent(PlcHandler.class);
+		Certificate cert = (Certificate) request.getAttribute(StrolchRestfulConstants.STROLCH_CERTIFICATE);
+		DBC.PRE.assertNotNull("No certificate available!", cert);
+
+		if (plcHandler.getPlc() == null)
+			return ResponseUtil.toResponse(Response.Status.NOT_FOUND, "The PLC is not configured!");
+		plcHandler.getPlc().getLatencies().reset();
+		plcHandler.getUpdateStateCommitLatency().reset();
+		plcHandler.getDebouncer().getFireLateness().reset();
+		if (plcHandler.getPlc().getScanCycleStats() != null)
+			plcHandler.getPlc().getScanCycleStats().reset();
+		return ResponseUtil.toResponse();
+	}
+
 	@PUT
 	@Path("state/{state}")
 	@Consumes(MediaType.APPLICATION_JSON)
@@ -155,6 +155,13 @@ public class PlcAddressGenerator {
 
 						if (record.isSet("Inverted"))
 							addressR.setBoolean(PARAM_INVERTED, Boolean.parseBoolean(record.get("Inverted").trim()));
+						if (record.isSet("Conflate"))
+							addressR.setBoolean(PARAM_CONFLATE, Boolean.parseBoolean(record.get("Conflate").trim()));
+						if (record.isSet("Persistence"))
+							addressR.setString(PARAM_PERSISTENCE, record.get("Persistence").trim());
+						if (record.isSet("PersistInterval"))
+							addressR.setInteger(PARAM_PERSIST_INTERVAL,
+									Integer.parseInt(record.get("PersistInterval").trim()));
 						if (record.isSet("Remote"))
 							addressR.setBoolean(PARAM_REMOTE, Boolean.parseBoolean(record.get("Remote").trim()));
 